@@ -0,0 +1,74 @@
+package pl.wsb.fitnesstracker.export.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes objects as newline-delimited JSON (one JSON document per line) directly to an output stream.
+ * Objects are serialized one by one through a single {@link JsonGenerator}, so the memory used by an export
+ * does not depend on the number of exported rows.
+ */
+public final class NdjsonWriter implements Closeable {
+
+    private final ObjectWriter objectWriter;
+
+    private final JsonGenerator generator;
+
+    private NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory()
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Creates a response body streaming all the objects pushed by the {@code source} as newline-delimited JSON.
+     * The {@code source} is invoked on the request's async thread once the response is being written,
+     * and should push the objects to the given sink one by one, e.g. from a database cursor.
+     *
+     * @param objectMapper mapper used to serialize the objects
+     * @param source       producer pushing the exported objects to the sink
+     * @param <T>          type of the exported objects
+     * @return the streaming response body
+     */
+    public static <T> StreamingResponseBody body(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        return out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                source.accept(writer::write);
+            }
+        };
+    }
+
+    /**
+     * Serializes the value as a single line of JSON.
+     *
+     * @param value value to be written
+     * @throws UncheckedIOException if writing to the underlying stream failed
+     */
+    public void write(Object value) {
+        try {
+            objectWriter.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the buffered output. The underlying stream is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+}
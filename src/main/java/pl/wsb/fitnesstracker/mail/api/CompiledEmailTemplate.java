@@ -0,0 +1,42 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parsed locale variants of an {@link EmailTemplate}, created by
+ * an {@link EmailTemplateCompiler}. Immutable and thread-safe.
+ *
+ * @param <M> type of the model
+ */
+final class CompiledEmailTemplate<M> {
+
+    private final Map<Locale, TemplateVariant<M>> variants;
+    private final TemplateVariant<M> defaultVariant;
+
+    CompiledEmailTemplate(Map<Locale, TemplateVariant<M>> variants, TemplateVariant<M> defaultVariant) {
+        this.variants = variants;
+        this.defaultVariant = defaultVariant;
+    }
+
+    /**
+     * Appends the variant of the given locale. The variant is looked up by the whole locale, then by its language only,
+     * and falls back to the first variant added to the compiler.
+     *
+     * @param out    buffer of the rendered text
+     * @param model  values of the placeholders
+     * @param locale requested locale
+     */
+    void appendTo(StringBuilder out, M model, Locale locale) {
+        variant(locale).appendTo(out, model);
+    }
+
+    TemplateVariant<M> variant(Locale locale) {
+        TemplateVariant<M> variant = variants.get(locale);
+        if (variant == null && !locale.getCountry().isEmpty()) {
+            variant = variants.get(new Locale(locale.getLanguage()));
+        }
+        return variant == null ? defaultVariant : variant;
+    }
+
+}
@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * API interface for queueing emails in the transactional outbox. Queued emails are stored within the transaction
+ * of the caller, so they are sent only if it commits, and they survive a restart of the application.
+ * They are sent in the background, retried with a growing delay when the mail server refuses them.
+ */
+public interface EmailOutbox {
+
+    /**
+     * Stores the email to be sent, within the current transaction if there is one.
+     * An email with a deduplication key which was already queued is skipped, so a producer repeated after a crash
+     * does not send the same email twice.
+     *
+     * @param email            information on email to be sent
+     * @param deduplicationKey key identifying the email among all emails ever queued, or {@code null} to skip the check
+     * @return {@code true} if the email was queued, {@code false} if an email with the same key already was
+     */
+    boolean enqueue(EmailDto email, @Nullable String deduplicationKey);
+
+}
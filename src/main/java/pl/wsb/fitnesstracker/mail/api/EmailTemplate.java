@@ -0,0 +1,169 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Precompiled text template of an email, rendered from a typed model of type {@code M}.
+ * The sources of all locale variants are parsed once, when the template is {@link Builder#build() built},
+ * into immutable lists of literal and placeholder segments, so rendering only appends the literals and the model values
+ * into a buffer reused by the rendering thread. Placeholders are written as {@code {{name}}} and must be declared
+ * in the {@link Builder} together with the accessor of their value; an unknown or unclosed placeholder fails the build.
+ * <p>
+ * Repeated parts of an email are rendered with a {@link Builder#section section}, which renders another (fragment)
+ * template for every item of a model collection, directly into the same buffer.
+ * <p>
+ * Instances are immutable and thread-safe. The accessors must not render templates themselves.
+ *
+ * @param <M> type of the model
+ */
+public final class EmailTemplate<M> {
+
+    private static final int INITIAL_BUFFER_CAPACITY = 1024;
+
+    /**
+     * Buffers grown beyond that size by an exceptionally long email are not kept by the rendering thread.
+     */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
+
+    private final CompiledEmailTemplate<M> compiled;
+
+    private EmailTemplate(CompiledEmailTemplate<M> compiled) {
+        this.compiled = compiled;
+    }
+
+    /**
+     * @param name name of the template, used in the error messages
+     * @param <M>  type of the model
+     * @return builder of a new template
+     */
+    public static <M> Builder<M> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    /**
+     * Renders the variant of the given locale. The variant is looked up by the whole locale, then by its language only,
+     * and falls back to the first variant added to the builder.
+     *
+     * @param model  values of the placeholders
+     * @param locale requested locale
+     * @return the rendered text
+     */
+    public String render(M model, Locale locale) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        compiled.appendTo(buffer, model, locale);
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    /**
+     * Declares the placeholders and the locale variants of an {@link EmailTemplate}.
+     *
+     * @param <M> type of the model
+     */
+    public static final class Builder<M> {
+
+        private final EmailTemplateCompiler<M> compiler;
+
+        private Builder(String name) {
+            this.compiler = new EmailTemplateCompiler<>(name);
+        }
+
+        /**
+         * Declares a placeholder replaced by a text value of the model.
+         *
+         * @param placeholder name of the placeholder
+         * @param value       accessor of the value
+         * @return this builder
+         */
+        public Builder<M> text(String placeholder, Function<? super M, ? extends CharSequence> value) {
+            compiler.text(placeholder, value);
+            return this;
+        }
+
+        /**
+         * Declares a placeholder replaced by an integer value of the model.
+         *
+         * @param placeholder name of the placeholder
+         * @param value       accessor of the value
+         * @return this builder
+         */
+        public Builder<M> number(String placeholder, ToLongFunction<? super M> value) {
+            return number(placeholder, value, 1);
+        }
+
+        /**
+         * Declares a placeholder replaced by an integer value of the model, padded with leading zeros.
+         *
+         * @param placeholder name of the placeholder
+         * @param value       accessor of the value
+         * @param minDigits   minimal number of digits, {@code 1..9}
+         * @return this builder
+         */
+        public Builder<M> number(String placeholder, ToLongFunction<? super M> value, int minDigits) {
+            compiler.number(placeholder, value, minDigits);
+            return this;
+        }
+
+        /**
+         * Declares a placeholder replaced by a decimal value of the model, rounded half up to the given number
+         * of fraction digits and written with the decimal separator of the rendered locale.
+         *
+         * @param placeholder    name of the placeholder
+         * @param value          accessor of the value
+         * @param fractionDigits number of fraction digits, {@code 0..9}
+         * @return this builder
+         */
+        public Builder<M> decimal(String placeholder, ToDoubleFunction<? super M> value, int fractionDigits) {
+            compiler.decimal(placeholder, value, fractionDigits);
+            return this;
+        }
+
+        /**
+         * Declares a placeholder replaced by the fragment rendered for every item of a collection of the model,
+         * in the locale of the enclosing template.
+         *
+         * @param placeholder name of the placeholder
+         * @param items       accessor of the items
+         * @param fragment    template rendered for every item
+         * @param <T>         type of the items
+         * @return this builder
+         */
+        public <T> Builder<M> section(String placeholder, Function<? super M, ? extends Iterable<? extends T>> items, EmailTemplate<T> fragment) {
+            compiler.section(placeholder, items, fragment.compiled);
+            return this;
+        }
+
+        /**
+         * Adds the source of a locale variant. The first added variant is used for the locales without their own one.
+         *
+         * @param locale locale of the variant
+         * @param source text of the variant, with {@code {{name}}} placeholders
+         * @return this builder
+         */
+        public Builder<M> variant(Locale locale, String source) {
+            compiler.variant(locale, source);
+            return this;
+        }
+
+        /**
+         * Parses the sources of all the variants.
+         *
+         * @return the precompiled template
+         * @throws IllegalArgumentException if there is no variant, or a variant contains an unknown or unclosed placeholder
+         */
+        public EmailTemplate<M> build() {
+            return new EmailTemplate<>(compiler.compile());
+        }
+
+    }
+
+}
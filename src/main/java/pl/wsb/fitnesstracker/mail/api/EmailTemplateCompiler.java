@@ -0,0 +1,92 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Collects the placeholders and the locale variants declared by an {@link EmailTemplate.Builder}
+ * and parses the variants into a {@link CompiledEmailTemplate}. The declaring methods are documented on the builder methods
+ * of the same name.
+ *
+ * @param <M> type of the model
+ */
+final class EmailTemplateCompiler<M> {
+
+    private final String name;
+    private final Map<String, TemplateSegment<M>> placeholders = new HashMap<>();
+    private final Map<Locale, String> sources = new LinkedHashMap<>();
+
+    /**
+     * @param name name of the template, used in the error messages
+     */
+    EmailTemplateCompiler(String name) {
+        this.name = name;
+    }
+
+    void text(String placeholder, Function<? super M, ? extends CharSequence> value) {
+        placeholder(placeholder, TemplateSegments.text(value));
+    }
+
+    void number(String placeholder, ToLongFunction<? super M> value, int minDigits) {
+        checkDigits(minDigits, 1);
+        placeholder(placeholder, TemplateSegments.number(value, minDigits));
+    }
+
+    void decimal(String placeholder, ToDoubleFunction<? super M> value, int fractionDigits) {
+        checkDigits(fractionDigits, 0);
+        placeholder(placeholder, TemplateSegments.decimal(value, fractionDigits));
+    }
+
+    <T> void section(String placeholder, Function<? super M, ? extends Iterable<? extends T>> items, CompiledEmailTemplate<T> fragment) {
+        placeholder(placeholder, TemplateSegments.section(items, fragment));
+    }
+
+    void variant(Locale locale, String source) {
+        if (sources.putIfAbsent(locale, source) != null) {
+            throw new IllegalArgumentException("Template %s already has a variant of locale %s".formatted(name, locale));
+        }
+    }
+
+    /**
+     * @return the parsed variants
+     * @throws IllegalArgumentException if there is no variant, or a variant contains an unknown or unclosed placeholder
+     */
+    CompiledEmailTemplate<M> compile() {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("Template %s has no variant".formatted(name));
+        }
+        Map<Locale, TemplateVariant<M>> variants = new HashMap<>();
+        TemplateVariant<M> defaultVariant = null;
+        for (Map.Entry<Locale, String> source : sources.entrySet()) {
+            Locale locale = source.getKey();
+            TemplateVariant<M> variant = new TemplateVariant<>(locale,
+                    DecimalFormatSymbols.getInstance(locale).getDecimalSeparator(),
+                    TemplateParser.parse(name, locale, source.getValue(), placeholders));
+            variants.put(locale, variant);
+            if (defaultVariant == null) {
+                defaultVariant = variant;
+            }
+        }
+        return new CompiledEmailTemplate<>(Map.copyOf(variants), defaultVariant);
+    }
+
+    private void placeholder(String placeholder, TemplateSegment<M> segment) {
+        if (placeholders.putIfAbsent(placeholder, segment) != null) {
+            throw new IllegalArgumentException("Template %s already declares placeholder %s".formatted(name, placeholder));
+        }
+    }
+
+    private void checkDigits(int digits, int min) {
+        if (digits < min || digits > TemplateSegments.MAX_DIGITS) {
+            throw new IllegalArgumentException("Template %s: number of digits must be between %d and %d, got: %d"
+                    .formatted(name, min, TemplateSegments.MAX_DIGITS, digits));
+        }
+    }
+
+}
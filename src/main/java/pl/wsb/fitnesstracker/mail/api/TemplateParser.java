@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits the source of a template variant into literal segments and the segments of its {@code {{name}}} placeholders.
+ */
+final class TemplateParser {
+
+    private static final String OPENING = "{{";
+    private static final String CLOSING = "}}";
+
+    private TemplateParser() {
+    }
+
+    /**
+     * @param name         name of the template, used in the error messages
+     * @param locale       locale of the variant, used in the error messages
+     * @param source       text of the variant
+     * @param placeholders segments of the declared placeholders, by name
+     * @param <M>          type of the model
+     * @return segments of the variant, in the order of the source
+     * @throws IllegalArgumentException if the source contains an unknown or unclosed placeholder
+     */
+    @SuppressWarnings("unchecked")
+    static <M> TemplateSegment<M>[] parse(String name, Locale locale, String source, Map<String, TemplateSegment<M>> placeholders) {
+        List<TemplateSegment<M>> segments = new ArrayList<>();
+        int position = 0;
+        int opening;
+        while ((opening = source.indexOf(OPENING, position)) >= 0) {
+            int closing = source.indexOf(CLOSING, opening + OPENING.length());
+            if (closing < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at %d in template %s (%s)".formatted(opening, name, locale));
+            }
+            if (opening > position) {
+                segments.add(TemplateSegments.literal(source.substring(position, opening)));
+            }
+            String placeholder = source.substring(opening + OPENING.length(), closing).strip();
+            TemplateSegment<M> segment = placeholders.get(placeholder);
+            if (segment == null) {
+                throw new IllegalArgumentException("Unknown placeholder %s in template %s (%s)".formatted(placeholder, name, locale));
+            }
+            segments.add(segment);
+            position = closing + CLOSING.length();
+        }
+        if (position < source.length()) {
+            segments.add(TemplateSegments.literal(source.substring(position)));
+        }
+        return segments.toArray(TemplateSegment[]::new);
+    }
+
+}
@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+/**
+ * Part of a parsed template variant: a literal or the value of a placeholder.
+ *
+ * @param <M> type of the model
+ */
+@FunctionalInterface
+interface TemplateSegment<M> {
+
+    /**
+     * @param out     buffer of the rendered text
+     * @param model   rendered model
+     * @param variant variant being rendered, giving the locale and its decimal separator
+     */
+    void appendTo(StringBuilder out, M model, TemplateVariant<?> variant);
+
+}
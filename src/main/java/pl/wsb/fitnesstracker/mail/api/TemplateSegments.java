@@ -0,0 +1,73 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Factories of the {@link TemplateSegment}s of the placeholder kinds. Numbers are appended digit by digit
+ * into the buffer, without formatting them into intermediate strings.
+ */
+final class TemplateSegments {
+
+    static final int MAX_DIGITS = 9;
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000};
+
+    private TemplateSegments() {
+    }
+
+    static <M> TemplateSegment<M> literal(String text) {
+        return (out, model, variant) -> out.append(text);
+    }
+
+    static <M> TemplateSegment<M> text(Function<? super M, ? extends CharSequence> value) {
+        return (out, model, variant) -> out.append(value.apply(model));
+    }
+
+    static <M> TemplateSegment<M> number(ToLongFunction<? super M> value, int minDigits) {
+        return (out, model, variant) -> appendPadded(out, value.applyAsLong(model), minDigits);
+    }
+
+    static <M> TemplateSegment<M> decimal(ToDoubleFunction<? super M> value, int fractionDigits) {
+        return (out, model, variant) -> appendDecimal(out, value.applyAsDouble(model), fractionDigits, variant.decimalSeparator());
+    }
+
+    static <M, T> TemplateSegment<M> section(Function<? super M, ? extends Iterable<? extends T>> items, CompiledEmailTemplate<T> fragment) {
+        return (out, model, variant) -> {
+            TemplateVariant<T> fragmentVariant = fragment.variant(variant.locale());
+            for (T item : items.apply(model)) {
+                fragmentVariant.appendTo(out, item);
+            }
+        };
+    }
+
+    static void appendPadded(StringBuilder out, long value, int minDigits) {
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        for (int digits = minDigits - 1; digits > 0 && value < POWERS_OF_TEN[digits]; digits--) {
+            out.append('0');
+        }
+        out.append(value);
+    }
+
+    static void appendDecimal(StringBuilder out, double value, int fractionDigits, char decimalSeparator) {
+        if (!Double.isFinite(value)) {
+            out.append(value);
+            return;
+        }
+        long scale = POWERS_OF_TEN[fractionDigits];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            out.append('-');
+        }
+        out.append(scaled / scale);
+        if (fractionDigits > 0) {
+            out.append(decimalSeparator);
+            appendPadded(out, scaled % scale, fractionDigits);
+        }
+    }
+
+}
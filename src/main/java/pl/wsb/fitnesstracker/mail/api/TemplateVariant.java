@@ -0,0 +1,21 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.util.Locale;
+
+/**
+ * Parsed source of one locale variant of a template.
+ *
+ * @param locale           locale of the variant
+ * @param decimalSeparator decimal separator of the locale
+ * @param segments         literals and placeholders, in the order of the source
+ * @param <M>              type of the model
+ */
+record TemplateVariant<M>(Locale locale, char decimalSeparator, TemplateSegment<M>[] segments) {
+
+    void appendTo(StringBuilder out, M model) {
+        for (TemplateSegment<M> segment : segments) {
+            segment.appendTo(out, model, this);
+        }
+    }
+
+}
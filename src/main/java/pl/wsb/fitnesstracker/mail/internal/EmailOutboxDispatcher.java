@@ -0,0 +1,207 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the emails queued in the outbox. A single poller thread claims batches of due emails: it locks them with
+ * {@code FOR UPDATE SKIP LOCKED}, so concurrent dispatchers of other instances claim different emails, and leases them
+ * for {@link EmailOutboxProperties#getLease()} before committing. The claimed emails are sent concurrently by a pool of
+ * {@link EmailOutboxProperties#getSenderThreads()} threads throttled to {@link EmailOutboxProperties#getRatePerSecond()},
+ * then the delivered ones are marked in a single statement. Refused emails are retried with an exponential backoff.
+ * <p>
+ * Delivery is at least once: an email sent just before a crash is sent again once its lease expires.
+ * The dispatcher publishes the {@code mail.outbox.sent} counter tagged with the {@code result} of every attempt.
+ */
+@Slf4j
+class EmailOutboxDispatcher {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailSender emailSender;
+    private final EmailOutboxProperties properties;
+    private final TransactionTemplate transaction;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService senders;
+    private final Thread poller;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+
+    private Instant nextPurge = Instant.MIN;
+
+    EmailOutboxDispatcher(OutboxEmailRepository outboxEmailRepository,
+                          EmailSender emailSender,
+                          EmailOutboxProperties properties,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.emailSender = emailSender;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rateLimiter = new RateLimiter(properties.getRatePerSecond());
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), new CustomizableThreadFactory("email-outbox-sender-"));
+        this.poller = new CustomizableThreadFactory("email-outbox-dispatcher").newThread(this::poll);
+        this.delivered = sentCounter(meterRegistry, "delivered");
+        this.retried = sentCounter(meterRegistry, "retried");
+        this.failed = sentCounter(meterRegistry, "failed");
+    }
+
+    void start() {
+        poller.start();
+    }
+
+    /**
+     * Stops claiming emails and waits for the current batch to be sent. Emails left unsent are claimed
+     * by the next dispatcher once their lease expires.
+     */
+    void stop() {
+        running = false;
+        stopped.countDown();
+        try {
+            poller.join(properties.getShutdownTimeout().toMillis());
+            senders.shutdown();
+            if (!senders.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Email outbox senders did not finish in {}", properties.getShutdownTimeout());
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            senders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = dispatchBatch();
+                purgeIfDue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch outbox emails", e);
+            }
+            if (claimed < properties.getBatchSize()) {
+                try {
+                    stopped.await(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int dispatchBatch() throws InterruptedException {
+        List<ClaimedEmail> claimed = claim();
+        List<Future<?>> sends = new ArrayList<>(claimed.size());
+        for (ClaimedEmail email : claimed) {
+            sends.add(senders.submit(() -> {
+                send(email);
+                return null;
+            }));
+        }
+        List<Long> deliveredIds = new ArrayList<>(claimed.size());
+        for (int i = 0; i < claimed.size(); i++) {
+            ClaimedEmail email = claimed.get(i);
+            try {
+                sends.get(i).get();
+                deliveredIds.add(email.id());
+            } catch (ExecutionException e) {
+                markAttemptFailed(email, e.getCause());
+            }
+        }
+        if (!deliveredIds.isEmpty()) {
+            transaction.executeWithoutResult(status -> outboxEmailRepository.markDelivered(deliveredIds, Instant.now()));
+            delivered.increment(deliveredIds.size());
+        }
+        return claimed.size();
+    }
+
+    private List<ClaimedEmail> claim() {
+        return transaction.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEmail> due = outboxEmailRepository.lockDue(now, properties.getBatchSize());
+            if (due.isEmpty()) {
+                return List.of();
+            }
+            outboxEmailRepository.lease(due.stream().map(OutboxEmail::getId).toList(), now.plus(properties.getLease()));
+            return due.stream()
+                    .map(email -> new ClaimedEmail(email.getId(), email.getAttempts() + 1,
+                            new EmailDto(email.getToAddress(), email.getSubject(), email.getContent())))
+                    .toList();
+        });
+    }
+
+    private void send(ClaimedEmail email) throws InterruptedException {
+        rateLimiter.acquire();
+        emailSender.send(email.email());
+    }
+
+    private void markAttemptFailed(ClaimedEmail email, Throwable cause) {
+        boolean giveUp = email.attempts() >= properties.getMaxAttempts();
+        Instant now = Instant.now();
+        Instant availableAt = giveUp ? now : now.plus(backoff(email.attempts()));
+        String error = String.valueOf(cause.getMessage());
+        log.warn("Attempt {} of sending outbox email {} to {} failed{}: {}", email.attempts(), email.id(), email.email().toAddress(),
+                giveUp ? ", giving up" : ", retrying at " + availableAt, error);
+        transaction.executeWithoutResult(status -> outboxEmailRepository.markAttemptFailed(email.id(),
+                giveUp ? OutboxEmailStatus.FAILED : OutboxEmailStatus.PENDING, availableAt,
+                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error));
+        (giveUp ? failed : retried).increment();
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+
+    private void purgeIfDue() {
+        Instant now = Instant.now();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plus(PURGE_INTERVAL);
+        Integer purged = transaction.execute(status ->
+                outboxEmailRepository.deleteDeliveredBefore(now.minus(properties.getDeliveredRetention())));
+        if (purged != null && purged > 0) {
+            log.info("Removed {} delivered outbox emails", purged);
+        }
+    }
+
+    private static Counter sentCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("mail.outbox.sent")
+                .description("Number of attempts of sending outbox emails")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record ClaimedEmail(long id, int attempts, EmailDto email) {
+    }
+
+}
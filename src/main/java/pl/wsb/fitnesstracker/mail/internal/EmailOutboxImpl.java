@@ -0,0 +1,27 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+
+import java.time.Instant;
+
+/**
+ * Stores the queued emails in the {@code email_outbox} table, from which they are sent by the {@link EmailOutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+class EmailOutboxImpl implements EmailOutbox {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    @Override
+    @Transactional
+    public boolean enqueue(EmailDto email, @Nullable String deduplicationKey) {
+        return outboxEmailRepository.insertIfAbsent(deduplicationKey, email.toAddress(), email.subject(), email.content(), Instant.now()) > 0;
+    }
+
+}
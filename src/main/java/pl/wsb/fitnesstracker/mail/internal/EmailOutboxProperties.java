@@ -0,0 +1,92 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link EmailOutboxDispatcher}.
+ */
+@ConfigurationProperties(prefix = "mail.outbox")
+@Getter
+class EmailOutboxProperties {
+
+    /**
+     * Maximal number of emails claimed at once.
+     */
+    private final int batchSize;
+
+    /**
+     * Number of threads sending the claimed emails.
+     */
+    private final int senderThreads;
+
+    /**
+     * Maximal number of emails sent per second, across all sender threads.
+     */
+    private final double ratePerSecond;
+
+    /**
+     * Time the dispatcher waits before looking for due emails again, after it found fewer than a full batch.
+     */
+    private final Duration pollInterval;
+
+    /**
+     * Time for which a claimed email is reserved for the dispatcher. If the email is neither delivered
+     * nor failed by then, e.g. because the application crashed, it is claimed again.
+     */
+    private final Duration lease;
+
+    /**
+     * Number of attempts after which an email is marked as failed.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay of the first retry. Every next retry waits twice as long, up to {@link #maxBackoff}.
+     */
+    private final Duration initialBackoff;
+
+    /**
+     * Maximal delay between retries.
+     */
+    private final Duration maxBackoff;
+
+    /**
+     * Time for which the delivered emails are kept.
+     */
+    private final Duration deliveredRetention;
+
+    /**
+     * Maximal time the shutdown waits for the emails being sent.
+     */
+    private final Duration shutdownTimeout;
+
+    EmailOutboxProperties(@DefaultValue("100") int batchSize,
+                          @DefaultValue("4") int senderThreads,
+                          @DefaultValue("20") double ratePerSecond,
+                          @DefaultValue("1s") Duration pollInterval,
+                          @DefaultValue("5m") Duration lease,
+                          @DefaultValue("8") int maxAttempts,
+                          @DefaultValue("30s") Duration initialBackoff,
+                          @DefaultValue("1h") Duration maxBackoff,
+                          @DefaultValue("7d") Duration deliveredRetention,
+                          @DefaultValue("30s") Duration shutdownTimeout) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("mail.outbox.rate-per-second must be positive, got: " + ratePerSecond);
+        }
+        this.batchSize = batchSize;
+        this.senderThreads = senderThreads;
+        this.ratePerSecond = ratePerSecond;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.deliveredRetention = deliveredRetention;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+}
@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+/**
+ * {@link EmailSender} sending plain text messages through the autoconfigured {@link JavaMailSender}.
+ */
+@RequiredArgsConstructor
+class JavaMailEmailSender implements EmailSender {
+
+    private final JavaMailSender javaMailSender;
+    private final MailProperties properties;
+
+    @Override
+    public void send(EmailDto email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(properties.getFrom());
+        message.setTo(email.toAddress());
+        message.setSubject(email.subject());
+        message.setText(email.content());
+        javaMailSender.send(message);
+    }
+
+}
@@ -1,10 +1,42 @@
 package pl.wsb.fitnesstracker.mail.internal;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
 
+/**
+ * Provides the {@link EmailSender} and starts the {@link EmailOutboxDispatcher} once an SMTP server is configured
+ * with {@code spring.mail.host}, which is also the condition of the {@link JavaMailSender} autoconfiguration.
+ * Without it, emails queued in the outbox wait until a dispatcher is started.
+ * The sender reuses pooled SMTP connections unless {@code mail.pool.enabled=false}.
+ */
 @Configuration
-@EnableConfigurationProperties(MailProperties.class)
+@EnableConfigurationProperties({MailProperties.class, EmailOutboxProperties.class})
 class MailConfig {
 
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.mail", name = "host")
+    EmailSender emailSender(JavaMailSenderImpl javaMailSender, MailProperties properties) {
+        if (!properties.getPool().isEnabled()) {
+            return new JavaMailEmailSender(javaMailSender, properties);
+        }
+        return new PooledSmtpEmailSender(new SmtpTransportPool(javaMailSender, properties.getPool()), properties);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "spring.mail", name = "host")
+    EmailOutboxDispatcher emailOutboxDispatcher(OutboxEmailRepository outboxEmailRepository,
+                                                EmailSender emailSender,
+                                                EmailOutboxProperties properties,
+                                                PlatformTransactionManager transactionManager,
+                                                MeterRegistry meterRegistry) {
+        return new EmailOutboxDispatcher(outboxEmailRepository, emailSender, properties, transactionManager, meterRegistry);
+    }
+
 }
@@ -1,17 +1,18 @@
 package pl.wsb.fitnesstracker.mail.internal;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.mail.javamail.JavaMailSender;
 import pl.wsb.fitnesstracker.mail.api.EmailSender;
 
+import java.time.Duration;
+
 /**
  * Configuration of the {@link EmailSender} (additional to the Spring mail configuration for {@link JavaMailSender} bean autoconfiguration).
  */
 @ConfigurationProperties(prefix = "mail")
 @Getter
-@RequiredArgsConstructor
 class MailProperties {
 
     /**
@@ -19,4 +20,69 @@ class MailProperties {
      */
     private final String from;
 
+    /**
+     * Pool of SMTP connections reused by the {@link EmailSender}.
+     */
+    private final Pool pool;
+
+    MailProperties(String from, @DefaultValue Pool pool) {
+        this.from = from;
+        this.pool = pool;
+    }
+
+    /**
+     * Configuration of the {@link SmtpTransportPool}.
+     */
+    @Getter
+    static class Pool {
+
+        /**
+         * Whether the SMTP connections are reused. If disabled, every email opens a new connection.
+         */
+        private final boolean enabled;
+
+        /**
+         * Maximal number of open connections. Should not be lower than the number of threads sending emails.
+         */
+        private final int size;
+
+        /**
+         * Number of emails after which a connection is closed and replaced by a new one.
+         */
+        private final int maxMessagesPerConnection;
+
+        /**
+         * Time after which an unused connection is closed.
+         */
+        private final Duration maxIdle;
+
+        /**
+         * Time after which an unused connection is checked with a {@code NOOP} command before it is reused.
+         */
+        private final Duration validateAfterIdle;
+
+        /**
+         * Maximal time a sender waits for a connection when all of them are in use.
+         */
+        private final Duration borrowTimeout;
+
+        Pool(@DefaultValue("true") boolean enabled,
+             @DefaultValue("4") int size,
+             @DefaultValue("100") int maxMessagesPerConnection,
+             @DefaultValue("30s") Duration maxIdle,
+             @DefaultValue("5s") Duration validateAfterIdle,
+             @DefaultValue("30s") Duration borrowTimeout) {
+            if (maxIdle.isNegative() || maxIdle.isZero()) {
+                throw new IllegalArgumentException("mail.pool.max-idle must be positive, got: " + maxIdle);
+            }
+            this.enabled = enabled;
+            this.size = size;
+            this.maxMessagesPerConnection = maxMessagesPerConnection;
+            this.maxIdle = maxIdle;
+            this.validateAfterIdle = validateAfterIdle;
+            this.borrowTimeout = borrowTimeout;
+        }
+
+    }
+
 }
@@ -0,0 +1,65 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Email queued in the transactional outbox. A pending email becomes due once {@code availableAt} passes;
+ * a dispatcher claiming it moves {@code availableAt} to the end of its lease, so a dispatcher which crashes while
+ * sending leaves the email to be claimed again after the lease expires.
+ */
+@Entity
+@Table(name = "email_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_email_outbox_deduplication_key", columnNames = "deduplication_key"),
+        indexes = @Index(name = "idx_email_outbox_status_available", columnList = "status, available_at"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(exclude = "content")
+class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Nullable
+    @Column(name = "deduplication_key", length = 200)
+    private String deduplicationKey;
+
+    @Column(name = "to_address", nullable = false)
+    private String toAddress;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(name = "content", nullable = false)
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OutboxEmailStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Nullable
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+
+    @Nullable
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+}
@@ -0,0 +1,114 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.Nullable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    /**
+     * Stores a pending email unless an email with the same deduplication key exists, in a single atomic statement.
+     *
+     * @param deduplicationKey key of the email, or {@code null} to always store it
+     * @param toAddress        recipient of the email
+     * @param subject          subject of the email
+     * @param content          content of the email
+     * @param now              current time
+     * @return number of stored emails, {@code 0} if the key already exists
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            merge into email_outbox o
+            using (select cast(:deduplicationKey as varchar(200)) as deduplication_key) d
+            on o.deduplication_key = d.deduplication_key
+            when not matched then insert
+                (deduplication_key, to_address, subject, content, status, attempts, available_at, created_at)
+                values (d.deduplication_key, :toAddress, :subject, :content, 'PENDING', 0, :now, :now)
+            """)
+    int insertIfAbsent(@Nullable @Param("deduplicationKey") String deduplicationKey,
+                       @Param("toAddress") String toAddress,
+                       @Param("subject") String subject,
+                       @Param("content") String content,
+                       @Param("now") Instant now);
+
+    /**
+     * Locks the pending emails which are due, skipping the ones locked by other dispatchers,
+     * read from the {@code (status, available_at)} index in the order they became due.
+     * Must be called within a transaction, which should lease the returned emails.
+     *
+     * @param now   current time
+     * @param limit maximal number of emails to return
+     * @return a list of locked emails
+     */
+    @Query(nativeQuery = true, value = """
+            select * from email_outbox
+            where status = 'PENDING' and available_at <= :now
+            order by available_at, id
+            fetch first :limit rows only
+            for update skip locked
+            """)
+    List<OutboxEmail> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Leases the emails until the given time and counts the attempt to send them.
+     *
+     * @param ids        IDs of the locked emails
+     * @param leaseUntil time after which the emails can be claimed again
+     * @return number of leased emails
+     */
+    @Modifying
+    @Query("update OutboxEmail e set e.availableAt = :leaseUntil, e.attempts = e.attempts + 1 where e.id in :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Marks the pending emails as delivered. Emails which are not pending anymore are left as they are,
+     * so marking an email twice has no effect.
+     *
+     * @param ids IDs of the sent emails
+     * @param now current time
+     * @return number of emails marked as delivered
+     */
+    @Modifying
+    @Query("""
+            update OutboxEmail e set e.status = pl.wsb.fitnesstracker.mail.internal.OutboxEmailStatus.DELIVERED,
+                e.deliveredAt = :now, e.lastError = null
+            where e.id in :ids and e.status = pl.wsb.fitnesstracker.mail.internal.OutboxEmailStatus.PENDING
+            """)
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Records a failed attempt of sending a pending email.
+     *
+     * @param id          ID of the email
+     * @param status      {@link OutboxEmailStatus#PENDING} to retry the email, {@link OutboxEmailStatus#FAILED} to give up
+     * @param availableAt time of the next attempt
+     * @param error       description of the failure
+     * @return number of updated emails
+     */
+    @Modifying
+    @Query("""
+            update OutboxEmail e set e.status = :status, e.availableAt = :availableAt, e.lastError = :error
+            where e.id = :id and e.status = pl.wsb.fitnesstracker.mail.internal.OutboxEmailStatus.PENDING
+            """)
+    int markAttemptFailed(@Param("id") long id,
+                          @Param("status") OutboxEmailStatus status,
+                          @Param("availableAt") Instant availableAt,
+                          @Param("error") String error);
+
+    /**
+     * Removes the emails delivered before the given time.
+     *
+     * @param before exclusive upper limit of the delivery time
+     * @return number of removed emails
+     */
+    @Modifying
+    @Query("delete from OutboxEmail e where e.status = pl.wsb.fitnesstracker.mail.internal.OutboxEmailStatus.DELIVERED and e.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("before") Instant before);
+
+}
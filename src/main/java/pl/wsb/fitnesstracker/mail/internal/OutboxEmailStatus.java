@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+/**
+ * Delivery state of an {@link OutboxEmail}.
+ */
+enum OutboxEmailStatus {
+
+    /**
+     * Waiting to be sent, or being sent under a lease which has not expired yet.
+     */
+    PENDING,
+
+    /**
+     * Accepted by the mail server.
+     */
+    DELIVERED,
+
+    /**
+     * Refused by the mail server in all attempts.
+     */
+    FAILED
+
+}
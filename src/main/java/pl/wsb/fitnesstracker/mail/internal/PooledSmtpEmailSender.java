@@ -0,0 +1,84 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * {@link EmailSender} sending plain text messages through the connections of a {@link SmtpTransportPool},
+ * so consecutive emails skip the connection set-up, {@code EHLO}, {@code STARTTLS} and authentication.
+ * A connection which failed to send an email is closed instead of being reused. If a reused connection fails
+ * because the server has closed it, the email is sent once more over a new connection.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class PooledSmtpEmailSender implements EmailSender, AutoCloseable {
+
+    private final SmtpTransportPool pool;
+    private final MailProperties properties;
+
+    @Override
+    public void send(EmailDto email) {
+        try {
+            MimeMessage message = toMimeMessage(email);
+            if (!send(pool.borrow(), message, true)) {
+                log.debug("Reused SMTP connection was closed, sending email to {} over a new one", email.toAddress());
+                send(pool.borrowNew(), message, false);
+            }
+        } catch (MessagingException e) {
+            throw new MailSendException("Failed to send email to " + email.toAddress(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while sending email to " + email.toAddress(), e);
+        }
+    }
+
+    /**
+     * Sends the message through the borrowed transport and gives the transport back.
+     *
+     * @return {@code false} if the message may be retried on a new connection, as the transport was reused
+     * and its connection turned out to be closed
+     */
+    private boolean send(SmtpTransportPool.PooledTransport transport, MimeMessage message, boolean retryable) throws MessagingException {
+        boolean broken = true;
+        try {
+            transport.getTransport().sendMessage(message, message.getAllRecipients());
+            transport.countSent();
+            broken = false;
+            return true;
+        } catch (MessagingException | IllegalStateException e) {
+            if (retryable && transport.isReused() && !transport.getTransport().isConnected()) {
+                return false;
+            }
+            throw e;
+        } finally {
+            pool.release(transport, broken);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private MimeMessage toMimeMessage(EmailDto email) throws MessagingException {
+        MimeMessage message = new MimeMessage(pool.getSession());
+        message.setFrom(new InternetAddress(properties.getFrom()));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(email.toAddress()));
+        message.setSubject(email.subject(), StandardCharsets.UTF_8.name());
+        message.setText(email.content(), StandardCharsets.UTF_8.name());
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+}
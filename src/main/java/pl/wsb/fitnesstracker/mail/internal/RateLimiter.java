@@ -0,0 +1,40 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out the permits evenly at the given rate, shared by any number of threads.
+ * Unused permits do not accumulate, so there are no bursts after idle periods.
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+
+    private long nextPermitNanos = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond maximal number of permits per second
+     */
+    RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    /**
+     * Waits until the next permit is available.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long permitNanos = Math.max(nextPermitNanos, now);
+            nextPermitNanos = permitNanos + intervalNanos;
+            waitNanos = permitNanos - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of connected and authenticated SMTP {@link Transport transports}, created on demand up to
+ * {@link MailProperties.Pool#getSize()}. Idle transports are reused in the last-in-first-out order, so the busy ones
+ * stay warm and the surplus ones idle out after {@link MailProperties.Pool#getMaxIdle()}; they are closed by a background
+ * evictor, so they are not kept open when no email is sent. A transport idle for longer than
+ * {@link MailProperties.Pool#getValidateAfterIdle()} is checked with a {@code NOOP} command before it is reused; one idle
+ * for a shorter time is reused unchecked, so a sender must be prepared for a reused transport whose server has closed it.
+ */
+@Slf4j
+class SmtpTransportPool implements AutoCloseable {
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailProperties.Pool properties;
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    SmtpTransportPool(JavaMailSenderImpl mailSender, MailProperties.Pool properties) {
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getSize());
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("smtp-pool-evictor-"));
+        long evictionMillis = properties.getMaxIdle().toMillis();
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, evictionMillis, evictionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    Session getSession() {
+        return mailSender.getSession();
+    }
+
+    /**
+     * Takes an idle transport, or connects a new one if there is none, waiting if all transports are in use.
+     * The transport must be given back with {@link #release(PooledTransport, boolean)}.
+     *
+     * @return a connected transport
+     * @throws MessagingException   if a new transport could not connect
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    PooledTransport borrow() throws MessagingException, InterruptedException {
+        acquire();
+        try {
+            evictIdle();
+            PooledTransport transport;
+            while ((transport = idle.pollFirst()) != null) {
+                if (transport.idleNanos() < properties.getValidateAfterIdle().toNanos() || transport.getTransport().isConnected()) {
+                    return transport;
+                }
+                transport.close();
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Connects a new transport, bypassing the idle ones, waiting if all transports are in use.
+     * The transport must be given back with {@link #release(PooledTransport, boolean)}.
+     *
+     * @return a newly connected transport
+     * @throws MessagingException   if the transport could not connect
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    PooledTransport borrowNew() throws MessagingException, InterruptedException {
+        acquire();
+        try {
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back a borrowed transport. It is closed if it failed, reached
+     * {@link MailProperties.Pool#getMaxMessagesPerConnection()} or the pool is closed.
+     *
+     * @param transport borrowed transport
+     * @param broken    whether sending through the transport failed
+     */
+    void release(PooledTransport transport, boolean broken) {
+        if (broken || closed || transport.getMessagesSent() >= properties.getMaxMessagesPerConnection()) {
+            transport.close();
+        } else {
+            transport.markUsed();
+            idle.offerFirst(transport);
+        }
+        permits.release();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            transport.close();
+        }
+    }
+
+    private void acquire() throws InterruptedException {
+        if (!permits.tryAcquire(properties.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new MailSendException("No SMTP connection became available within " + properties.getBorrowTimeout());
+        }
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return new PooledTransport(transport);
+    }
+
+    private void evictIdle() {
+        PooledTransport transport;
+        while ((transport = idle.peekLast()) != null && transport.idleNanos() > properties.getMaxIdle().toNanos()) {
+            if (idle.removeLastOccurrence(transport)) {
+                transport.close();
+            }
+        }
+    }
+
+    /**
+     * Transport of the pool with its usage.
+     */
+    static final class PooledTransport {
+
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsedNanos = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        Transport getTransport() {
+            return transport;
+        }
+
+        int getMessagesSent() {
+            return messagesSent;
+        }
+
+        /**
+         * @return whether the transport has sent emails before, so its connection may have been closed by the server since
+         */
+        boolean isReused() {
+            return messagesSent > 0;
+        }
+
+        void countSent() {
+            messagesSent++;
+        }
+
+        private void markUsed() {
+            lastUsedNanos = System.nanoTime();
+        }
+
+        private long idleNanos() {
+            return System.nanoTime() - lastUsedNanos;
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Failed to close SMTP connection", e);
+            }
+        }
+
+    }
+
+}
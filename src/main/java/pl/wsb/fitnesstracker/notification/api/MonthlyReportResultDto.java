@@ -0,0 +1,14 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+import java.time.YearMonth;
+
+/**
+ * Outcome of queueing the monthly reports.
+ *
+ * @param month  reported month
+ * @param users  number of the reported users
+ * @param queued number of the reports queued by this run; reports queued by a previous run of the same month are not counted
+ */
+public record MonthlyReportResultDto(YearMonth month, int users, int queued) {
+
+}
@@ -0,0 +1,21 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+import java.time.YearMonth;
+
+/**
+ * Interface (API) for sending the monthly training reports. The reports of the previous month are sent on schedule;
+ * this interface allows sending the reports of any month on demand.
+ */
+public interface MonthlyReportService {
+
+    /**
+     * Queues an email for every user, summarizing their trainings started within the given month. The emails are sent
+     * in the background. Users without trainings in the month receive a report as well; users who already had
+     * the report of the month queued are skipped.
+     *
+     * @param month month of the trainings to be reported
+     * @return numbers of the reported users and of the queued emails
+     */
+    MonthlyReportResultDto sendMonthlyReports(YearMonth month);
+
+}
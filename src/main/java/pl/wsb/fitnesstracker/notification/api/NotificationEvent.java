@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+import java.time.Instant;
+
+/**
+ * A notification delivered to the {@link NotificationHandler}s. Events are slots of a pre-allocated buffer,
+ * reused for later notifications once every handler has processed them, so a handler must copy the values
+ * it wants to keep instead of retaining the event.
+ */
+public interface NotificationEvent {
+
+    /**
+     * @return position of the notification in the order of publishing
+     */
+    long getSequence();
+
+    NotificationType getType();
+
+    /**
+     * @return ID of the notified user
+     */
+    long getUserId();
+
+    /**
+     * @return ID of the entity the notification refers to, depending on its {@link #getType() type}
+     */
+    long getReferenceId();
+
+    /**
+     * @return time the notification was published
+     */
+    Instant getPublishedAt();
+
+}
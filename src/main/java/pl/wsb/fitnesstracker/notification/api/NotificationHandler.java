@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+/**
+ * Consumer of the published notifications. Every handler bean is called on its own thread, with the notifications
+ * in the order they were published, in batches of the notifications available at once. An exception thrown
+ * by the handler is logged and skips only the notification it was thrown for.
+ */
+public interface NotificationHandler {
+
+    /**
+     * Handles a single notification.
+     *
+     * @param event      the notification, valid only until this method returns
+     * @param endOfBatch {@code true} for the last notification currently available, so the handler may flush
+     *                   the work accumulated within the batch
+     */
+    void onNotification(NotificationEvent event, boolean endOfBatch);
+
+}
@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+/**
+ * API interface for publishing user-facing notifications. Publishing never waits for the notification to be handled:
+ * the notification is stored in a bounded in-memory buffer and processed by the {@link NotificationHandler}s
+ * on their own threads. Notifications are not persisted, so the ones still buffered when the application
+ * is killed are lost.
+ */
+public interface NotificationPublisher {
+
+    /**
+     * Stores the notification for the handlers. When the buffer is full, the notification is either dropped
+     * or the caller waits for a free slot, depending on the configured overflow policy.
+     *
+     * @param type        kind of the notification
+     * @param userId      ID of the notified user
+     * @param referenceId ID of the entity the notification refers to
+     * @return {@code true} if the notification was stored, {@code false} if it was dropped
+     */
+    boolean publish(NotificationType type, long userId, long referenceId);
+
+}
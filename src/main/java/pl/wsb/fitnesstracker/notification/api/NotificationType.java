@@ -0,0 +1,13 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+/**
+ * Kind of a user-facing notification, determining the meaning of its {@link NotificationEvent#getReferenceId() reference}.
+ */
+public enum NotificationType {
+
+    /**
+     * A training of the user was stored. The reference is the ID of the training.
+     */
+    TRAINING_RECORDED
+
+}
@@ -0,0 +1,43 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+/**
+ * Schedules the {@link MonthlyReportJob} with {@link MonthlyReportProperties#getCron()} once the emails can be sent,
+ * i.e. {@code spring.mail.host} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.mail", name = "host")
+@EnableScheduling
+@EnableConfigurationProperties(MonthlyReportProperties.class)
+class MonthlyReportConfig {
+
+    @Bean
+    MonthlyReportJob monthlyReportJob(UserProvider userProvider,
+                                      TrainingProvider trainingProvider,
+                                      EmailOutbox emailOutbox,
+                                      MonthlyReportProperties properties,
+                                      PlatformTransactionManager transactionManager) {
+        return new MonthlyReportJob(userProvider, trainingProvider, emailOutbox, properties, transactionManager);
+    }
+
+    @Bean
+    SchedulingConfigurer monthlyReportSchedule(MonthlyReportJob monthlyReportJob, MonthlyReportProperties properties) {
+        return taskRegistrar -> {
+            if (!Scheduled.CRON_DISABLED.equals(properties.getCron())) {
+                taskRegistrar.addCronTask(monthlyReportJob::sendPreviousMonthReports, properties.getCron());
+            }
+        };
+    }
+
+}
@@ -0,0 +1,96 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+import pl.wsb.fitnesstracker.notification.api.MonthlyReportResultDto;
+import pl.wsb.fitnesstracker.notification.api.MonthlyReportService;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Queues the monthly training reports in the {@link EmailOutbox}. The users are read in keyset pages of
+ * {@link MonthlyReportProperties#getChunkSize()} and the trainings of every page are summed by a single grouped query
+ * over the ID range of the page. The reports of a page are queued in a single transaction, keyed by the month
+ * and the user, so a run repeated after a crash queues only the reports which are still missing.
+ */
+@Slf4j
+class MonthlyReportJob implements MonthlyReportService {
+
+    private final UserProvider userProvider;
+    private final TrainingProvider trainingProvider;
+    private final EmailOutbox emailOutbox;
+    private final MonthlyReportProperties properties;
+    private final MonthlyReportRenderer renderer;
+    private final TransactionTemplate transaction;
+
+    MonthlyReportJob(UserProvider userProvider,
+                     TrainingProvider trainingProvider,
+                     EmailOutbox emailOutbox,
+                     MonthlyReportProperties properties,
+                     PlatformTransactionManager transactionManager) {
+        this.userProvider = userProvider;
+        this.trainingProvider = trainingProvider;
+        this.emailOutbox = emailOutbox;
+        this.properties = properties;
+        this.renderer = new MonthlyReportRenderer(properties.getLocale());
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queues the reports of the previous month. Scheduled by {@link MonthlyReportConfig} with
+     * {@link MonthlyReportProperties#getCron()}.
+     */
+    void sendPreviousMonthReports() {
+        sendMonthlyReports(YearMonth.now().minusMonths(1));
+    }
+
+    @Override
+    public MonthlyReportResultDto sendMonthlyReports(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String monthName = renderer.monthName(month);
+        long startNanos = System.nanoTime();
+        int users = 0;
+        int queued = 0;
+        String after = null;
+        do {
+            KeysetPage<User> page = userProvider.findUsers(after, properties.getChunkSize());
+            if (page.items().isEmpty()) {
+                break;
+            }
+            UserIdRange range = new UserIdRange(page.items().get(0).getId(), page.items().get(page.items().size() - 1).getId());
+            Map<Long, List<TrainingSummaryDto>> summaries = trainingProvider.summarizeTrainings(range, from, to).stream()
+                    .collect(Collectors.groupingBy(TrainingSummaryDto::userId));
+            Integer pageQueued = transaction.execute(status -> {
+                int count = 0;
+                for (User user : page.items()) {
+                    if (emailOutbox.enqueue(renderer.render(user, monthName, summaries.getOrDefault(user.getId(), List.of())),
+                            "monthly-report:%s:%d".formatted(month, user.getId()))) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            users += page.items().size();
+            queued += pageQueued == null ? 0 : pageQueued;
+            after = page.nextCursor();
+        } while (after != null);
+        log.info("Queued monthly reports of {} for {} of {} users in {} ms", month, queued, users,
+                Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        return new MonthlyReportResultDto(month, users, queued);
+    }
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+
+import java.util.Locale;
+
+/**
+ * Configuration of the monthly training reports.
+ */
+@ConfigurationProperties(prefix = "notification.monthly-report")
+@Getter
+class MonthlyReportProperties {
+
+    /**
+     * Cron expression of sending the reports of the previous month. {@code -} disables the schedule.
+     */
+    private final String cron;
+
+    /**
+     * Number of users read, whose trainings are summed and whose reports are queued, at once.
+     */
+    private final int chunkSize;
+
+    /**
+     * Locale of the reports. The reports have English and Polish variants; English is used for the other locales.
+     */
+    private final Locale locale;
+
+    MonthlyReportProperties(@DefaultValue("0 0 6 1 * *") String cron,
+                            @DefaultValue("500") int chunkSize,
+                            @DefaultValue("en") Locale locale) {
+        KeysetPage.checkLimit(chunkSize);
+        if (!Scheduled.CRON_DISABLED.equals(cron) && !CronExpression.isValidExpression(cron)) {
+            throw new IllegalArgumentException("notification.monthly-report.cron must be a cron expression or -, got: " + cron);
+        }
+        this.cron = cron;
+        this.chunkSize = chunkSize;
+        this.locale = locale;
+    }
+
+}
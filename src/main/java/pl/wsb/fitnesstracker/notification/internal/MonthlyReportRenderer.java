@@ -0,0 +1,129 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailTemplate;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders the plain text monthly report email of a user from {@link EmailTemplate}s precompiled
+ * once when the class is loaded, in the English and Polish variants.
+ */
+class MonthlyReportRenderer {
+
+    private static final Locale POLISH = new Locale("pl");
+
+    private static final EmailTemplate<TrainingSummaryDto> ACTIVITY = EmailTemplate.<TrainingSummaryDto>builder("monthly-report-activity")
+            .text("activityType", summary -> summary.activityType().name())
+            .number("trainings", TrainingSummaryDto::trainings)
+            .decimal("distance", TrainingSummaryDto::totalDistance, 2)
+            .number("hours", summary -> summary.durationSeconds() / 3600)
+            .number("minutes", summary -> summary.durationSeconds() % 3600 / 60, 2)
+            .variant(Locale.ENGLISH, "- {{activityType}}: trainings {{trainings}}, distance {{distance}} km, time {{hours}}h {{minutes}}m\n")
+            .variant(POLISH, "- {{activityType}}: treningi {{trainings}}, dystans {{distance}} km, czas {{hours}}h {{minutes}}m\n")
+            .build();
+
+    private static final EmailTemplate<Report> SUBJECT = EmailTemplate.<Report>builder("monthly-report-subject")
+            .text("month", Report::month)
+            .variant(Locale.ENGLISH, "Your training summary for {{month}}")
+            .variant(POLISH, "Podsumowanie treningów za {{month}}")
+            .build();
+
+    private static final EmailTemplate<Report> SUMMARY = EmailTemplate.<Report>builder("monthly-report")
+            .text("firstName", report -> report.user().getFirstName())
+            .text("month", Report::month)
+            .section("activities", Report::activities, ACTIVITY)
+            .number("trainings", Report::trainings)
+            .decimal("distance", Report::distance, 2)
+            .number("hours", report -> report.durationSeconds() / 3600)
+            .number("minutes", report -> report.durationSeconds() % 3600 / 60, 2)
+            .variant(Locale.ENGLISH, """
+                    Hi {{firstName}},
+
+                    here is the summary of your trainings in {{month}}:
+                    {{activities}}
+                    Total: trainings {{trainings}}, distance {{distance}} km, time {{hours}}h {{minutes}}m
+
+                    Keep it up!
+                    """)
+            .variant(POLISH, """
+                    Cześć {{firstName}},
+
+                    oto podsumowanie Twoich treningów za {{month}}:
+                    {{activities}}
+                    Razem: treningi {{trainings}}, dystans {{distance}} km, czas {{hours}}h {{minutes}}m
+
+                    Tak trzymaj!
+                    """)
+            .build();
+
+    private static final EmailTemplate<Report> EMPTY = EmailTemplate.<Report>builder("monthly-report-empty")
+            .text("firstName", report -> report.user().getFirstName())
+            .text("month", Report::month)
+            .variant(Locale.ENGLISH, """
+                    Hi {{firstName}},
+
+                    you did not record any trainings in {{month}}.
+
+                    Keep it up!
+                    """)
+            .variant(POLISH, """
+                    Cześć {{firstName}},
+
+                    brak zarejestrowanych treningów za {{month}}.
+
+                    Tak trzymaj!
+                    """)
+            .build();
+
+    private final Locale locale;
+
+    /**
+     * @param locale locale of the rendered reports; English is used if there is no variant of it
+     */
+    MonthlyReportRenderer(Locale locale) {
+        this.locale = locale;
+    }
+
+    /**
+     * @param month reported month
+     * @return name of the month in the locale of the reports, shared by all the reports of a run
+     */
+    String monthName(YearMonth month) {
+        return month.getMonth().getDisplayName(TextStyle.FULL_STANDALONE, locale) + " " + month.getYear();
+    }
+
+    /**
+     * @param user      recipient of the report
+     * @param monthName name of the reported month, as returned by {@link #monthName(YearMonth)}
+     * @param summaries totals of the trainings of the user within the month, per activity type
+     * @return email to be sent to the user
+     */
+    EmailDto render(User user, String monthName, List<TrainingSummaryDto> summaries) {
+        long trainings = 0;
+        double distance = 0;
+        long durationSeconds = 0;
+        for (TrainingSummaryDto summary : summaries) {
+            trainings += summary.trainings();
+            distance += summary.totalDistance();
+            durationSeconds += summary.durationSeconds();
+        }
+        Report report = new Report(user, monthName, summaries, trainings, distance, durationSeconds);
+        EmailTemplate<Report> content = summaries.isEmpty() ? EMPTY : SUMMARY;
+        return new EmailDto(user.getEmail(), SUBJECT.render(report, locale), content.render(report, locale));
+    }
+
+    private record Report(User user,
+                          String month,
+                          List<TrainingSummaryDto> activities,
+                          long trainings,
+                          double distance,
+                          long durationSeconds) {
+    }
+
+}
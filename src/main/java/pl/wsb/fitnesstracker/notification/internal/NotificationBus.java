@@ -0,0 +1,98 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+import pl.wsb.fitnesstracker.notification.api.NotificationHandler;
+import pl.wsb.fitnesstracker.notification.api.NotificationPublisher;
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process notification bus. Publishers write into a pre-allocated {@link NotificationRingBuffer} without locks
+ * or allocations, and every {@link NotificationHandler} consumes all notifications on its own {@link NotificationProcessor}
+ * thread. When the slowest handler lags by the whole buffer, the {@link OverflowPolicy} decides between dropping
+ * the notification and making the publisher wait.
+ * <p>
+ * The bus publishes the {@code notification.bus.published} and {@code notification.bus.dropped} counters
+ * and the {@code notification.bus.remaining-capacity} gauge; the handlers publish their own throughput and lag.
+ */
+@Slf4j
+class NotificationBus implements NotificationPublisher {
+
+    private static final long BLOCK_PARK_NANOS = 50_000;
+
+    private final NotificationRingBuffer ringBuffer;
+    private final NotificationBusProperties properties;
+    private final List<NotificationProcessor> processors;
+    private final boolean signalProcessors;
+    private final Counter published;
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+
+    NotificationBus(List<NotificationHandler> handlers, NotificationBusProperties properties, MeterRegistry meterRegistry) {
+        this.ringBuffer = new NotificationRingBuffer(properties.getBufferSize());
+        this.properties = properties;
+        this.processors = handlers.stream()
+                .map(handler -> new NotificationProcessor(ringBuffer, handler, ClassUtils.getUserClass(handler).getSimpleName(),
+                        properties, meterRegistry))
+                .toList();
+        this.signalProcessors = properties.getWaitStrategy() == WaitStrategy.BLOCKING;
+        this.published = Counter.builder("notification.bus.published")
+                .description("Number of notifications stored for the handlers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notification.bus.dropped")
+                .description("Number of notifications dropped because the buffer was full or the bus stopped")
+                .register(meterRegistry);
+        Gauge.builder("notification.bus.remaining-capacity", ringBuffer, NotificationRingBuffer::remainingCapacity)
+                .description("Number of notifications which can be published before the buffer is full")
+                .register(meterRegistry);
+    }
+
+    void start() {
+        processors.forEach(NotificationProcessor::start);
+        log.info("Started notification bus of {} slots with {} handlers", ringBuffer.getCapacity(), processors.size());
+    }
+
+    /**
+     * Stops accepting notifications and waits for the handlers to process the buffered ones.
+     */
+    void stop() {
+        running = false;
+        processors.forEach(NotificationProcessor::stop);
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        try {
+            for (NotificationProcessor processor : processors) {
+                processor.awaitTermination(Math.max(1, (deadline - System.nanoTime()) / 1_000_000));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean publish(NotificationType type, long userId, long referenceId) {
+        long publishedAtMillis = System.currentTimeMillis();
+        while (running) {
+            if (ringBuffer.tryPublish(type, userId, referenceId, publishedAtMillis)) {
+                published.increment();
+                if (signalProcessors) {
+                    processors.forEach(NotificationProcessor::signal);
+                }
+                return true;
+            }
+            if (properties.getOverflowPolicy() == OverflowPolicy.DROP) {
+                break;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        dropped.increment();
+        return false;
+    }
+
+}
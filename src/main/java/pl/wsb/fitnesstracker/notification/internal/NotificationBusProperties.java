@@ -0,0 +1,59 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link NotificationBus}.
+ */
+@ConfigurationProperties(prefix = "notification.bus")
+@Getter
+class NotificationBusProperties {
+
+    /**
+     * Number of pre-allocated notification slots, a power of two. Bounds the lag of the slowest handler.
+     */
+    private final int bufferSize;
+
+    /**
+     * Maximal number of notifications passed to a handler between two advances of its sequence.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * How the handler threads wait for new notifications.
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * What publishing does when the buffer is full.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Maximal time the shutdown waits for the handlers to process the buffered notifications.
+     */
+    private final Duration shutdownTimeout;
+
+    NotificationBusProperties(@DefaultValue("4096") int bufferSize,
+                              @DefaultValue("256") int maxBatchSize,
+                              @DefaultValue("SLEEPING") WaitStrategy waitStrategy,
+                              @DefaultValue("DROP") OverflowPolicy overflowPolicy,
+                              @DefaultValue("10s") Duration shutdownTimeout) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("notification.bus.buffer-size must be a positive power of two, got: " + bufferSize);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("notification.bus.max-batch-size must be positive, got: " + maxBatchSize);
+        }
+        this.bufferSize = bufferSize;
+        this.maxBatchSize = maxBatchSize;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+}
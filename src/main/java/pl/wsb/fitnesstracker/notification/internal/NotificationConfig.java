@@ -0,0 +1,40 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+import pl.wsb.fitnesstracker.notification.api.NotificationHandler;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+/**
+ * Starts the {@link NotificationBus} with a processor thread for every {@link NotificationHandler} bean.
+ * Once the emails can be sent, i.e. {@code spring.mail.host} is set, the notifications are coalesced
+ * by the {@link NotificationDigest} into emails queued in the {@link EmailOutbox}.
+ */
+@Configuration
+@EnableConfigurationProperties({NotificationBusProperties.class, NotificationDigestProperties.class})
+class NotificationConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    NotificationBus notificationBus(ObjectProvider<NotificationHandler> handlers,
+                                    NotificationBusProperties properties,
+                                    MeterRegistry meterRegistry) {
+        return new NotificationBus(handlers.orderedStream().toList(), properties, meterRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "spring.mail", name = "host")
+    NotificationDigest notificationDigest(UserProvider userProvider,
+                                          EmailOutbox emailOutbox,
+                                          NotificationDigestProperties properties,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry) {
+        return new NotificationDigest(userProvider, emailOutbox, properties, transactionManager, meterRegistry);
+    }
+
+}
@@ -0,0 +1,309 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+import pl.wsb.fitnesstracker.mail.api.EmailTemplate;
+import pl.wsb.fitnesstracker.notification.api.NotificationEvent;
+import pl.wsb.fitnesstracker.notification.api.NotificationHandler;
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces the notifications of a user into a single digest email. The first notification of a user opens a digest,
+ * which is sent {@link NotificationDigestProperties#getWindow()} later, or as soon as it holds
+ * {@link NotificationDigestProperties#getMaxNotifications()} notifications. A digest keeps only the number of
+ * notifications of every {@link NotificationType}, so its size does not depend on the number of coalesced notifications.
+ * <p>
+ * The open digests are partitioned into {@link NotificationDigestProperties#getStripes()} maps by the user ID, each guarded
+ * by its own lock, so the flusher thread scanning for the expired digests blocks the handler only on a single stripe
+ * at a time. The number of users with a digest buffered or being sent is bounded by
+ * {@link NotificationDigestProperties#getMaxBufferedUsers()}; beyond it, every notification is queued right away
+ * as a digest of its own, on the handler thread. The digests still open are queued on shutdown; the bus is stopped first,
+ * as it is created after its handlers.
+ * <p>
+ * Digests are queued in the {@link EmailOutbox}, which sends and retries them in the background, a chunk of digests
+ * per transaction. Every digest is keyed by its user and its first notification, so it is queued at most once.
+ * The digest publishes the {@code notification.digest.queued} counter tagged with the {@code result} of every digest
+ * and the {@code notification.digest.buffered-users} gauge.
+ */
+@Slf4j
+class NotificationDigest implements NotificationHandler {
+
+    private static final DateTimeFormatter SINCE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH);
+
+    private static final NotificationType[] TYPES = NotificationType.values();
+
+    private static final Map<NotificationType, String> LABELS = Map.of(NotificationType.TRAINING_RECORDED, "trainings recorded");
+
+    private static final EmailTemplate<TypeCount> LINE = EmailTemplate.<TypeCount>builder("notification-digest-line")
+            .text("label", line -> LABELS.get(line.type()))
+            .number("count", TypeCount::count)
+            .variant(Locale.ENGLISH, "- {{label}}: {{count}}\n")
+            .build();
+
+    private static final EmailTemplate<Digest> SUBJECT = EmailTemplate.<Digest>builder("notification-digest-subject")
+            .text("since", Digest::since)
+            .variant(Locale.ENGLISH, "Your training activity since {{since}}")
+            .build();
+
+    private static final EmailTemplate<Digest> CONTENT = EmailTemplate.<Digest>builder("notification-digest")
+            .text("firstName", digest -> digest.user().getFirstName())
+            .text("since", Digest::since)
+            .section("lines", Digest::lines, LINE)
+            .variant(Locale.ENGLISH, """
+                    Hi {{firstName}},
+
+                    here is what happened since {{since}}:
+                    {{lines}}
+                    Keep it up!
+                    """)
+            .build();
+
+    private final UserProvider userProvider;
+    private final EmailOutbox emailOutbox;
+    private final NotificationDigestProperties properties;
+    private final TransactionTemplate transaction;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final AtomicInteger bufferedUsers = new AtomicInteger();
+    private final Queue<PendingDigest> full = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private final Counter queued;
+    private final Counter duplicate;
+    private final Counter failed;
+
+    NotificationDigest(UserProvider userProvider,
+                       EmailOutbox emailOutbox,
+                       NotificationDigestProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.userProvider = userProvider;
+        this.emailOutbox = emailOutbox;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.stripes = new Stripe[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripes.length - 1;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-digest-flusher-"));
+        this.queued = queuedCounter(meterRegistry, "queued");
+        this.duplicate = queuedCounter(meterRegistry, "duplicate");
+        this.failed = queuedCounter(meterRegistry, "failed");
+        Gauge.builder("notification.digest.buffered-users", bufferedUsers, AtomicInteger::get)
+                .description("Number of users with a digest buffered or being queued")
+                .register(meterRegistry);
+    }
+
+    void start() {
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushDue, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flusher and queues all the digests still open.
+     */
+    void stop() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(properties.getFlushInterval().toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        List<PendingDigest> digests = drainFull();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                digests.addAll(stripe.digests.values());
+                stripe.digests.clear();
+            }
+        }
+        log.info("Queueing {} notification digests on shutdown", digests.size());
+        enqueue(digests);
+    }
+
+    @Override
+    public void onNotification(NotificationEvent event, boolean endOfBatch) {
+        long userId = event.getUserId();
+        Stripe stripe = stripes[Long.hashCode(userId) & stripeMask];
+        PendingDigest overflow = null;
+        synchronized (stripe) {
+            PendingDigest digest = stripe.digests.get(userId);
+            if (digest == null) {
+                digest = new PendingDigest(userId, event.getSequence(), event.getPublishedAt().toEpochMilli());
+                if (bufferedUsers.incrementAndGet() > properties.getMaxBufferedUsers()) {
+                    overflow = digest;
+                } else {
+                    stripe.digests.put(userId, digest);
+                }
+            }
+            digest.add(event.getType());
+            if (overflow == null && digest.notifications >= properties.getMaxNotifications()) {
+                stripe.digests.remove(userId);
+                full.add(digest);
+            }
+        }
+        if (overflow != null) {
+            enqueue(List.of(overflow));
+        }
+    }
+
+    private void flushDue() {
+        try {
+            List<PendingDigest> digests = drainFull();
+            long windowStart = System.currentTimeMillis() - properties.getWindow().toMillis();
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    Iterator<PendingDigest> iterator = stripe.digests.values().iterator();
+                    while (iterator.hasNext()) {
+                        PendingDigest digest = iterator.next();
+                        if (digest.firstPublishedAtMillis <= windowStart) {
+                            iterator.remove();
+                            digests.add(digest);
+                        }
+                    }
+                }
+            }
+            enqueue(digests);
+        } catch (RuntimeException e) {
+            log.error("Failed to queue notification digests", e);
+        }
+    }
+
+    private List<PendingDigest> drainFull() {
+        List<PendingDigest> digests = new ArrayList<>();
+        PendingDigest digest;
+        while ((digest = full.poll()) != null) {
+            digests.add(digest);
+        }
+        return digests;
+    }
+
+    /**
+     * Queues the digests, reading their recipients and storing the emails in chunks. Digests of users who no longer exist
+     * are skipped. A chunk failing to be stored is dropped, as its notifications are not kept anywhere else.
+     */
+    private void enqueue(List<PendingDigest> digests) {
+        for (int from = 0; from < digests.size(); from += KeysetPage.MAX_LIMIT) {
+            List<PendingDigest> chunk = digests.subList(from, Math.min(from + KeysetPage.MAX_LIMIT, digests.size()));
+            try {
+                Map<Long, User> users = userProvider.getUsers(chunk.stream().map(PendingDigest::getUserId).toList()).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+                List<PendingDigest> recipients = chunk.stream().filter(digest -> users.containsKey(digest.userId)).toList();
+                Integer chunkQueued = transaction.execute(status -> {
+                    int count = 0;
+                    for (PendingDigest digest : recipients) {
+                        if (emailOutbox.enqueue(render(digest, users.get(digest.userId)), digest.deduplicationKey())) {
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+                int count = chunkQueued == null ? 0 : chunkQueued;
+                queued.increment(count);
+                duplicate.increment(recipients.size() - count);
+            } catch (RuntimeException e) {
+                failed.increment(chunk.size());
+                log.warn("Failed to queue {} notification digests: {}", chunk.size(), e.getMessage());
+            } finally {
+                bufferedUsers.addAndGet(-chunk.size());
+            }
+        }
+    }
+
+    private static EmailDto render(PendingDigest digest, User user) {
+        List<TypeCount> lines = new ArrayList<>();
+        for (NotificationType type : TYPES) {
+            if (digest.counts[type.ordinal()] > 0) {
+                lines.add(new TypeCount(type, digest.counts[type.ordinal()]));
+            }
+        }
+        String since = SINCE_FORMAT.format(Instant.ofEpochMilli(digest.firstPublishedAtMillis).atZone(ZoneId.systemDefault()));
+        Digest model = new Digest(user, since, lines);
+        return new EmailDto(user.getEmail(), SUBJECT.render(model, Locale.ENGLISH), CONTENT.render(model, Locale.ENGLISH));
+    }
+
+    private static Counter queuedCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("notification.digest.queued")
+                .description("Number of notification digests handed over to the email outbox")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Stripe {
+
+        private final Map<Long, PendingDigest> digests = new HashMap<>();
+
+    }
+
+    /**
+     * Digest being coalesced, guarded by the lock of its stripe until it is removed from it.
+     */
+    private static final class PendingDigest {
+
+        private final long userId;
+        private final long firstSequence;
+        private final long firstPublishedAtMillis;
+        private final int[] counts = new int[TYPES.length];
+        private int notifications;
+
+        private PendingDigest(long userId, long firstSequence, long firstPublishedAtMillis) {
+            this.userId = userId;
+            this.firstSequence = firstSequence;
+            this.firstPublishedAtMillis = firstPublishedAtMillis;
+        }
+
+        private long getUserId() {
+            return userId;
+        }
+
+        /**
+         * The sequence identifies the first notification within a run of the bus, its publishing time across restarts.
+         */
+        private String deduplicationKey() {
+            return "notification-digest:%d:%d:%d".formatted(userId, firstPublishedAtMillis, firstSequence);
+        }
+
+        private void add(NotificationType type) {
+            counts[type.ordinal()]++;
+            notifications++;
+        }
+
+    }
+
+    private record TypeCount(NotificationType type, long count) {
+    }
+
+    private record Digest(User user, String since, List<TypeCount> lines) {
+    }
+
+}
@@ -0,0 +1,61 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link NotificationDigest}.
+ */
+@ConfigurationProperties(prefix = "notification.digest")
+@Getter
+class NotificationDigestProperties {
+
+    /**
+     * Time after the first notification of a digest at which the digest is queued.
+     */
+    private final Duration window;
+
+    /**
+     * Number of notifications at which a digest is queued before its window elapses.
+     */
+    private final int maxNotifications;
+
+    /**
+     * Maximal number of users with a digest buffered or being queued. Notifications of other users are queued right away,
+     * one email each, until the buffered digests are queued.
+     */
+    private final int maxBufferedUsers;
+
+    /**
+     * Number of independently locked partitions of the buffered digests, a power of two.
+     */
+    private final int stripes;
+
+    /**
+     * Time between two checks for the digests to be queued.
+     */
+    private final Duration flushInterval;
+
+    NotificationDigestProperties(@DefaultValue("15m") Duration window,
+                                 @DefaultValue("20") int maxNotifications,
+                                 @DefaultValue("10000") int maxBufferedUsers,
+                                 @DefaultValue("16") int stripes,
+                                 @DefaultValue("1s") Duration flushInterval) {
+        if (maxNotifications < 1 || maxBufferedUsers < 1) {
+            throw new IllegalArgumentException("notification.digest.max-notifications and max-buffered-users must be positive, got: %d and %d"
+                    .formatted(maxNotifications, maxBufferedUsers));
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("notification.digest.stripes must be a positive power of two, got: " + stripes);
+        }
+        this.window = window;
+        this.maxNotifications = maxNotifications;
+        this.maxBufferedUsers = maxBufferedUsers;
+        this.stripes = stripes;
+        this.flushInterval = flushInterval;
+    }
+
+}
@@ -0,0 +1,172 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.wsb.fitnesstracker.notification.api.NotificationHandler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a single {@link NotificationHandler} on a dedicated thread. The processor reads every notification published
+ * after its {@link #sequence}, in runs of the slots readable at once, capped by the maximal batch size, and advances
+ * the sequence once per batch, which frees the processed slots for the publishers.
+ * <p>
+ * The processor publishes the {@code notification.bus.handled} and {@code notification.bus.failed} counters
+ * and the {@code notification.bus.lag} gauge of the notifications claimed but not yet handled, tagged with the {@code handler}.
+ */
+@Slf4j
+final class NotificationProcessor {
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 100;
+
+    private static final long SLEEP_NANOS = 100_000;
+
+    /**
+     * Upper bound of parking of the {@link WaitStrategy#BLOCKING} strategy, in case a wake-up was missed.
+     */
+    private static final long MAX_PARK_NANOS = 10_000_000;
+
+    private final NotificationRingBuffer ringBuffer;
+    private final NotificationHandler handler;
+    private final String name;
+    private final int maxBatchSize;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong sequence;
+    private final Thread thread;
+    private final Counter handled;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+
+    private volatile boolean parked;
+
+    NotificationProcessor(NotificationRingBuffer ringBuffer,
+                          NotificationHandler handler,
+                          String name,
+                          NotificationBusProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.ringBuffer = ringBuffer;
+        this.handler = handler;
+        this.name = name;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.waitStrategy = properties.getWaitStrategy();
+        this.sequence = ringBuffer.addGatingSequence();
+        this.thread = new CustomizableThreadFactory("notification-" + name + "-").newThread(this::run);
+        this.handled = Counter.builder("notification.bus.handled")
+                .description("Number of notifications processed by the handler")
+                .tag("handler", name)
+                .register(meterRegistry);
+        this.failed = Counter.builder("notification.bus.failed")
+                .description("Number of notifications the handler threw an exception for")
+                .tag("handler", name)
+                .register(meterRegistry);
+        Gauge.builder("notification.bus.lag", this, NotificationProcessor::lag)
+                .description("Number of published notifications not yet processed by the handler")
+                .tag("handler", name)
+                .register(meterRegistry);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Lets the processor exit once it has processed the notifications already published.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Waits for the processor thread to exit, interrupting it if it does not exit in time.
+     *
+     * @param timeoutMillis maximal time to wait, in milliseconds
+     */
+    void awaitTermination(long timeoutMillis) throws InterruptedException {
+        thread.join(timeoutMillis);
+        if (thread.isAlive()) {
+            log.warn("Notification handler {} did not process {} notifications before shutdown", name, lag());
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Wakes up the processor if it is parked by the {@link WaitStrategy#BLOCKING} strategy.
+     */
+    void signal() {
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private long lag() {
+        return ringBuffer.getCursor() - sequence.get();
+    }
+
+    private void run() {
+        long next = sequence.get() + 1;
+        while (true) {
+            long available = waitFor(next);
+            if (available < next) {
+                return;
+            }
+            long end = Math.min(available, next + maxBatchSize - 1);
+            for (long current = next; current <= end; current++) {
+                NotificationSlot slot = ringBuffer.get(current);
+                try {
+                    handler.onNotification(slot, current == end);
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    log.error("Notification handler {} failed to process {}", name, slot, e);
+                }
+            }
+            sequence.lazySet(end);
+            handled.increment(end - next + 1);
+            next = end + 1;
+        }
+    }
+
+    /**
+     * @return the last readable sequence of the run starting at {@code next},
+     * or {@code next - 1} if the processor was stopped and everything published was processed
+     */
+    private long waitFor(long next) {
+        int attempt = 0;
+        while (true) {
+            long claimed = ringBuffer.getCursor();
+            if (claimed >= next) {
+                long published = ringBuffer.highestPublished(next, claimed);
+                if (published >= next) {
+                    return published;
+                }
+            } else if (!running || Thread.currentThread().isInterrupted()) {
+                return next - 1;
+            }
+            idle(attempt++, next);
+        }
+    }
+
+    private void idle(int attempt, long next) {
+        if (waitStrategy == WaitStrategy.BUSY_SPIN || attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (waitStrategy == WaitStrategy.YIELDING || waitStrategy == WaitStrategy.SLEEPING && attempt < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else if (waitStrategy == WaitStrategy.SLEEPING) {
+            LockSupport.parkNanos(SLEEP_NANOS);
+        } else {
+            parked = true;
+            if (running && ringBuffer.getCursor() < next) {
+                LockSupport.parkNanos(MAX_PARK_NANOS);
+            }
+            parked = false;
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded multi-producer, multi-consumer ring of pre-allocated {@link NotificationSlot}s. Every published notification
+ * gets the next sequence, claimed with a single compare-and-set; the slot of sequence {@code s} is {@code s & mask}.
+ * A slot is readable once its availability flag holds the lap of the sequence ({@code s >>> shift}), so publishers
+ * finishing out of order never expose a half-written slot. Consumers register a {@link #addGatingSequence gating sequence}
+ * of the last sequence they processed; a slot is reused only after every consumer has moved past it.
+ */
+final class NotificationRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final int shift;
+    private final NotificationSlot[] slots;
+    private final AtomicIntegerArray available;
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+
+    /**
+     * Cached minimum of the gating sequences, refreshed only when a claim would wrap over it.
+     */
+    private volatile long gatingCache = -1;
+
+    /**
+     * @param capacity number of slots, a power of two
+     */
+    NotificationRingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Notification buffer size must be a positive power of two, got: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfTrailingZeros(capacity);
+        this.slots = new NotificationSlot[capacity];
+        this.available = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new NotificationSlot();
+            available.set(i, -1);
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Registers the sequence of a consumer. Must be called before anything is published.
+     *
+     * @return the sequence to be advanced by the consumer, starting at {@code -1}
+     */
+    synchronized AtomicLong addGatingSequence() {
+        AtomicLong sequence = new AtomicLong(cursor.get());
+        AtomicLong[] sequences = Arrays.copyOf(gatingSequences, gatingSequences.length + 1);
+        sequences[sequences.length - 1] = sequence;
+        gatingSequences = sequences;
+        return sequence;
+    }
+
+    /**
+     * Claims the next sequence, writes the notification into its slot and makes it visible to the consumers.
+     *
+     * @return {@code false} if the buffer is full
+     */
+    boolean tryPublish(NotificationType type, long userId, long referenceId, long publishedAtMillis) {
+        long current;
+        long next;
+        do {
+            current = cursor.get();
+            next = current + 1;
+            long wrapPoint = next - capacity;
+            if (wrapPoint > gatingCache) {
+                long minimum = minimumGatingSequence(current);
+                gatingCache = minimum;
+                if (wrapPoint > minimum) {
+                    return false;
+                }
+            }
+        } while (!cursor.compareAndSet(current, next));
+        int index = (int) next & mask;
+        slots[index].set(next, type, userId, referenceId, publishedAtMillis);
+        available.lazySet(index, (int) (next >>> shift));
+        return true;
+    }
+
+    /**
+     * @return the last claimed sequence; the slots up to it may still be being written
+     */
+    long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * @return number of notifications which can be published before the buffer is full
+     */
+    long remainingCapacity() {
+        long current = cursor.get();
+        return capacity - (current - minimumGatingSequence(current));
+    }
+
+    /**
+     * Finds the end of the contiguous run of readable slots.
+     *
+     * @param from first sequence to check
+     * @param to   last claimed sequence
+     * @return the last readable sequence of the run starting at {@code from}, or {@code from - 1} if {@code from} is not readable
+     */
+    long highestPublished(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            if (available.get((int) sequence & mask) != (int) (sequence >>> shift)) {
+                return sequence - 1;
+            }
+        }
+        return to;
+    }
+
+    NotificationSlot get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    private long minimumGatingSequence(long minimum) {
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+}
@@ -0,0 +1,58 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.notification.api.NotificationEvent;
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+
+import java.time.Instant;
+
+/**
+ * Mutable slot of the {@link NotificationRingBuffer}, overwritten by the publisher which claimed its sequence.
+ * The values are published to the handlers by the release store of the slot's availability flag.
+ */
+final class NotificationSlot implements NotificationEvent {
+
+    private long sequence = -1;
+    private NotificationType type = NotificationType.TRAINING_RECORDED;
+    private long userId;
+    private long referenceId;
+    private long publishedAtMillis;
+
+    void set(long sequence, NotificationType type, long userId, long referenceId, long publishedAtMillis) {
+        this.sequence = sequence;
+        this.type = type;
+        this.userId = userId;
+        this.referenceId = referenceId;
+        this.publishedAtMillis = publishedAtMillis;
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public NotificationType getType() {
+        return type;
+    }
+
+    @Override
+    public long getUserId() {
+        return userId;
+    }
+
+    @Override
+    public long getReferenceId() {
+        return referenceId;
+    }
+
+    @Override
+    public Instant getPublishedAt() {
+        return Instant.ofEpochMilli(publishedAtMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "Notification[sequence=%d, type=%s, userId=%d, referenceId=%d]".formatted(sequence, type, userId, referenceId);
+    }
+
+}
@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+/**
+ * What publishing does when the notification buffer is full, i.e. the slowest handler lags by the whole buffer.
+ */
+enum OverflowPolicy {
+
+    /**
+     * Drops the published notification, so the publisher is never slowed down by the handlers.
+     */
+    DROP,
+
+    /**
+     * Makes the publisher wait until the slowest handler frees a slot.
+     */
+    BLOCK
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.notification.api.NotificationPublisher;
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingChangeListener;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+
+import java.util.List;
+
+/**
+ * Publishes a {@link NotificationType#TRAINING_RECORDED} notification for every created training, once its transaction
+ * commits. Publishing does not wait for the handlers, so it adds no noticeable latency to storing the training.
+ */
+@Component
+@RequiredArgsConstructor
+class TrainingNotifier implements TrainingChangeListener {
+
+    private final NotificationPublisher notificationPublisher;
+
+    @Override
+    @Transactional
+    public void onTrainingCreated(Training training) {
+        onTrainingsCreated(List.of(training));
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingsCreated(List<Training> trainings) {
+        long[] userIds = new long[trainings.size()];
+        long[] trainingIds = new long[trainings.size()];
+        for (int i = 0; i < trainings.size(); i++) {
+            userIds[i] = trainings.get(i).getUser().getId();
+            trainingIds[i] = trainings.get(i).getId();
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            for (int i = 0; i < userIds.length; i++) {
+                notificationPublisher.publish(NotificationType.TRAINING_RECORDED, userIds[i], trainingIds[i]);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,30 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+/**
+ * How a {@link NotificationProcessor} waits for notifications when it has processed all published ones.
+ * The strategies trade the latency of delivering a notification for the CPU burnt while idle.
+ */
+enum WaitStrategy {
+
+    /**
+     * Spins on the CPU. The lowest latency, but every handler keeps a core busy.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Spins for a while, then yields the CPU to other threads between the checks.
+     */
+    YIELDING,
+
+    /**
+     * Spins, yields, then sleeps for about a tenth of a millisecond between the checks.
+     */
+    SLEEPING,
+
+    /**
+     * Spins for a while, then parks until a publisher wakes the processor up. Publishers pay for the wake-up,
+     * but idle handlers do not use the CPU at all.
+     */
+    BLOCKING
+
+}
@@ -0,0 +1,58 @@
+package pl.wsb.fitnesstracker.pagination.api;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Opaque keyset pagination cursor. It carries the sort key values of the last returned row,
+ * so the next page can be read with an indexed {@code (key) > (last key)} predicate instead of an {@code OFFSET}.
+ * Clients should treat the encoded value as an opaque token and only pass it back in the {@code after} parameter.
+ */
+public final class Cursor {
+
+    private static final String SEPARATOR = ":";
+
+    private Cursor() {
+    }
+
+    /**
+     * Encodes the given key values into an opaque, URL-safe cursor.
+     *
+     * @param keys sort key values of the last returned row
+     * @return the encoded cursor
+     */
+    public static String encode(long... keys) {
+        String joined = Arrays.stream(keys)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes the key values from a cursor created by {@link #encode(long...)}.
+     *
+     * @param cursor cursor received from the client
+     * @param arity  expected number of key values
+     * @return the decoded key values
+     * @throws BusinessException if the cursor is malformed
+     */
+    public static long[] decode(String cursor, int arity) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            long[] keys = Arrays.stream(joined.split(SEPARATOR, -1))
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+            if (keys.length != arity) {
+                throw new BusinessException("Invalid pagination cursor: " + cursor);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid pagination cursor: " + cursor);
+        }
+    }
+
+}
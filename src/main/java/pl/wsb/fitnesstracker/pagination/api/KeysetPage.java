@@ -0,0 +1,91 @@
+package pl.wsb.fitnesstracker.pagination.api;
+
+import jakarta.annotation.Nullable;
+import org.springframework.http.ResponseEntity;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single page of a keyset (cursor) paginated listing.
+ * The {@code nextCursor} is present only if there are more rows after the last item of this page.
+ *
+ * @param items      items of this page, in the listing order
+ * @param nextCursor opaque cursor of the next page, or {@code null} if this is the last page
+ * @param <T>        type of the items
+ */
+public record KeysetPage<T>(List<T> items, @Nullable String nextCursor) {
+
+    /**
+     * Name of the response header carrying the {@link #nextCursor()}.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Page size used when the client does not provide the {@code limit} parameter.
+     */
+    public static final String DEFAULT_LIMIT = "100";
+
+    /**
+     * Maximal page size accepted from the client.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Creates a page from rows fetched with {@code limit + 1} as the query limit.
+     * The additional row, if present, is only used to detect that there is a next page and is not returned.
+     *
+     * @param fetched rows fetched from the database, at most {@code limit + 1}
+     * @param limit   requested page size
+     * @param keys    function extracting the sort key values of a row, as expected by the next page query
+     * @param <T>     type of the items
+     * @return page of at most {@code limit} items
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, int limit, Function<T, long[]> keys) {
+        if (fetched.size() <= limit) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new KeysetPage<>(items, Cursor.encode(keys.apply(items.get(limit - 1))));
+    }
+
+    /**
+     * Validates the page size requested by the client.
+     *
+     * @param limit requested page size
+     * @return the same page size
+     * @throws BusinessException if the page size is not within {@code 1..MAX_LIMIT}
+     */
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessException("Limit must be between 1 and %d, got: %d".formatted(MAX_LIMIT, limit));
+        }
+        return limit;
+    }
+
+    /**
+     * Maps the items of this page, keeping the cursor.
+     *
+     * @param mapper function applied to every item
+     * @param <R>    type of the mapped items
+     * @return page of the mapped items
+     */
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    /**
+     * Creates a {@code 200 OK} response with the items as the body and the next cursor in the {@link #NEXT_CURSOR_HEADER} header.
+     *
+     * @return response entity of this page
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+
+}
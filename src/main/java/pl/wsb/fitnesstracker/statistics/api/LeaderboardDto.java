@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Top users of a single activity type within the current period.
+ *
+ * @param activityType activity type of the trainings
+ * @param period       length of the period
+ * @param periodStart  first day of the current period
+ * @param entries      entries of the leaderboard, from the first rank
+ */
+public record LeaderboardDto(ActivityType activityType, RollupGranularity period, LocalDate periodStart,
+                             List<LeaderboardEntryDto> entries) {
+
+}
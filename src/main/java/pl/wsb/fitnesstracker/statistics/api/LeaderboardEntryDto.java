@@ -0,0 +1,13 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+/**
+ * Position of a single user on a leaderboard.
+ *
+ * @param rank          position on the leaderboard, starting from 1
+ * @param userId        ID of the user
+ * @param trainings     number of trainings of the user within the period
+ * @param totalDistance sum of the distances of the trainings
+ */
+public record LeaderboardEntryDto(int rank, long userId, int trainings, double totalDistance) {
+
+}
@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Interface (API) for reading the distance leaderboards of the current periods. A leaderboard is kept in memory
+ * for every activity type and {@link RollupGranularity period length}, updated on every committed training change
+ * and loaded from the training rollups on startup and when a new period begins.
+ */
+public interface LeaderboardProvider {
+
+    /**
+     * Retrieves the users with the greatest total distance of the given activity type within the current period.
+     * The cost depends only on the requested number of entries.
+     *
+     * @param activityType activity type of the trainings
+     * @param period       length of the period, e.g. {@link RollupGranularity#WEEK} for the current week
+     * @param limit        maximal number of entries to return
+     * @return leaderboard of the current period, ordered by the total distance descending and the user ID
+     */
+    LeaderboardDto getLeaderboard(ActivityType activityType, RollupGranularity period, int limit);
+
+}
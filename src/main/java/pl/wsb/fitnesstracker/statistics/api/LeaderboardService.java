@@ -0,0 +1,14 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+/**
+ * Interface (API) for maintenance operations on the leaderboards read through the {@link LeaderboardProvider}.
+ */
+public interface LeaderboardService {
+
+    /**
+     * Replaces the leaderboards of the current periods with ones loaded from the stored training rollups,
+     * dropping any scores the in-memory leaderboards have drifted to.
+     */
+    void reloadLeaderboards();
+
+}
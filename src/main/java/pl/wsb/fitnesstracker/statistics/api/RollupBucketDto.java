@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of the trainings of a single activity type started within a single period.
+ *
+ * @param activityType    activity type of the trainings
+ * @param granularity     length of the period
+ * @param periodStart     first day of the period
+ * @param trainings       number of trainings
+ * @param totalDistance   sum of the distances
+ * @param durationSeconds sum of the durations, in seconds
+ */
+public record RollupBucketDto(ActivityType activityType, RollupGranularity granularity, LocalDate periodStart,
+                              int trainings, double totalDistance, long durationSeconds) {
+
+}
@@ -0,0 +1,58 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Length of the periods trainings are rolled up into. Weeks start on Monday.
+ */
+public enum RollupGranularity {
+
+    DAY {
+        @Override
+        public LocalDate periodStart(LocalDate date) {
+            return date;
+        }
+
+        @Override
+        public LocalDate nextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusDays(1);
+        }
+    },
+    WEEK {
+        @Override
+        public LocalDate periodStart(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate nextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusWeeks(1);
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDate periodStart(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate nextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusMonths(1);
+        }
+    };
+
+    /**
+     * @param date any day
+     * @return first day of the period containing the given day
+     */
+    public abstract LocalDate periodStart(LocalDate date);
+
+    /**
+     * @param periodStart first day of a period
+     * @return first day of the following period
+     */
+    public abstract LocalDate nextPeriodStart(LocalDate periodStart);
+
+}
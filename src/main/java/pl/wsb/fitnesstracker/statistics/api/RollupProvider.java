@@ -0,0 +1,41 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface (API) for reading the pre-aggregated training rollups of users. The rollups are maintained
+ * incrementally on every training change, per user, {@link RollupGranularity granularity}, activity type and period,
+ * with the period of a training given by the day its start time falls on.
+ */
+public interface RollupProvider {
+
+    /**
+     * Retrieves the buckets of the given granularity whose periods start within the given dates, for charting.
+     *
+     * @param userId       id of the user
+     * @param granularity  length of the periods
+     * @param from         first day of the range, inclusive
+     * @param to           last day of the range, inclusive
+     * @param activityType activity type of the buckets, or {@code null} for all activity types
+     * @return list of non-empty buckets, ordered by their period and activity type
+     */
+    List<RollupBucketDto> getBuckets(Long userId, RollupGranularity granularity, LocalDate from, LocalDate to,
+                                     @Nullable ActivityType activityType);
+
+    /**
+     * Sums the trainings of the user started within the given dates, per activity type. The range is covered by
+     * monthly buckets and daily buckets for the incomplete months at its edges, so the cost depends on the number
+     * of buckets rather than the number of trainings.
+     *
+     * @param userId id of the user
+     * @param from   first day of the range, inclusive
+     * @param to     last day of the range, inclusive
+     * @return list of totals of the activity types with any training in the range, ordered by activity type
+     */
+    List<RollupTotalsDto> getTotals(Long userId, LocalDate from, LocalDate to);
+
+}
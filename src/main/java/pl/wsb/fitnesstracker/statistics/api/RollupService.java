@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+/**
+ * Interface (API) for maintenance operations on the training rollups read through the {@link RollupProvider}.
+ */
+public interface RollupService {
+
+    /**
+     * Recomputes all rollup buckets from the trainings and replaces the stored ones,
+     * repairing any drift of the incrementally maintained buckets. Users are rebuilt in ranges, each of them committed
+     * separately, and changes of the trainings of a range wait only while that range is being rebuilt.
+     *
+     * @return number of buckets after the rebuild
+     */
+    int rebuildRollups();
+
+}
@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Totals of the trainings of a single activity type started within a date range.
+ *
+ * @param activityType    activity type of the trainings
+ * @param trainings       number of trainings
+ * @param totalDistance   sum of the distances
+ * @param durationSeconds sum of the durations, in seconds
+ */
+public record RollupTotalsDto(ActivityType activityType, int trainings, double totalDistance, long durationSeconds) {
+
+}
@@ -0,0 +1,5 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+public record StatisticsDto(Long userId, int totalTrainings, double totalDistance, int totalCaloriesBurned) {
+
+}
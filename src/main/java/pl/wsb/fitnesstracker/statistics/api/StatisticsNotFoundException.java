@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.exception.api.NotFoundException;
+
+/**
+ * Exception indicating that the {@link Statistics} of a user were not found.
+ */
+@SuppressWarnings("squid:S110")
+public class StatisticsNotFoundException extends NotFoundException {
+
+    public StatisticsNotFoundException(Long userId) {
+        super("Statistics of user with ID=%s were not found".formatted(userId));
+    }
+
+}
@@ -1,5 +1,8 @@
 package pl.wsb.fitnesstracker.statistics.api;
 
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+
 import java.util.Optional;
 
 public interface StatisticsProvider {
@@ -13,4 +16,27 @@ public interface StatisticsProvider {
      */
     Optional<Statistics> getStatistics(Long statisticsId);
 
+    /**
+     * Retrieves the statistics of the user with the given ID. The totals are maintained incrementally
+     * on every training change, so the lookup does not depend on the number of trainings.
+     * If the user has no trainings yet, then {@link Optional#empty()} will be returned.
+     *
+     * @param userId id of the user whose statistics are to be searched
+     * @return An {@link Optional} containing the located Statistics, or {@link Optional#empty()} if not found
+     */
+    Optional<Statistics> getUserStatistics(Long userId);
+
+    /**
+     * Retrieves a single page of statistics whose total calories burned exceed the given threshold,
+     * ordered by the total calories burned and then by the user ID. The page is read as a range of the
+     * {@code (total_calories_burned, user_id)} index, or of its in-memory counterpart if enabled,
+     * so its cost depends only on the page size.
+     *
+     * @param threshold exclusive lower limit of the total calories burned
+     * @param after     cursor of the page to be read, or {@code null} for the first page
+     * @param limit     maximal number of statistics on the page
+     * @return A {@link KeysetPage} containing the statistics of the page
+     */
+    KeysetPage<StatisticsDto> findStatisticsAboveCalories(int threshold, @Nullable String after, int limit);
+
 }
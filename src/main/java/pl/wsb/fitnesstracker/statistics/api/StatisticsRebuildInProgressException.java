@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+/**
+ * Exception indicating that a statistics rebuild was requested while another one is still running.
+ * Will resolve to the {@link HttpStatus#CONFLICT} if handled by the Spring's exception handler.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+@SuppressWarnings("squid:S110")
+public class StatisticsRebuildInProgressException extends BusinessException {
+
+    public StatisticsRebuildInProgressException() {
+        super("Statistics rebuild is already in progress");
+    }
+
+}
@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+/**
+ * Interface (API) for maintenance operations on {@link Statistics} entities.
+ */
+public interface StatisticsService {
+
+    /**
+     * Recomputes the statistics of all users from their trainings and replaces the stored ones,
+     * repairing any drift of the incrementally maintained totals. Users are rebuilt in parallel ranges,
+     * each of them committed separately, so the method must not be called within a transaction.
+     * Changes of the trainings of a range wait only while that range is being rebuilt.
+     *
+     * @return number of users with statistics after the rebuild
+     */
+    int rebuildStatistics();
+
+}
@@ -0,0 +1,90 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the trainings of a range of users into primitive column arrays, scores them with the {@link CalorieEngine}
+ * in batches and adds the results to the totals of their users. The totals are primitive arrays indexed by the offset
+ * of the user ID within the range, so nothing is allocated per training. Not thread-safe; every rebuilt range uses
+ * its own batch.
+ */
+final class CalorieBatch {
+
+    /**
+     * Number of trainings scored at once.
+     */
+    static final int SIZE = 1024;
+
+    private final long firstUserId;
+    private final int[] userOffsets = new int[SIZE];
+    private final double[] distances = new double[SIZE];
+    private final int[] activityTypes = new int[SIZE];
+    private final long[] durationMillis = new long[SIZE];
+    private final double[] speeds = new double[SIZE];
+    private final int[] ages = new int[SIZE];
+    private final int[] calories = new int[SIZE];
+    private int count;
+
+    private final int[] totalTrainings;
+    private final double[] totalDistances;
+    private final int[] totalCalories;
+
+    /**
+     * @param users range of IDs of the users whose trainings are added
+     */
+    CalorieBatch(UserIdRange users) {
+        this.firstUserId = users.min();
+        int size = Math.toIntExact(users.max() - users.min() + 1);
+        this.totalTrainings = new int[size];
+        this.totalDistances = new double[size];
+        this.totalCalories = new int[size];
+    }
+
+    /**
+     * @param training training of a user within the range of the batch
+     */
+    void add(Training training) {
+        userOffsets[count] = Math.toIntExact(training.getUser().getId() - firstUserId);
+        distances[count] = training.getDistance();
+        activityTypes[count] = training.getActivityType().ordinal();
+        durationMillis[count] = CalorieEngine.durationMillis(training);
+        speeds[count] = CalorieEngine.speed(training);
+        ages[count] = CalorieEngine.age(training);
+        if (++count == SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Scores the collected trainings and adds them to the totals.
+     */
+    void flush() {
+        CalorieEngine.estimate(activityTypes, durationMillis, speeds, ages, calories, count);
+        for (int i = 0; i < count; i++) {
+            int user = userOffsets[i];
+            totalTrainings[user]++;
+            totalDistances[user] += distances[i];
+            totalCalories[user] += calories[i];
+        }
+        count = 0;
+    }
+
+    /**
+     * @return {@code user_id, total_trainings, total_distance, total_calories_burned} of every user with trainings,
+     * in the order of their IDs; trainings not yet {@link #flush() flushed} are not included
+     */
+    List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int user = 0; user < totalTrainings.length; user++) {
+            if (totalTrainings[user] > 0) {
+                rows.add(new Object[]{firstUserId + user, totalTrainings[user], totalDistances[user], totalCalories[user]});
+            }
+        }
+        return rows;
+    }
+
+}
@@ -0,0 +1,173 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Estimates the calories burned during trainings from the metabolic equivalent (MET) of their activity:
+ * {@code kcal = MET * age factor * body weight [kg] * duration [h]}.
+ * <p>
+ * The MET of an activity grows with its intensity, given by the average speed of the training (or the distance
+ * divided by the duration if no average speed was recorded), following the Compendium of Physical Activities.
+ * Without any speed, a typical MET of the activity is used. As users have no weight recorded, a reference
+ * weight is used, and the energy expenditure is reduced by half a percent per year of age above 25, down to 75%.
+ * <p>
+ * The tables are kept in primitive arrays indexed by the {@link ActivityType#ordinal() activity ordinal}, so the
+ * {@link #estimate(int[], long[], double[], int[], int[], int) batch mode} scores column arrays without any boxing.
+ */
+final class CalorieEngine {
+
+    /**
+     * Body weight assumed for every user, in kilograms.
+     */
+    static final double REFERENCE_WEIGHT_KG = 70.0;
+
+    /**
+     * Age to be passed for users whose age is not known; it has no effect on the estimate.
+     */
+    static final int UNKNOWN_AGE = 0;
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private static final int AGE_FACTOR_FROM = 25;
+    private static final double AGE_FACTOR_PER_YEAR = 0.005;
+    private static final double MIN_AGE_FACTOR = 0.75;
+
+    /**
+     * Lower limits of the speed brackets of every activity, in km/h, ascending.
+     */
+    private static final double[][] SPEED_BRACKETS = new double[ActivityType.values().length][];
+
+    /**
+     * MET of every speed bracket of every activity.
+     */
+    private static final double[][] BRACKET_METS = new double[ActivityType.values().length][];
+
+    /**
+     * MET of every activity used when the speed is not known.
+     */
+    private static final double[] TYPICAL_METS = new double[ActivityType.values().length];
+
+    static {
+        table(ActivityType.RUNNING, 9.8,
+                new double[]{0.0, 8.0, 9.7, 11.3, 12.9, 14.5, 16.1, 17.7},
+                new double[]{7.0, 8.3, 9.8, 11.0, 11.8, 12.8, 14.5, 16.0});
+        table(ActivityType.CYCLING, 7.5,
+                new double[]{0.0, 16.0, 19.0, 22.0, 25.5, 30.0},
+                new double[]{4.0, 6.8, 8.0, 10.0, 12.0, 15.8});
+        table(ActivityType.WALKING, 3.5,
+                new double[]{0.0, 3.2, 4.0, 4.8, 5.6, 6.4, 7.2},
+                new double[]{2.0, 2.8, 3.0, 3.5, 4.3, 5.0, 7.0});
+        table(ActivityType.SWIMMING, 8.0,
+                new double[]{0.0, 2.0, 3.0},
+                new double[]{5.8, 8.3, 10.0});
+        table(ActivityType.TENNIS, 7.3,
+                new double[]{0.0},
+                new double[]{7.3});
+    }
+
+    private CalorieEngine() {
+    }
+
+    private static void table(ActivityType activityType, double typicalMet, double[] speedBrackets, double[] mets) {
+        SPEED_BRACKETS[activityType.ordinal()] = speedBrackets;
+        BRACKET_METS[activityType.ordinal()] = mets;
+        TYPICAL_METS[activityType.ordinal()] = typicalMet;
+    }
+
+    /**
+     * Estimates a single training.
+     *
+     * @param training training to be estimated
+     * @return calories burned during the training, rounded to whole kilocalories
+     */
+    static int caloriesBurned(Training training) {
+        return estimate(training.getActivityType().ordinal(), durationMillis(training), speed(training), age(training));
+    }
+
+    /**
+     * Estimates trainings given as column arrays, writing the calories to the output array.
+     * Only the first {@code count} elements of the arrays are processed.
+     *
+     * @param activityTypes  ordinals of the activity types
+     * @param durationMillis durations, in milliseconds
+     * @param speeds         speeds, in km/h; {@code 0} if not known
+     * @param ages           ages of the users, in years; {@link #UNKNOWN_AGE} if not known
+     * @param calories       output array of the calories burned, rounded to whole kilocalories
+     * @param count          number of trainings to be estimated
+     */
+    static void estimate(int[] activityTypes, long[] durationMillis, double[] speeds, int[] ages, int[] calories, int count) {
+        for (int i = 0; i < count; i++) {
+            calories[i] = estimate(activityTypes[i], durationMillis[i], speeds[i], ages[i]);
+        }
+    }
+
+    /**
+     * Estimates a single training given by its primitive attributes.
+     *
+     * @param activityType   ordinal of the activity type
+     * @param durationMillis duration, in milliseconds
+     * @param speed          speed, in km/h; {@code 0} if not known
+     * @param age            age of the user, in years; {@link #UNKNOWN_AGE} if not known
+     * @return calories burned, rounded to whole kilocalories; {@code 0} if the duration is not positive
+     */
+    static int estimate(int activityType, long durationMillis, double speed, int age) {
+        if (durationMillis <= 0) {
+            return 0;
+        }
+        double hours = durationMillis / MILLIS_PER_HOUR;
+        return (int) Math.round(met(activityType, speed) * ageFactor(age) * REFERENCE_WEIGHT_KG * hours);
+    }
+
+    /**
+     * @param training training
+     * @return duration of the training, in milliseconds
+     */
+    static long durationMillis(Training training) {
+        return training.getEndTime().getTime() - training.getStartTime().getTime();
+    }
+
+    /**
+     * @param training training
+     * @return recorded average speed of the training, or its distance divided by its duration; {@code 0} if neither is known
+     */
+    static double speed(Training training) {
+        if (training.getAverageSpeed() > 0) {
+            return training.getAverageSpeed();
+        }
+        long durationMillis = durationMillis(training);
+        return durationMillis > 0 && training.getDistance() > 0 ? training.getDistance() * MILLIS_PER_HOUR / durationMillis : 0;
+    }
+
+    /**
+     * Reads the age stored with the training rather than the current birthdate of the user, so a training is scored
+     * the same when it is created, deleted or rebuilt.
+     *
+     * @param training training
+     * @return age of the user on the day the training started, in years; {@link #UNKNOWN_AGE} if the birthdate was not known
+     */
+    static int age(Training training) {
+        Integer age = training.getUserAge();
+        return age == null ? UNKNOWN_AGE : age;
+    }
+
+    private static double met(int activityType, double speed) {
+        if (speed <= 0) {
+            return TYPICAL_METS[activityType];
+        }
+        double[] brackets = SPEED_BRACKETS[activityType];
+        int bracket = 0;
+        while (bracket + 1 < brackets.length && speed >= brackets[bracket + 1]) {
+            bracket++;
+        }
+        return BRACKET_METS[activityType][bracket];
+    }
+
+    private static double ageFactor(int age) {
+        if (age <= AGE_FACTOR_FROM) {
+            return 1.0;
+        }
+        return Math.max(MIN_AGE_FACTOR, 1.0 - (age - AGE_FACTOR_FROM) * AGE_FACTOR_PER_YEAR);
+    }
+
+}
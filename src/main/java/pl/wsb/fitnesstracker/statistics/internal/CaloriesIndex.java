@@ -0,0 +1,117 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the statistics ordered by {@code (totalCaloriesBurned, userId)}, mirroring the
+ * {@code idx_statistics_calories_user} index. Threshold queries are answered from a skip list in {@code O(log n + k)}
+ * without a database round trip.
+ * <p>
+ * The index is updated with the committed statistics deltas and user deletions, and refreshed by every rebuilt range.
+ * Updates are serialized, reads are lock-free and may briefly miss a statistics entry which is being moved.
+ */
+class CaloriesIndex {
+
+    private static final Comparator<StatisticsDto> ORDER = Comparator
+            .comparingInt(StatisticsDto::totalCaloriesBurned)
+            .thenComparingLong(StatisticsDto::userId);
+
+    private final NavigableSet<StatisticsDto> entries = new ConcurrentSkipListSet<>(ORDER);
+
+    private final NavigableMap<Long, StatisticsDto> byUser = new TreeMap<>();
+
+    /**
+     * Replaces the content of the index.
+     *
+     * @param statistics all statistics
+     */
+    synchronized void load(Stream<StatisticsDto> statistics) {
+        entries.clear();
+        byUser.clear();
+        statistics.forEach(this::put);
+    }
+
+    /**
+     * Adds the committed deltas to the statistics of the user, creating them if the user has none yet.
+     *
+     * @param userId    ID of the user
+     * @param trainings change of the number of trainings
+     * @param distance  change of the total distance
+     * @param calories  change of the total calories burned
+     */
+    synchronized void apply(long userId, int trainings, double distance, int calories) {
+        StatisticsDto previous = byUser.get(userId);
+        if (previous == null) {
+            put(new StatisticsDto(userId, trainings, distance, calories));
+            return;
+        }
+        entries.remove(previous);
+        put(new StatisticsDto(userId, previous.totalTrainings() + trainings, previous.totalDistance() + distance,
+                previous.totalCaloriesBurned() + calories));
+    }
+
+    /**
+     * Replaces the statistics of the users of the range.
+     *
+     * @param range      range of user IDs
+     * @param statistics all statistics of the users of the range
+     */
+    synchronized void replace(UserIdRange range, List<StatisticsDto> statistics) {
+        NavigableMap<Long, StatisticsDto> previous = byUser.subMap(range.min(), true, range.max(), true);
+        previous.values().forEach(entries::remove);
+        previous.clear();
+        statistics.forEach(this::put);
+    }
+
+    /**
+     * Removes the statistics of the user, if any.
+     *
+     * @param userId ID of the user
+     */
+    synchronized void remove(long userId) {
+        StatisticsDto previous = byUser.remove(userId);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+    }
+
+    /**
+     * Reads the statistics following the given position, with the total calories burned above the threshold.
+     *
+     * @param threshold exclusive lower limit of the total calories burned
+     * @param after     last statistics of the previous page, or {@code null} for the first page
+     * @param limit     maximal number of statistics to return
+     * @return a list of statistics, ordered by the total calories burned and the user ID
+     */
+    List<StatisticsDto> findAboveCalories(int threshold, @Nullable StatisticsDto after, int limit) {
+        StatisticsDto from = new StatisticsDto(Long.MAX_VALUE, 0, 0, threshold);
+        if (after != null && ORDER.compare(after, from) > 0) {
+            from = after;
+        }
+        List<StatisticsDto> result = new ArrayList<>(limit);
+        for (StatisticsDto statistics : entries.tailSet(from, false)) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(statistics);
+        }
+        return result;
+    }
+
+    private void put(StatisticsDto statistics) {
+        byUser.put(statistics.userId(), statistics);
+        entries.add(statistics);
+    }
+
+}
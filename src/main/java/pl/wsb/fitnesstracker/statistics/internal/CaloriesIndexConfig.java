@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the in-memory {@link CaloriesIndex} with {@code statistics.calories-index.enabled=true}.
+ * Without it, threshold queries are answered from the database index.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "statistics.calories-index", name = "enabled", havingValue = "true")
+class CaloriesIndexConfig {
+
+    @Bean
+    CaloriesIndex caloriesIndex() {
+        return new CaloriesIndex();
+    }
+
+}
@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the native MERGE statements applying the incremental deltas to the statistics and the training rollups.
+ * <p>
+ * A MERGE into a row that does not exist yet races with a concurrent first delta of the same unique key: both take
+ * the insert branch and the later one fails with a duplicate key once the earlier one commits. The failed statement is
+ * then run once more, finding the committed row and updating it. The statements are run through JDBC rather than as
+ * JPA queries, because a failed JPA query marks the whole transaction, and with it the training change, for rollback,
+ * while H2 rolls back only the failed statement.
+ */
+@Slf4j
+final class DeltaMerge {
+
+    private DeltaMerge() {
+    }
+
+    /**
+     * @param jdbcTemplate JDBC template participating in the current transaction
+     * @param merge        MERGE statement of the delta
+     * @param args         arguments of the statement
+     * @return number of affected rows
+     */
+    static int apply(JdbcTemplate jdbcTemplate, String merge, Object... args) {
+        try {
+            return jdbcTemplate.update(merge, args);
+        } catch (DuplicateKeyException e) {
+            log.debug("Row of a delta was inserted by a concurrent transaction, merging the delta again", e);
+            return jdbcTemplate.update(merge, args);
+        }
+    }
+
+}
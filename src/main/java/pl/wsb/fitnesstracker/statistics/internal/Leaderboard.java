@@ -0,0 +1,95 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Scores of all users having trainings of a single activity type within a single period, kept in a skip list
+ * ordered by the total distance descending and the user ID. Reading the top {@code k} entries walks only
+ * the head of the list, so it costs {@code O(k)} regardless of the number of users.
+ * <p>
+ * The scores of all users are kept, not only the top ones, so users can climb the leaderboard and fall back
+ * when their trainings are deleted. Updates are serialized, reads are lock-free and may briefly miss a user
+ * whose score is being moved.
+ */
+class Leaderboard {
+
+    private static final Comparator<LeaderboardScore> ORDER = Comparator
+            .comparingDouble(LeaderboardScore::totalDistance).reversed()
+            .thenComparingLong(LeaderboardScore::userId);
+
+    @Getter
+    private final ActivityType activityType;
+    @Getter
+    private final RollupGranularity period;
+    @Getter
+    private final LocalDate periodStart;
+
+    private final NavigableSet<LeaderboardScore> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    private final Map<Long, LeaderboardScore> byUser = new HashMap<>();
+
+    /**
+     * @param activityType activity type of the trainings
+     * @param period       length of the period
+     * @param periodStart  first day of the period
+     * @param scores       initial scores of the users
+     */
+    Leaderboard(ActivityType activityType, RollupGranularity period, LocalDate periodStart, List<LeaderboardScore> scores) {
+        this.activityType = activityType;
+        this.period = period;
+        this.periodStart = periodStart;
+        scores.forEach(this::put);
+    }
+
+    /**
+     * Adds the committed deltas to the score of the user. Users left without trainings are removed.
+     *
+     * @param userId    ID of the user
+     * @param trainings change of the number of trainings
+     * @param distance  change of the total distance
+     */
+    synchronized void apply(long userId, int trainings, double distance) {
+        LeaderboardScore previous = byUser.remove(userId);
+        if (previous == null) {
+            put(new LeaderboardScore(userId, trainings, distance));
+            return;
+        }
+        ranking.remove(previous);
+        put(new LeaderboardScore(userId, previous.trainings() + trainings, previous.totalDistance() + distance));
+    }
+
+    /**
+     * @param limit maximal number of scores to return
+     * @return the highest scores, from the first rank
+     */
+    List<LeaderboardScore> top(int limit) {
+        List<LeaderboardScore> result = new ArrayList<>(limit);
+        for (LeaderboardScore score : ranking) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(score);
+        }
+        return result;
+    }
+
+    private void put(LeaderboardScore score) {
+        if (score.trainings() <= 0) {
+            return;
+        }
+        byUser.put(score.userId(), score);
+        ranking.add(score);
+    }
+
+}
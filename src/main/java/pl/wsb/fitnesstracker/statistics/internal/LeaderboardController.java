@@ -0,0 +1,29 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardDto;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardProvider;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+@RestController
+@RequestMapping("/v1/leaderboards")
+@RequiredArgsConstructor
+class LeaderboardController {
+
+    private final LeaderboardProvider leaderboardProvider;
+
+    @GetMapping("/{activityType}")
+    public LeaderboardDto getLeaderboard(@PathVariable("activityType") ActivityType activityType,
+                                         @RequestParam(defaultValue = "WEEK") RollupGranularity period,
+                                         @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return leaderboardProvider.getLeaderboard(activityType, period, limit);
+    }
+
+}
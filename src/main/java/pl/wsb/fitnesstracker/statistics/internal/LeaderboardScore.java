@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Score of a single user on a {@link Leaderboard}.
+ *
+ * @param userId        ID of the user
+ * @param trainings     number of trainings of the user within the period
+ * @param totalDistance sum of the distances of the trainings
+ */
+record LeaderboardScore(long userId, int trainings, double totalDistance) {
+
+}
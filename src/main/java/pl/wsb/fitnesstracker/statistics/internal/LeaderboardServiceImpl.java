@@ -0,0 +1,153 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardDto;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardEntryDto;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardProvider;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingChangeListener;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link Leaderboard} of the current period for every activity type and period length. The leaderboards
+ * are loaded from the training rollups on startup, after every rebuild of the rollups, and on the first
+ * read after a new period begins. Between the loads, the deltas of the training changes are applied once their
+ * transaction commits; deleted trainings are subtracted, and users left without trainings leave the leaderboard.
+ * Users cannot be deleted while they have trainings, so no deleted user stays on a leaderboard.
+ * <p>
+ * Loads and deltas of the same leaderboard are serialized through {@link Map#compute}, so a delta is applied either
+ * to the board being replaced before the load starts, or to the loaded board once it is stored, and never lost.
+ * A training committed while its leaderboard is being loaded may still be counted twice until the next load.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class LeaderboardServiceImpl implements LeaderboardProvider, LeaderboardService, TrainingChangeListener {
+
+    private final TrainingRollupRepository trainingRollupRepository;
+
+    private final Map<BoardKey, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    @Override
+    public LeaderboardDto getLeaderboard(ActivityType activityType, RollupGranularity period, int limit) {
+        Leaderboard leaderboard = currentLeaderboard(new BoardKey(activityType, period));
+        List<LeaderboardScore> scores = leaderboard.top(KeysetPage.checkLimit(limit));
+        List<LeaderboardEntryDto> entries = new ArrayList<>(scores.size());
+        for (int i = 0; i < scores.size(); i++) {
+            LeaderboardScore score = scores.get(i);
+            entries.add(new LeaderboardEntryDto(i + 1, score.userId(), score.trainings(), score.totalDistance()));
+        }
+        return new LeaderboardDto(activityType, period, leaderboard.getPeriodStart(), entries);
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingCreated(Training training) {
+        onTrainingsCreated(List.of(training));
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingsCreated(List<Training> trainings) {
+        Map<ScoreKey, Delta> deltas = new HashMap<>();
+        trainings.forEach(training -> addToScores(deltas, training, 1));
+        TransactionCallbacks.afterCommit(() -> deltas.forEach(this::applyDelta));
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingDeleted(Training training) {
+        Map<ScoreKey, Delta> deltas = new HashMap<>();
+        addToScores(deltas, training, -1);
+        TransactionCallbacks.afterCommit(() -> deltas.forEach(this::applyDelta));
+    }
+
+    /**
+     * Runs once the application is ready and after every rebuild of the rollups.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadLeaderboards() {
+        LocalDate today = LocalDate.now();
+        for (ActivityType activityType : ActivityType.values()) {
+            for (RollupGranularity period : RollupGranularity.values()) {
+                leaderboards.compute(new BoardKey(activityType, period), (key, previous) -> load(key, period.periodStart(today)));
+            }
+        }
+        log.info("Loaded {} leaderboards", leaderboards.size());
+    }
+
+    /**
+     * Returns the leaderboard of the current period, loading it first if the period has changed. The period is
+     * checked again within {@link Map#compute}, so of several threads reading the same leaderboard at a period
+     * rollover only the first one runs the query, while the others wait for its result.
+     */
+    private Leaderboard currentLeaderboard(BoardKey key) {
+        LocalDate periodStart = key.period().periodStart(LocalDate.now());
+        Leaderboard leaderboard = leaderboards.get(key);
+        if (leaderboard != null && leaderboard.getPeriodStart().equals(periodStart)) {
+            return leaderboard;
+        }
+        return leaderboards.compute(key, (boardKey, previous) -> previous != null && previous.getPeriodStart().equals(periodStart)
+                ? previous : load(boardKey, periodStart));
+    }
+
+    private Leaderboard load(BoardKey key, LocalDate periodStart) {
+        return new Leaderboard(key.activityType(), key.period(), periodStart,
+                trainingRollupRepository.findLeaderboardScores(key.period(), periodStart, key.activityType()));
+    }
+
+    private void applyDelta(ScoreKey key, Delta delta) {
+        leaderboards.computeIfPresent(key.board(), (boardKey, leaderboard) -> {
+            if (leaderboard.getPeriodStart().equals(key.periodStart())) {
+                leaderboard.apply(key.userId(), delta.trainings, delta.distance);
+            }
+            return leaderboard;
+        });
+    }
+
+    private static void addToScores(Map<ScoreKey, Delta> scores, Training training, int sign) {
+        LocalDate day = training.getStartTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        for (RollupGranularity period : RollupGranularity.values()) {
+            ScoreKey key = new ScoreKey(new BoardKey(training.getActivityType(), period), period.periodStart(day),
+                    training.getUser().getId());
+            scores.computeIfAbsent(key, k -> new Delta()).add(sign, sign * training.getDistance());
+        }
+    }
+
+    private record BoardKey(ActivityType activityType, RollupGranularity period) {
+    }
+
+    private record ScoreKey(BoardKey board, LocalDate periodStart, long userId) {
+    }
+
+    private static final class Delta {
+
+        private int trainings;
+        private double distance;
+
+        private void add(int trainings, double distance) {
+            this.trainings += trainings;
+            this.distance += distance;
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Partitions the users of a rebuild into ranges. The ranges cover the users having trainings as well as the users
+ * having rows in the rebuilt table, so the rows of users left without trainings are replaced range by range,
+ * under the lock of their range, like all others.
+ */
+final class RebuildRanges {
+
+    private RebuildRanges() {
+    }
+
+    /**
+     * @param trainingUsers range of the IDs of the users having trainings, if any
+     * @param jdbcTemplate  template reading the IDs of the users stored in the table
+     * @param table         rebuilt table, keyed by {@code user_id}
+     * @param size          span of user IDs of every range
+     * @return consecutive ranges covering both the users with trainings and the users stored in the table
+     */
+    static List<UserIdRange> covering(Optional<UserIdRange> trainingUsers, JdbcTemplate jdbcTemplate, String table, long size) {
+        UserIdRange storedUsers = jdbcTemplate.query("select min(user_id), max(user_id) from " + table, resultSet -> {
+            resultSet.next();
+            long min = resultSet.getLong(1);
+            return resultSet.wasNull() ? null : new UserIdRange(min, resultSet.getLong(2));
+        });
+        return Stream.concat(trainingUsers.stream(), Stream.ofNullable(storedUsers))
+                .reduce((first, second) -> new UserIdRange(Math.min(first.min(), second.min()), Math.max(first.max(), second.max())))
+                .map(range -> range.split(size))
+                .orElse(List.of());
+    }
+
+}
@@ -0,0 +1,59 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Mutable totals of the {@link TrainingRollup} buckets of a set of trainings, added to the day, week and month bucket
+ * of every training. Not thread-safe.
+ */
+final class RollupBuckets {
+
+    private final Map<Key, Totals> buckets = new HashMap<>();
+
+    /**
+     * @param training training to be added
+     * @param sign     {@code 1} to add the training, {@code -1} to subtract it
+     */
+    void add(Training training, int sign) {
+        LocalDate day = training.getStartTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        long durationSeconds = Math.max(0, training.getEndTime().getTime() - training.getStartTime().getTime()) / 1000;
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Key key = new Key(training.getUser().getId(), granularity, granularity.periodStart(day), training.getActivityType());
+            buckets.computeIfAbsent(key, k -> new Totals()).add(sign, sign * training.getDistance(), sign * durationSeconds);
+        }
+    }
+
+    void forEach(BiConsumer<Key, Totals> consumer) {
+        buckets.forEach(consumer);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    record Key(long userId, RollupGranularity granularity, LocalDate periodStart, ActivityType activityType) {
+    }
+
+    static final class Totals {
+
+        int trainings;
+        double distance;
+        long durationSeconds;
+
+        private void add(int trainings, double distance, long durationSeconds) {
+            this.trainings += trainings;
+            this.distance += distance;
+            this.durationSeconds += durationSeconds;
+        }
+
+    }
+
+}
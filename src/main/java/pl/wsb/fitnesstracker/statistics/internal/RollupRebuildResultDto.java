@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Response of a training rollups rebuild.
+ *
+ * @param buckets number of buckets after the rebuild
+ */
+record RollupRebuildResultDto(int buckets) {
+
+}
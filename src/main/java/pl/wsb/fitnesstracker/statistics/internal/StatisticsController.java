@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsNotFoundException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/statistics")
+@RequiredArgsConstructor
+class StatisticsController {
+
+    private final StatisticsServiceImpl statisticsService;
+    private final StatisticsMapper statisticsMapper;
+
+    @GetMapping("/user/{userId}")
+    public StatisticsDto getUserStatistics(@PathVariable("userId") Long userId) {
+        return statisticsService.getUserStatistics(userId)
+                .map(statisticsMapper::toDto)
+                .orElseThrow(() -> new StatisticsNotFoundException(userId));
+    }
+
+    @GetMapping("/calories")
+    public ResponseEntity<List<StatisticsDto>> getStatisticsAboveCalories(@RequestParam int above,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return statisticsService.findStatisticsAboveCalories(above, after, limit).toResponseEntity();
+    }
+
+    @PostMapping("/rebuild")
+    public StatisticsRebuildResultDto rebuildStatistics() {
+        return new StatisticsRebuildResultDto(statisticsService.rebuildStatistics());
+    }
+
+}
@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+
+@Component
+class StatisticsMapper {
+
+    StatisticsDto toDto(Statistics statistics) {
+        return new StatisticsDto(statistics.getUser().getId(), statistics.getTotalTrainings(),
+                statistics.getTotalDistance(), statistics.getTotalCaloriesBurned());
+    }
+
+}
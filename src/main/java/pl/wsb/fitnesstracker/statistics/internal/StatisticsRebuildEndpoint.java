@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsRebuildInProgressException;
+
+/**
+ * Actuator endpoint of the {@link StatisticsRebuildJob}. {@code GET /actuator/statisticsRebuild} returns the progress
+ * and throughput of the last rebuild, {@code POST /actuator/statisticsRebuild} starts a new one in the background.
+ * <p>
+ * A running rebuild blocks only the training writes of the users whose range it is rebuilding at the moment.
+ */
+@Component
+@Endpoint(id = "statisticsRebuild")
+class StatisticsRebuildEndpoint {
+
+    private final StatisticsRebuildJob statisticsRebuildJob;
+    private final TaskExecutor taskExecutor;
+
+    StatisticsRebuildEndpoint(StatisticsRebuildJob statisticsRebuildJob,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.statisticsRebuildJob = statisticsRebuildJob;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @ReadOperation
+    public StatisticsRebuildProgress progress() {
+        return statisticsRebuildJob.getProgress();
+    }
+
+    /**
+     * @return progress of the started rebuild
+     * @throws StatisticsRebuildInProgressException if another rebuild is running, resolved to {@code 409}
+     */
+    @WriteOperation
+    public StatisticsRebuildProgress start() {
+        return statisticsRebuildJob.start(taskExecutor);
+    }
+
+}
@@ -0,0 +1,256 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsRebuildInProgressException;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the statistics of all users from scratch. The IDs of the users having trainings are partitioned into ranges
+ * of {@link StatisticsRebuildProperties#getRangeSize()}, which are rebuilt in parallel on a dedicated {@link ForkJoinPool}.
+ * Every range streams its trainings through a read-only cursor, scores and aggregates them per user in a
+ * {@link CalorieBatch} and replaces the statistics of its users in a single transaction,
+ * inserting them in JDBC batches.
+ * The ranges also cover the users having stored statistics, so the statistics of users left without trainings
+ * are removed by their range.
+ * <p>
+ * Every range is serialized against the incremental deltas by the {@link TrainingDeltaLock}, held exclusively only
+ * while the range is read and written, so only the training changes of the users of a range being rebuilt wait.
+ * The calories index, if enabled, is refreshed from the written statistics of every range under the same lock.
+ * <p>
+ * The rebuild is not atomic for readers: every range replaces the statistics of its users in its own transaction.
+ * While it runs, a reader sees the statistics of every single user either from before or from after the rebuild,
+ * but different users may be on different sides of it.
+ */
+@Component
+@EnableConfigurationProperties(StatisticsRebuildProperties.class)
+@Slf4j
+class StatisticsRebuildJob {
+
+    private static final String DELETE_RANGE = "delete from statistics where user_id between ? and ?";
+    private static final String INSERT = "insert into statistics (user_id, total_trainings, total_distance, total_calories_burned) values (?, ?, ?, ?)";
+
+    private final TrainingProvider trainingProvider;
+    private final StatisticsRepository statisticsRepository;
+    private final Optional<CaloriesIndex> caloriesIndex;
+    private final StatisticsRebuildProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final TrainingDeltaLock deltaLock;
+    private final AtomicReference<Run> lastRun = new AtomicReference<>();
+
+    StatisticsRebuildJob(TrainingProvider trainingProvider,
+                         StatisticsRepository statisticsRepository,
+                         Optional<CaloriesIndex> caloriesIndex,
+                         TrainingDeltaLock deltaLock,
+                         StatisticsRebuildProperties properties,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager) {
+        this.trainingProvider = trainingProvider;
+        this.statisticsRepository = statisticsRepository;
+        this.caloriesIndex = caloriesIndex;
+        this.deltaLock = deltaLock;
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs the rebuild in the calling thread, waiting for all ranges.
+     *
+     * @return number of users with statistics after the rebuild
+     * @throws StatisticsRebuildInProgressException if another rebuild is running
+     */
+    int run() {
+        return execute(claim());
+    }
+
+    /**
+     * Starts the rebuild on the given executor. The rebuild is claimed before it is submitted, so the returned progress
+     * belongs to the new rebuild and concurrent calls cannot start two of them.
+     *
+     * @param executor executor running the rebuild
+     * @return progress of the started rebuild
+     * @throws StatisticsRebuildInProgressException if another rebuild is running
+     */
+    StatisticsRebuildProgress start(Executor executor) {
+        Run run = claim();
+        try {
+            executor.execute(() -> {
+                try {
+                    execute(run);
+                } catch (RuntimeException e) {
+                    log.error("Statistics rebuild failed", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            run.finish(e);
+            throw e;
+        }
+        return run.snapshot();
+    }
+
+    private Run claim() {
+        Run previous = lastRun.get();
+        Run run = new Run();
+        if ((previous != null && previous.finishedAt == null) || !lastRun.compareAndSet(previous, run)) {
+            throw new StatisticsRebuildInProgressException();
+        }
+        return run;
+    }
+
+    private int execute(Run run) {
+        try {
+            Optional<UserIdRange> trainingUsers = readTransaction.execute(status -> trainingProvider.getTrainingUserIdRange());
+            List<UserIdRange> ranges = RebuildRanges.covering(trainingUsers, jdbcTemplate, "statistics", properties.getRangeSize());
+            run.totalRanges = ranges.size();
+
+            ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+            try {
+                pool.invoke(new RebuildTask(run, ranges, 0, ranges.size()));
+            } finally {
+                pool.shutdown();
+            }
+            run.finish(null);
+            log.info("Rebuilt statistics of {} users from {} trainings in {} ranges", run.usersWritten.sum(),
+                    run.trainingsProcessed.sum(), ranges.size());
+            return (int) run.usersWritten.sum();
+        } catch (RuntimeException e) {
+            run.finish(e);
+            throw e;
+        }
+    }
+
+    StatisticsRebuildProgress getProgress() {
+        Run run = lastRun.get();
+        if (run == null) {
+            return new StatisticsRebuildProgress(StatisticsRebuildProgress.State.IDLE, null, null, 0, 0, 0, 0, 0, null);
+        }
+        return run.snapshot();
+    }
+
+    /**
+     * Fills the in-memory calories index, if enabled, from the stored statistics.
+     * Runs once the application is ready, rebuilds refresh the index range by range.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadCaloriesIndex() {
+        caloriesIndex.ifPresent(index -> readTransaction.executeWithoutResult(status -> {
+            try (Stream<StatisticsDto> statistics = statisticsRepository.streamAll()) {
+                index.load(statistics);
+            }
+        }));
+    }
+
+    private void rebuild(Run run, UserIdRange range) {
+        int usersWritten = deltaLock.runExclusively(range, () -> rebuildLocked(run, range));
+        run.usersWritten.add(usersWritten);
+        run.completedRanges.incrementAndGet();
+    }
+
+    private int rebuildLocked(Run run, UserIdRange range) {
+        CalorieBatch batch = new CalorieBatch(range);
+        readTransaction.executeWithoutResult(status -> trainingProvider.forEachTrainingOfUsers(range, training -> {
+            batch.add(training);
+            run.trainingsProcessed.increment();
+        }));
+        batch.flush();
+
+        List<Object[]> rows = batch.rows();
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_RANGE, range.min(), range.max());
+            for (int from = 0; from < rows.size(); from += properties.getWriteBatchSize()) {
+                jdbcTemplate.batchUpdate(INSERT, rows.subList(from, Math.min(rows.size(), from + properties.getWriteBatchSize())));
+            }
+        });
+        caloriesIndex.ifPresent(index -> index.replace(range, rows.stream().map(StatisticsRebuildJob::toDto).toList()));
+        return rows.size();
+    }
+
+    private static StatisticsDto toDto(Object[] row) {
+        return new StatisticsDto((Long) row[0], (Integer) row[1], (Double) row[2], (Integer) row[3]);
+    }
+
+    /**
+     * Rebuilds the ranges {@code [from, to)} of the list, splitting them in halves until a single range is left.
+     */
+    private final class RebuildTask extends RecursiveAction {
+
+        private final transient Run run;
+        private final transient List<UserIdRange> ranges;
+        private final int from;
+        private final int to;
+
+        private RebuildTask(Run run, List<UserIdRange> ranges, int from, int to) {
+            this.run = run;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    rebuild(run, ranges.get(from));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RebuildTask(run, ranges, from, middle), new RebuildTask(run, ranges, middle, to));
+        }
+
+    }
+
+    private static final class Run {
+
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger completedRanges = new AtomicInteger();
+        private final LongAdder trainingsProcessed = new LongAdder();
+        private final LongAdder usersWritten = new LongAdder();
+        private volatile int totalRanges;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private void finish(@Nullable RuntimeException failure) {
+            error = failure != null ? failure.toString() : null;
+            finishedAt = Instant.now();
+        }
+
+        private StatisticsRebuildProgress snapshot() {
+            Instant end = finishedAt;
+            StatisticsRebuildProgress.State state = end == null ? StatisticsRebuildProgress.State.RUNNING
+                    : error == null ? StatisticsRebuildProgress.State.COMPLETED : StatisticsRebuildProgress.State.FAILED;
+            long trainings = trainingsProcessed.sum();
+            long elapsedMillis = Math.max(1, Duration.between(startedAt, end != null ? end : Instant.now()).toMillis());
+            return new StatisticsRebuildProgress(state, startedAt, end, totalRanges, completedRanges.get(), trainings,
+                    usersWritten.sum(), trainings * 1000.0 / elapsedMillis, error);
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the progress of the last statistics rebuild, as published by the {@code statisticsRebuild} actuator endpoint.
+ *
+ * @param state                  state of the rebuild
+ * @param startedAt              start of the rebuild, if it was started
+ * @param finishedAt             end of the rebuild, if it has finished
+ * @param totalRanges            number of user ID ranges to be rebuilt
+ * @param completedRanges        number of user ID ranges already rebuilt
+ * @param trainingsProcessed     number of trainings aggregated so far
+ * @param usersWritten           number of statistics rows written so far
+ * @param trainingsPerSecond     average throughput of the rebuild
+ * @param error                  reason of the failure, if the rebuild failed
+ */
+record StatisticsRebuildProgress(State state,
+                                 @Nullable Instant startedAt,
+                                 @Nullable Instant finishedAt,
+                                 int totalRanges,
+                                 int completedRanges,
+                                 long trainingsProcessed,
+                                 long usersWritten,
+                                 double trainingsPerSecond,
+                                 @Nullable String error) {
+
+    enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+}
@@ -0,0 +1,49 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the parallel {@link StatisticsRebuildJob}. The {@link TrainingRollupRebuildJob} partitions the users
+ * and batches its inserts by the same range and batch sizes.
+ */
+@ConfigurationProperties(prefix = "statistics.rebuild")
+@Getter
+class StatisticsRebuildProperties {
+
+    /**
+     * Upper limit of the {@link #rangeSize}, as the totals of every rebuilt range are kept in arrays of its size.
+     */
+    static final long MAX_RANGE_SIZE = 1_000_000;
+
+    /**
+     * Number of user ID ranges rebuilt concurrently. Every range holds a database connection while it is being read
+     * and written, so it should not exceed the size of the connection pool. {@code 0} stands for the number of processors.
+     */
+    private final int parallelism;
+
+    /**
+     * Span of user IDs rebuilt as a single range, in a single read and a single write transaction.
+     * Between {@code 1} and {@link #MAX_RANGE_SIZE}.
+     */
+    private final long rangeSize;
+
+    /**
+     * Number of statistics or rollup rows inserted with a single JDBC batch.
+     */
+    private final int writeBatchSize;
+
+    StatisticsRebuildProperties(@DefaultValue("0") int parallelism,
+                                @DefaultValue("1000") long rangeSize,
+                                @DefaultValue("500") int writeBatchSize) {
+        if (rangeSize < 1 || rangeSize > MAX_RANGE_SIZE) {
+            throw new IllegalArgumentException("statistics.rebuild.range-size must be between 1 and %d, got: %d"
+                    .formatted(MAX_RANGE_SIZE, rangeSize));
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.rangeSize = rangeSize;
+        this.writeBatchSize = writeBatchSize;
+    }
+
+}
@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Response of a statistics rebuild.
+ *
+ * @param users number of users with statistics after the rebuild
+ */
+record StatisticsRebuildResultDto(int users) {
+
+}
@@ -0,0 +1,73 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+interface StatisticsRepository extends JpaRepository<Statistics, Long> {
+
+    /**
+     * Finds the statistics of the given user through the unique {@code user_id} index.
+     *
+     * @param userId ID of the user
+     * @return statistics of the user, if any
+     */
+    Optional<Statistics> findByUserId(Long userId);
+
+    /**
+     * Reads the statistics projections with the total calories burned above the threshold
+     * as an ascending range of the {@code (total_calories_burned, user_id)} index.
+     *
+     * @param threshold exclusive lower limit of the total calories burned
+     * @param limit     maximal number of statistics to return
+     * @return a list of statistics, ordered by the total calories burned and the user ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.api.StatisticsDto(s.user.id, s.totalTrainings, s.totalDistance, s.totalCaloriesBurned)
+            from Statistics s
+            where s.totalCaloriesBurned > :threshold
+            order by s.totalCaloriesBurned, s.user.id
+            """)
+    List<StatisticsDto> findAboveCalories(@Param("threshold") int threshold, Limit limit);
+
+    /**
+     * Reads the statistics projections with the total calories burned above the threshold, following the given position
+     * of the {@code (total_calories_burned, user_id)} index. Used for keyset pagination of {@link #findAboveCalories(int, Limit)}.
+     *
+     * @param threshold exclusive lower limit of the total calories burned
+     * @param calories  total calories burned of the last statistics of the previous page
+     * @param userId    user ID of the last statistics of the previous page
+     * @param limit     maximal number of statistics to return
+     * @return a list of statistics, ordered by the total calories burned and the user ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.api.StatisticsDto(s.user.id, s.totalTrainings, s.totalDistance, s.totalCaloriesBurned)
+            from Statistics s
+            where s.totalCaloriesBurned > :threshold
+              and (s.totalCaloriesBurned > :calories or (s.totalCaloriesBurned = :calories and s.user.id > :userId))
+            order by s.totalCaloriesBurned, s.user.id
+            """)
+    List<StatisticsDto> findAboveCaloriesAfter(@Param("threshold") int threshold,
+                                               @Param("calories") int calories,
+                                               @Param("userId") long userId,
+                                               Limit limit);
+
+    /**
+     * Streams the projections of all statistics. Must be consumed within a transaction and closed afterwards.
+     *
+     * @return a stream of all statistics
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.api.StatisticsDto(s.user.id, s.totalTrainings, s.totalDistance, s.totalCaloriesBurned)
+            from Statistics s
+            """)
+    Stream<StatisticsDto> streamAll();
+
+}
@@ -0,0 +1,155 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.pagination.api.Cursor;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingChangeListener;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+import pl.wsb.fitnesstracker.user.api.UserChangeListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maintains the {@link Statistics} of users incrementally. Every training change applies its delta
+ * to the statistics row of the user within the transaction of the change, so reads are a single row lookup.
+ * Deltas and {@link StatisticsRebuildJob rebuilds} exclude each other per user ID range through the {@link TrainingDeltaLock}
+ * taken by the training changes, so a rebuild never loses or double counts a change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class StatisticsServiceImpl implements StatisticsProvider, StatisticsService, TrainingChangeListener, UserChangeListener {
+
+    /**
+     * Adds the deltas to the statistics of the user in a single atomic statement,
+     * creating the statistics row if the user has none yet.
+     */
+    private static final String MERGE_DELTA = """
+            merge into statistics s
+            using (select cast(? as bigint) as user_id,
+                          cast(? as integer) as trainings,
+                          cast(? as double precision) as distance,
+                          cast(? as integer) as calories) d
+            on s.user_id = d.user_id
+            when matched then update set
+                total_trainings = s.total_trainings + d.trainings,
+                total_distance = s.total_distance + d.distance,
+                total_calories_burned = s.total_calories_burned + d.calories
+            when not matched then insert (user_id, total_trainings, total_distance, total_calories_burned)
+                values (d.user_id, d.trainings, d.distance, d.calories)
+            """;
+
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsRebuildJob statisticsRebuildJob;
+    private final Optional<CaloriesIndex> caloriesIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public Optional<Statistics> getStatistics(Long statisticsId) {
+        return statisticsRepository.findById(statisticsId);
+    }
+
+    @Override
+    public Optional<Statistics> getUserStatistics(Long userId) {
+        return statisticsRepository.findByUserId(userId);
+    }
+
+    @Override
+    public KeysetPage<StatisticsDto> findStatisticsAboveCalories(int threshold, @Nullable String after, int limit) {
+        int fetchLimit = KeysetPage.checkLimit(limit) + 1;
+        long[] keys = after == null ? null : Cursor.decode(after, 2);
+        List<StatisticsDto> statistics;
+        if (caloriesIndex.isPresent()) {
+            StatisticsDto last = keys == null ? null : new StatisticsDto(keys[1], 0, 0, (int) keys[0]);
+            statistics = caloriesIndex.get().findAboveCalories(threshold, last, fetchLimit);
+        } else if (keys == null) {
+            statistics = statisticsRepository.findAboveCalories(threshold, Limit.of(fetchLimit));
+        } else {
+            statistics = statisticsRepository.findAboveCaloriesAfter(threshold, (int) keys[0], keys[1], Limit.of(fetchLimit));
+        }
+        return KeysetPage.of(statistics, limit, dto -> new long[]{dto.totalCaloriesBurned(), dto.userId()});
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingCreated(Training training) {
+        applyDeltas(List.of(training), 1);
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingsCreated(List<Training> trainings) {
+        applyDeltas(trainings, 1);
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingDeleted(Training training) {
+        applyDeltas(List.of(training), -1);
+    }
+
+    /**
+     * The statistics row of the user is removed by the database cascade, its calories index entry once the deletion commits.
+     */
+    @Override
+    public void onUserDeleted(Long userId) {
+        caloriesIndex.ifPresent(index -> TransactionCallbacks.afterCommit(() -> index.remove(userId)));
+    }
+
+    /**
+     * Rebuilds the statistics with the parallel {@link StatisticsRebuildJob}, waiting for it to finish.
+     * The rebuild commits every user ID range separately, so it must not be called within a transaction.
+     */
+    @Override
+    public int rebuildStatistics() {
+        return statisticsRebuildJob.run();
+    }
+
+    /**
+     * Pending changes are flushed before the merges and the {@link Statistics} of the affected users are detached
+     * after them, so no stale entity outlives them. Other entities managed by the caller stay attached.
+     *
+     * @param sign {@code 1} to add the trainings to the statistics, {@code -1} to remove them
+     */
+    private void applyDeltas(List<Training> trainings, int sign) {
+        Map<Long, StatisticsTotals> deltas = new HashMap<>();
+        trainings.forEach(training -> deltas.computeIfAbsent(training.getUser().getId(), userId -> new StatisticsTotals()).add(training));
+        entityManager.flush();
+        deltas.forEach((userId, delta) -> applyDelta(userId, sign * delta.trainings, sign * delta.distance, sign * delta.calories));
+        detachStatistics(deltas.keySet());
+    }
+
+    private void applyDelta(long userId, int trainings, double distance, int calories) {
+        DeltaMerge.apply(jdbcTemplate, MERGE_DELTA, userId, trainings, distance, calories);
+        caloriesIndex.ifPresent(index -> TransactionCallbacks.afterCommit(() -> index.apply(userId, trainings, distance, calories)));
+    }
+
+    private void detachStatistics(Set<Long> userIds) {
+        for (Map.Entry<Object, EntityEntry> entry : entityManager.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Statistics statistics && userIds.contains(statistics.getUser().getId())) {
+                entityManager.detach(statistics);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.training.api.Training;
+
+/**
+ * Mutable accumulator of the statistics totals of a single user.
+ */
+final class StatisticsTotals {
+
+    int trainings;
+    double distance;
+    int calories;
+
+    void add(Training training) {
+        add(training.getDistance(), CalorieEngine.caloriesBurned(training));
+    }
+
+    void add(double distance, int calories) {
+        this.trainings++;
+        this.distance += distance;
+        this.calories += calories;
+    }
+
+}
@@ -0,0 +1,135 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.wsb.fitnesstracker.training.api.TrainingWriteGuard;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the rebuilds of the statistics and the training rollups against the training changes, per user ID range.
+ * User IDs are grouped into blocks of {@link StatisticsRebuildProperties#getRangeSize()} mapped onto a fixed number
+ * of striped read-write locks. A training change holds the shared locks of its users from before its transaction begins
+ * until it completes, and a rebuild holds the exclusive locks of a single range while it reads and writes it.
+ * A training is therefore either committed before a rebuild reads its range, or its delta is applied after the range
+ * was written; only changes of users sharing a stripe with the range being rebuilt wait.
+ * <p>
+ * Changes take their stripes in ascending order and wait for them, rebuilds try to take theirs and back off when one
+ * is held, so a transaction writing trainings in several guarded calls cannot deadlock against a rebuild.
+ */
+@Component
+class TrainingDeltaLock implements TrainingWriteGuard {
+
+    private static final int STRIPES = 64;
+
+    private static final long RETRY_MILLIS = 10;
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+    private final long blockSize;
+
+    TrainingDeltaLock(StatisticsRebuildProperties properties) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.blockSize = properties.getRangeSize();
+    }
+
+    /**
+     * Takes the shared locks of the users before the write. Within a transaction they are released once it completes,
+     * otherwise as soon as the write returns.
+     */
+    @Override
+    public <T> T guard(Collection<Long> userIds, Supplier<T> write) {
+        BitSet userStripes = new BitSet(STRIPES);
+        userIds.forEach(userId -> userStripes.set(stripe(userId)));
+        List<Lock> locks = new ArrayList<>(userStripes.cardinality());
+        userStripes.stream().forEach(stripe -> {
+            Lock lock = stripes[stripe].readLock();
+            lock.lock();
+            locks.add(lock);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    locks.forEach(Lock::unlock);
+                }
+            });
+            return write.get();
+        }
+        try {
+            return write.get();
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Runs the rebuild of the range once the changes of its users have completed, keeping new ones waiting
+     * until it returns. Must not be called within a transaction writing trainings.
+     *
+     * @param range   range of user IDs to be rebuilt
+     * @param rebuild rebuild of the range
+     * @param <T>     type of the result of the rebuild
+     * @return result of the rebuild
+     */
+    <T> T runExclusively(UserIdRange range, Supplier<T> rebuild) {
+        List<Lock> locks = lockExclusively(range);
+        try {
+            return rebuild.get();
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private List<Lock> lockExclusively(UserIdRange range) {
+        BitSet rangeStripes = new BitSet(STRIPES);
+        long firstBlock = Math.floorDiv(range.min(), blockSize);
+        long lastBlock = Math.min(Math.floorDiv(range.max(), blockSize), firstBlock + STRIPES - 1);
+        for (long block = firstBlock; block <= lastBlock; block++) {
+            rangeStripes.set((int) Math.floorMod(block, (long) STRIPES));
+        }
+        return lockExclusively(rangeStripes);
+    }
+
+    private List<Lock> lockExclusively(BitSet rangeStripes) {
+        List<Lock> locks = new ArrayList<>(rangeStripes.cardinality());
+        while (true) {
+            for (int stripe = rangeStripes.nextSetBit(0); stripe >= 0; stripe = rangeStripes.nextSetBit(stripe + 1)) {
+                Lock lock = stripes[stripe].writeLock();
+                if (!tryLock(lock)) {
+                    break;
+                }
+                locks.add(lock);
+            }
+            if (locks.size() == rangeStripes.cardinality()) {
+                return locks;
+            }
+            locks.forEach(Lock::unlock);
+            locks.clear();
+        }
+    }
+
+    private int stripe(long userId) {
+        return (int) Math.floorMod(Math.floorDiv(userId, blockSize), (long) STRIPES);
+    }
+
+    private static boolean tryLock(Lock lock) {
+        try {
+            return lock.tryLock(RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the training changes of a rebuilt range", e);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated totals of the trainings of a user of a single activity type started within a single period.
+ * The unique key doubles as the index answering period range queries of a user, the period index serves
+ * loading the leaderboards of a period.
+ */
+@Entity
+@Table(name = "training_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_training_rollups_bucket",
+        columnNames = {"user_id", "granularity", "period_start", "activity_type"}),
+        indexes = @Index(name = "idx_training_rollups_period", columnList = "granularity, period_start, activity_type"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(exclude = "user")
+class TrainingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "activity_type", nullable = false)
+    private ActivityType activityType;
+
+    @Column(name = "training_count", nullable = false)
+    private int trainingCount;
+
+    @Column(name = "total_distance", nullable = false)
+    private double totalDistance;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private long durationSeconds;
+
+}
@@ -0,0 +1,57 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.statistics.api.RollupBucketDto;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.RollupProvider;
+import pl.wsb.fitnesstracker.statistics.api.RollupService;
+import pl.wsb.fitnesstracker.statistics.api.RollupTotalsDto;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/statistics/rollups")
+@RequiredArgsConstructor
+class TrainingRollupController {
+
+    private final RollupProvider rollupProvider;
+    private final RollupService rollupService;
+
+    @GetMapping("/{userId}")
+    public List<RollupBucketDto> getBuckets(@PathVariable("userId") Long userId,
+                                            @RequestParam RollupGranularity granularity,
+                                            @RequestParam LocalDate from,
+                                            @RequestParam LocalDate to,
+                                            @RequestParam(required = false) ActivityType activityType) {
+        return rollupProvider.getBuckets(userId, granularity, from, checkRange(from, to), activityType);
+    }
+
+    @GetMapping("/{userId}/totals")
+    public List<RollupTotalsDto> getTotals(@PathVariable("userId") Long userId,
+                                           @RequestParam LocalDate from,
+                                           @RequestParam LocalDate to) {
+        return rollupProvider.getTotals(userId, from, checkRange(from, to));
+    }
+
+    @PostMapping("/rebuild")
+    public RollupRebuildResultDto rebuildRollups() {
+        return new RollupRebuildResultDto(rollupService.rebuildRollups());
+    }
+
+    private static LocalDate checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BusinessException("Date range end %s is before its start %s".formatted(to, from));
+        }
+        return to;
+    }
+
+}
@@ -0,0 +1,98 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rebuilds the {@link TrainingRollup} buckets of all users from scratch. The IDs of the users having trainings are
+ * partitioned into ranges of {@link StatisticsRebuildProperties#getRangeSize()}, rebuilt one after another. Every range
+ * streams its trainings through a read-only cursor, aggregates only its own buckets in memory and replaces the buckets
+ * of its users in a single transaction, inserting them in JDBC batches of {@link StatisticsRebuildProperties#getWriteBatchSize()}.
+ * The ranges also cover the users having stored buckets, so the buckets of users left without trainings are removed
+ * by their range.
+ * <p>
+ * Every range holds the {@link TrainingDeltaLock} exclusively only while it is read and written, so only the training
+ * changes of the users of the range being rebuilt wait. Like the statistics rebuild, it is not atomic for readers:
+ * different users may be read from different sides of it while it runs.
+ */
+@Component
+@Slf4j
+class TrainingRollupRebuildJob {
+
+    private static final String DELETE_RANGE = "delete from training_rollups where user_id between ? and ?";
+    private static final String INSERT = """
+            insert into training_rollups
+                (user_id, granularity, period_start, activity_type, training_count, total_distance, duration_seconds)
+            values (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final TrainingProvider trainingProvider;
+    private final LeaderboardService leaderboardService;
+    private final TrainingDeltaLock deltaLock;
+    private final StatisticsRebuildProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    TrainingRollupRebuildJob(TrainingProvider trainingProvider,
+                             LeaderboardService leaderboardService,
+                             TrainingDeltaLock deltaLock,
+                             StatisticsRebuildProperties properties,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.trainingProvider = trainingProvider;
+        this.leaderboardService = leaderboardService;
+        this.deltaLock = deltaLock;
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs the rebuild in the calling thread. Every range is committed separately, so it must not be called within
+     * a transaction.
+     *
+     * @return number of buckets after the rebuild
+     */
+    int run() {
+        Optional<UserIdRange> trainingUsers = readTransaction.execute(status -> trainingProvider.getTrainingUserIdRange());
+        List<UserIdRange> ranges = RebuildRanges.covering(trainingUsers, jdbcTemplate, "training_rollups", properties.getRangeSize());
+
+        int buckets = 0;
+        for (UserIdRange range : ranges) {
+            buckets += deltaLock.runExclusively(range, () -> rebuild(range));
+        }
+        leaderboardService.reloadLeaderboards();
+        log.info("Rebuilt {} training rollup buckets in {} ranges", buckets, ranges.size());
+        return buckets;
+    }
+
+    private int rebuild(UserIdRange range) {
+        RollupBuckets buckets = new RollupBuckets();
+        readTransaction.executeWithoutResult(status -> trainingProvider.forEachTrainingOfUsers(range, training -> buckets.add(training, 1)));
+
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, totals) -> rows.add(new Object[]{key.userId(), key.granularity().name(), key.periodStart(),
+                key.activityType().ordinal(), totals.trainings, totals.distance, totals.durationSeconds}));
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_RANGE, range.min(), range.max());
+            for (int from = 0; from < rows.size(); from += properties.getWriteBatchSize()) {
+                jdbcTemplate.batchUpdate(INSERT, rows.subList(from, Math.min(rows.size(), from + properties.getWriteBatchSize())));
+            }
+        });
+        return rows.size();
+    }
+
+}
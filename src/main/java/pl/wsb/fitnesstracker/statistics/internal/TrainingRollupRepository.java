@@ -0,0 +1,81 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.wsb.fitnesstracker.statistics.api.RollupBucketDto;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+interface TrainingRollupRepository extends JpaRepository<TrainingRollup, Long> {
+
+    /**
+     * Reads the buckets of the user whose periods start within the given range, from the unique bucket index.
+     *
+     * @param userId       ID of the user
+     * @param granularity  length of the periods
+     * @param from         first period start, inclusive
+     * @param to           last period start, exclusive
+     * @param activityType activity type of the buckets, or {@code null} for all activity types
+     * @return a list of buckets, ordered by their period and activity type
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.api.RollupBucketDto(
+                r.activityType, r.granularity, r.periodStart, r.trainingCount, r.totalDistance, r.durationSeconds)
+            from TrainingRollup r
+            where r.user.id = :userId and r.granularity = :granularity
+              and r.periodStart >= :from and r.periodStart < :to
+              and (:activityType is null or r.activityType = :activityType)
+            order by r.periodStart, r.activityType
+            """)
+    List<RollupBucketDto> findBuckets(@Param("userId") long userId,
+                                      @Param("granularity") RollupGranularity granularity,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Nullable @Param("activityType") ActivityType activityType);
+
+    /**
+     * Reads the scores of all users having trainings of the activity type within the period, from the period index.
+     *
+     * @param granularity  length of the period
+     * @param periodStart  first day of the period
+     * @param activityType activity type of the trainings
+     * @return a list of scores, in no particular order
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.internal.LeaderboardScore(r.user.id, r.trainingCount, r.totalDistance)
+            from TrainingRollup r
+            where r.granularity = :granularity and r.periodStart = :periodStart
+              and r.activityType = :activityType and r.trainingCount > 0
+            """)
+    List<LeaderboardScore> findLeaderboardScores(@Param("granularity") RollupGranularity granularity,
+                                                 @Param("periodStart") LocalDate periodStart,
+                                                 @Param("activityType") ActivityType activityType);
+
+    /**
+     * Removes the bucket if it has no trainings left.
+     *
+     * @param userId       ID of the user
+     * @param granularity  length of the period of the bucket
+     * @param periodStart  first day of the period of the bucket
+     * @param activityType activity type of the bucket
+     * @return number of removed rows
+     */
+    @Modifying
+    @Query("""
+            delete from TrainingRollup r
+            where r.user.id = :userId and r.granularity = :granularity
+              and r.periodStart = :periodStart and r.activityType = :activityType
+              and r.trainingCount <= 0
+            """)
+    int deleteIfEmpty(@Param("userId") long userId,
+                      @Param("granularity") RollupGranularity granularity,
+                      @Param("periodStart") LocalDate periodStart,
+                      @Param("activityType") ActivityType activityType);
+
+}
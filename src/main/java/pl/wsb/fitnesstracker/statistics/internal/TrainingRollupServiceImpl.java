@@ -0,0 +1,149 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.statistics.api.RollupBucketDto;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.RollupProvider;
+import pl.wsb.fitnesstracker.statistics.api.RollupService;
+import pl.wsb.fitnesstracker.statistics.api.RollupTotalsDto;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingChangeListener;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@link TrainingRollup} buckets of every granularity incrementally. Every training change applies
+ * its delta to the day, week and month bucket of the training within the transaction of the change.
+ * Buckets left without trainings are removed, so only non-empty buckets are stored.
+ * Deltas and {@link TrainingRollupRebuildJob rebuilds} exclude each other through the {@link TrainingDeltaLock}
+ * taken by the training changes, so a rebuild never loses or double counts a change.
+ */
+@Service
+@RequiredArgsConstructor
+class TrainingRollupServiceImpl implements RollupProvider, RollupService, TrainingChangeListener {
+
+    /**
+     * Adds the deltas to the bucket in a single atomic statement, creating the bucket if it does not exist yet.
+     */
+    private static final String MERGE_DELTA = """
+            merge into training_rollups r
+            using (select cast(? as bigint) as user_id,
+                          cast(? as varchar(8)) as granularity,
+                          cast(? as date) as period_start,
+                          cast(? as integer) as activity_type,
+                          cast(? as integer) as trainings,
+                          cast(? as double precision) as distance,
+                          cast(? as bigint) as duration_seconds) d
+            on r.user_id = d.user_id and r.granularity = d.granularity
+               and r.period_start = d.period_start and r.activity_type = d.activity_type
+            when matched then update set
+                training_count = r.training_count + d.trainings,
+                total_distance = r.total_distance + d.distance,
+                duration_seconds = r.duration_seconds + d.duration_seconds
+            when not matched then insert
+                (user_id, granularity, period_start, activity_type, training_count, total_distance, duration_seconds)
+                values (d.user_id, d.granularity, d.period_start, d.activity_type, d.trainings, d.distance, d.duration_seconds)
+            """;
+
+    private final TrainingRollupRepository trainingRollupRepository;
+    private final TrainingRollupRebuildJob trainingRollupRebuildJob;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RollupBucketDto> getBuckets(Long userId, RollupGranularity granularity, LocalDate from, LocalDate to,
+                                            @Nullable ActivityType activityType) {
+        return trainingRollupRepository.findBuckets(userId, granularity, granularity.periodStart(from), to.plusDays(1), activityType);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RollupTotalsDto> getTotals(Long userId, LocalDate from, LocalDate to) {
+        LocalDate end = to.plusDays(1);
+        LocalDate firstFullMonth = RollupGranularity.MONTH.periodStart(from);
+        if (firstFullMonth.isBefore(from)) {
+            firstFullMonth = RollupGranularity.MONTH.nextPeriodStart(firstFullMonth);
+        }
+        LocalDate lastFullMonthEnd = RollupGranularity.MONTH.periodStart(end);
+
+        List<RollupBucketDto> buckets = new ArrayList<>();
+        if (firstFullMonth.isBefore(lastFullMonthEnd)) {
+            buckets.addAll(trainingRollupRepository.findBuckets(userId, RollupGranularity.DAY, from, firstFullMonth, null));
+            buckets.addAll(trainingRollupRepository.findBuckets(userId, RollupGranularity.MONTH, firstFullMonth, lastFullMonthEnd, null));
+            buckets.addAll(trainingRollupRepository.findBuckets(userId, RollupGranularity.DAY, lastFullMonthEnd, end, null));
+        } else {
+            buckets.addAll(trainingRollupRepository.findBuckets(userId, RollupGranularity.DAY, from, end, null));
+        }
+
+        Map<ActivityType, Totals> totals = new EnumMap<>(ActivityType.class);
+        buckets.forEach(bucket -> totals.computeIfAbsent(bucket.activityType(), activityType -> new Totals())
+                .add(bucket.trainings(), bucket.totalDistance(), bucket.durationSeconds()));
+        return totals.entrySet().stream()
+                .map(entry -> new RollupTotalsDto(entry.getKey(), entry.getValue().trainings,
+                        entry.getValue().distance, entry.getValue().durationSeconds))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingCreated(Training training) {
+        onTrainingsCreated(List.of(training));
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingsCreated(List<Training> trainings) {
+        RollupBuckets deltas = new RollupBuckets();
+        trainings.forEach(training -> deltas.add(training, 1));
+        deltas.forEach(this::applyDelta);
+    }
+
+    @Override
+    @Transactional
+    public void onTrainingDeleted(Training training) {
+        RollupBuckets deltas = new RollupBuckets();
+        deltas.add(training, -1);
+        deltas.forEach(this::applyDelta);
+    }
+
+    /**
+     * Rebuilds the buckets with the range-partitioned {@link TrainingRollupRebuildJob}.
+     * The rebuild commits every user ID range separately, so it must not be called within a transaction.
+     */
+    @Override
+    public int rebuildRollups() {
+        return trainingRollupRebuildJob.run();
+    }
+
+    private void applyDelta(RollupBuckets.Key key, RollupBuckets.Totals delta) {
+        DeltaMerge.apply(jdbcTemplate, MERGE_DELTA, key.userId(), key.granularity().name(), key.periodStart(),
+                key.activityType().ordinal(), delta.trainings, delta.distance, delta.durationSeconds);
+        if (delta.trainings < 0) {
+            trainingRollupRepository.deleteIfEmpty(key.userId(), key.granularity(), key.periodStart(), key.activityType());
+        }
+    }
+
+    private static final class Totals {
+
+        private int trainings;
+        private double distance;
+        private long durationSeconds;
+
+        private void add(int trainings, double distance, long durationSeconds) {
+            this.trainings += trainings;
+            this.distance += distance;
+            this.durationSeconds += durationSeconds;
+        }
+
+    }
+
+}
@@ -8,20 +8,28 @@ import lombok.ToString;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
 import java.util.Date;
 
 @Entity
-@Table(name = "trainings")
+@Table(name = "trainings", indexes = {
+        @Index(name = "idx_trainings_user_start", columnList = "user_id, start_time"),
+        @Index(name = "idx_trainings_end_time", columnList = "end_time"),
+        @Index(name = "idx_trainings_activity_end", columnList = "activity_type, end_time")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@ToString
+@ToString(exclude = "user")
 public class Training {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainings_seq")
+    @SequenceGenerator(name = "trainings_seq", sequenceName = "trainings_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -41,6 +49,13 @@ public class Training {
     @Column(name = "average_speed")
     private double averageSpeed;
 
+    /**
+     * Age of the user on the day the training started, in years; {@code null} if the birthdate of the user is not known.
+     * Kept with the training, so a later change of the birthdate does not change what the training is scored with.
+     */
+    @Column(name = "user_age")
+    private Integer userAge;
+
     public Training(
             final User user,
             final Date startTime,
@@ -54,5 +69,14 @@ public class Training {
         this.activityType = activityType;
         this.distance = distance;
         this.averageSpeed = averageSpeed;
+        this.userAge = user == null ? null : ageOn(user.getBirthdate(), startTime);
+    }
+
+    private static Integer ageOn(LocalDate birthdate, Date day) {
+        if (birthdate == null || day == null) {
+            return null;
+        }
+        LocalDate trainingDay = day.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return Math.max(0, Period.between(birthdate, trainingDay).getYears());
     }
 }
\ No newline at end of file
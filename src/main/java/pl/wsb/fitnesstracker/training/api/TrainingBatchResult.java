@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Outcome of a single item of a bulk training upload.
+ *
+ * @param index      position of the item in the uploaded array
+ * @param status     whether the item was stored or rejected
+ * @param trainingId ID of the created training, present only if the item was stored
+ * @param error      reason of the rejection, present only if the item was rejected
+ */
+public record TrainingBatchResult(int index, Status status, @Nullable Long trainingId, @Nullable String error) {
+
+    public static TrainingBatchResult created(int index, Long trainingId) {
+        return new TrainingBatchResult(index, Status.CREATED, trainingId, null);
+    }
+
+    public static TrainingBatchResult rejected(int index, String error) {
+        return new TrainingBatchResult(index, Status.REJECTED, null, error);
+    }
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+}
@@ -0,0 +1,36 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.List;
+
+/**
+ * Listener of changes of {@link Training} entities, notified by the {@link TrainingProvider} implementation
+ * within the transaction of the change. An exception thrown by a listener rolls the change back.
+ * An update of a training is notified as the deletion of its previous state followed by the creation of the new one.
+ */
+public interface TrainingChangeListener {
+
+    /**
+     * Called after the training was stored.
+     *
+     * @param training the created training, with its ID assigned
+     */
+    void onTrainingCreated(Training training);
+
+    /**
+     * Called after the trainings of a single batch were stored. By default notifies every training separately.
+     *
+     * @param trainings the created trainings, with their IDs assigned
+     */
+    default void onTrainingsCreated(List<Training> trainings) {
+        trainings.forEach(this::onTrainingCreated);
+    }
+
+    /**
+     * Called after the training was removed. By default does nothing, for listeners interested only in new trainings.
+     *
+     * @param training the removed training
+     */
+    default void onTrainingDeleted(Training training) {
+    }
+
+}
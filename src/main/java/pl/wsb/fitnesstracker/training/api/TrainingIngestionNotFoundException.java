@@ -0,0 +1,18 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import pl.wsb.fitnesstracker.exception.api.NotFoundException;
+
+import java.util.UUID;
+
+/**
+ * Exception indicating that no asynchronous ingestion is tracked under the given ID,
+ * either because it never existed or because its status has already expired.
+ */
+@SuppressWarnings("squid:S110")
+public class TrainingIngestionNotFoundException extends NotFoundException {
+
+    public TrainingIngestionNotFoundException(UUID trackingId) {
+        super("Training ingestion with ID=%s was not found".formatted(trackingId));
+    }
+
+}
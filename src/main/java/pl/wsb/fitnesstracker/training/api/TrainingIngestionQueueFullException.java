@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+/**
+ * Exception indicating that the asynchronous ingestion queue cannot accept more trainings at the moment.
+ * Will resolve to the {@link HttpStatus#TOO_MANY_REQUESTS} if handled by the Spring's exception handler.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+@SuppressWarnings("squid:S110")
+public class TrainingIngestionQueueFullException extends BusinessException {
+
+    public TrainingIngestionQueueFullException(int capacity) {
+        super("Training ingestion queue is full (capacity %d), retry later".formatted(capacity));
+    }
+
+}
@@ -0,0 +1,43 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.UUID;
+
+/**
+ * State of a training submitted for asynchronous ingestion.
+ *
+ * @param trackingId ID returned when the training was accepted
+ * @param state      current state of the ingestion
+ * @param trainingId ID of the created training, present only once it was stored
+ * @param error      reason of the rejection or failure, present only if the training was not stored
+ */
+public record TrainingIngestionStatus(UUID trackingId, State state, @Nullable Long trainingId, @Nullable String error) {
+
+    public static TrainingIngestionStatus queued(UUID trackingId) {
+        return new TrainingIngestionStatus(trackingId, State.QUEUED, null, null);
+    }
+
+    public static TrainingIngestionStatus of(UUID trackingId, TrainingBatchResult result) {
+        return switch (result.status()) {
+            case CREATED -> new TrainingIngestionStatus(trackingId, State.CREATED, result.trainingId(), null);
+            case REJECTED -> new TrainingIngestionStatus(trackingId, State.REJECTED, null, result.error());
+        };
+    }
+
+    public static TrainingIngestionStatus rejected(UUID trackingId, String error) {
+        return new TrainingIngestionStatus(trackingId, State.REJECTED, null, error);
+    }
+
+    public static TrainingIngestionStatus failed(UUID trackingId, String error) {
+        return new TrainingIngestionStatus(trackingId, State.FAILED, null, error);
+    }
+
+    public enum State {
+        QUEUED,
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+}
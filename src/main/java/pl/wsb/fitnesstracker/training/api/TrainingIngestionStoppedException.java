@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+/**
+ * Exception indicating that the asynchronous ingestion queue no longer accepts trainings because the application
+ * is shutting down. Will resolve to the {@link HttpStatus#SERVICE_UNAVAILABLE} if handled by the Spring's exception handler.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+@SuppressWarnings("squid:S110")
+public class TrainingIngestionStoppedException extends BusinessException {
+
+    public TrainingIngestionStoppedException() {
+        super("Training ingestion is shutting down, retry against another instance or later");
+    }
+
+}
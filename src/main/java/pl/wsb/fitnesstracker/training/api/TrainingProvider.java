@@ -1,9 +1,15 @@
 package pl.wsb.fitnesstracker.training.api;
 
+import jakarta.annotation.Nullable;
+import org.springframework.data.domain.Sort;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TrainingProvider {
 
@@ -16,9 +22,123 @@ public interface TrainingProvider {
      */
     Optional<User> getTraining(Long trainingId);
 
-    List<Training> getAllTrainings();
+    /**
+     * Retrieves a single page of trainings ordered by their ID.
+     *
+     * @param after cursor of the page to be read, or {@code null} for the first page
+     * @param limit maximal number of trainings on the page
+     * @return A {@link KeysetPage} containing the trainings of the page
+     */
+    KeysetPage<Training> getAllTrainings(@Nullable String after, int limit);
+
+    /**
+     * Retrieves a single page of trainings of the given user, ordered by their start time.
+     * The page is read from the {@code (user_id, start_time)} index, so its cost depends only on the page size.
+     *
+     * @param userId id of the user whose trainings are to be searched
+     * @param after  cursor of the page to be read, or {@code null} for the first page
+     * @param limit  maximal number of trainings on the page
+     * @return A {@link KeysetPage} containing the trainings of the page
+     */
+    KeysetPage<Training> getAllTrainingsByUserId(Long userId, @Nullable String after, int limit);
 
-    List<Training> getAllTrainingsByUserId(Long userId);
+    /**
+     * Retrieves a single page of trainings which ended after the start of the given day, ordered by their end time.
+     * The page is read from the {@code end_time} index, so its cost depends only on the page size.
+     *
+     * @param date  day after whose start the trainings have to end
+     * @param after cursor of the page to be read, or {@code null} for the first page
+     * @param limit maximal number of trainings on the page
+     * @return A {@link KeysetPage} containing the trainings of the page
+     */
+    KeysetPage<Training> getFinishedTrainingsAfter(LocalDate date, @Nullable String after, int limit);
 
+    /**
+     * Retrieves a single page of trainings of the given activity type, ordered by their end time.
+     * The page is read from the {@code (activity_type, end_time)} index, so its cost depends only on the page size.
+     *
+     * @param activityType activity type of the trainings to be searched
+     * @param after        cursor of the page to be read, or {@code null} for the first page
+     * @param limit        maximal number of trainings on the page
+     * @return A {@link KeysetPage} containing the trainings of the page
+     */
+    KeysetPage<Training> getTrainingsByActivityType(ActivityType activityType, @Nullable String after, int limit);
+
+    /**
+     * Retrieves a single page of trainings matching all the given criteria, compiled into a single database query.
+     * The trainings are ordered by the given attribute and then by their ID.
+     *
+     * @param criteria  filters of the search
+     * @param sort      attribute to sort the trainings by
+     * @param direction direction of the sort
+     * @param after     cursor of the page to be read, or {@code null} for the first page
+     * @param limit     maximal number of trainings on the page
+     * @return A {@link KeysetPage} containing the trainings of the page
+     */
+    KeysetPage<Training> searchTrainings(TrainingSearchCriteria criteria, TrainingSearchSort sort, Sort.Direction direction,
+                                         @Nullable String after, int limit);
+
+    /**
+     * Stores the new training and notifies the {@link TrainingChangeListener}s within the same transaction.
+     *
+     * @param training training to be created, without an ID
+     * @return the created training
+     */
     Training createTraining(final Training training);
+
+    /**
+     * Creates all valid trainings of the given list in a single transaction, using JDBC batch inserts.
+     * Users referenced by the trainings are resolved with a single query. Items which reference
+     * a missing user or lack required fields are rejected without affecting the other items.
+     * The {@link TrainingChangeListener}s are notified of all created trainings at once.
+     *
+     * @param trainings trainings to be created
+     * @return result of every item, in the order of the given list
+     */
+    List<TrainingBatchResult> createTrainings(List<SimpleTrainingDto> trainings);
+
+    /**
+     * Removes the training and notifies the {@link TrainingChangeListener}s within the same transaction.
+     *
+     * @param trainingId ID of the training to be removed
+     * @throws TrainingNotFoundException if the training does not exist
+     */
+    void deleteTraining(Long trainingId);
+
+    /**
+     * Passes all trainings, with their users fetched, ordered by their ID to the given consumer one by one.
+     * Trainings are read through a database cursor and released after being consumed,
+     * so memory use does not depend on the number of trainings.
+     *
+     * @param consumer consumer of the trainings
+     */
+    void forEachTraining(Consumer<Training> consumer);
+
+    /**
+     * Passes all trainings of the users within the given ID range to the given consumer one by one. The users are not
+     * fetched; only their IDs are available. Trainings are read through a database cursor over the {@code user_id} index
+     * and released after being consumed.
+     *
+     * @param users    range of IDs of the users whose trainings are to be read
+     * @param consumer consumer of the trainings
+     */
+    void forEachTrainingOfUsers(UserIdRange users, Consumer<Training> consumer);
+
+    /**
+     * Sums the trainings of the users within the given ID range started within the given dates, per user and activity type,
+     * using a single grouped query.
+     *
+     * @param users range of IDs of the users whose trainings are to be summed
+     * @param from  first day of the range, inclusive
+     * @param to    first day after the range, exclusive
+     * @return A list of totals, ordered by the user ID and activity type; users without trainings in the range are skipped
+     */
+    List<TrainingSummaryDto> summarizeTrainings(UserIdRange users, LocalDate from, LocalDate to);
+
+    /**
+     * Retrieves the range of IDs of the users having any training.
+     *
+     * @return An {@link Optional} containing the range, or {@link Optional#empty()} if there are no trainings
+     */
+    Optional<UserIdRange> getTrainingUserIdRange();
 }
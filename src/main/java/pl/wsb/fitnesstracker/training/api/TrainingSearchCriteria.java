@@ -0,0 +1,35 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+import org.springframework.format.annotation.DateTimeFormat;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.Date;
+
+/**
+ * Filters of the training search. Every criterion is optional, the given ones are combined with {@code AND}.
+ * Time windows and ranges are inclusive on both ends.
+ *
+ * @param userId          id of the user owning the trainings
+ * @param activityType    activity type of the trainings
+ * @param startedFrom     lower limit of the start time
+ * @param startedTo       upper limit of the start time
+ * @param endedFrom       lower limit of the end time
+ * @param endedTo         upper limit of the end time
+ * @param minDistance     lower limit of the distance
+ * @param maxDistance     upper limit of the distance
+ * @param minAverageSpeed lower limit of the average speed
+ * @param maxAverageSpeed upper limit of the average speed
+ */
+public record TrainingSearchCriteria(@Nullable Long userId,
+                                     @Nullable ActivityType activityType,
+                                     @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Date startedFrom,
+                                     @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Date startedTo,
+                                     @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Date endedFrom,
+                                     @Nullable @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Date endedTo,
+                                     @Nullable Double minDistance,
+                                     @Nullable Double maxDistance,
+                                     @Nullable Double minAverageSpeed,
+                                     @Nullable Double maxAverageSpeed) {
+
+}
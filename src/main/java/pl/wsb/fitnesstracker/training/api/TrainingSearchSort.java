@@ -0,0 +1,42 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.Date;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sort orders supported by the training search. Every order is completed with the training ID,
+ * so that the keyset cursor of the search is unique.
+ */
+public enum TrainingSearchSort {
+
+    ID("id", Training::getId),
+    START_TIME("startTime", training -> training.getStartTime().getTime()),
+    END_TIME("endTime", training -> training.getEndTime().getTime());
+
+    private final String attribute;
+
+    private final ToLongFunction<Training> key;
+
+    TrainingSearchSort(String attribute, ToLongFunction<Training> key) {
+        this.attribute = attribute;
+        this.key = key;
+    }
+
+    /**
+     * @return name of the sorted {@link Training} attribute
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Extracts the sort key of the given training, as stored in the search cursor.
+     *
+     * @param training training to extract the key from
+     * @return the sort key; epoch milliseconds for {@link Date} attributes
+     */
+    public long keyOf(Training training) {
+        return key.applyAsLong(training);
+    }
+
+}
@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Totals of the trainings of a single user and activity type started within a date range.
+ *
+ * @param userId          ID of the user
+ * @param activityType    activity type of the trainings
+ * @param trainings       number of trainings
+ * @param totalDistance   sum of the distances
+ * @param durationSeconds sum of the durations, in seconds
+ */
+public record TrainingSummaryDto(long userId, ActivityType activityType, long trainings, double totalDistance,
+                                 long durationSeconds) {
+
+}
@@ -0,0 +1,8 @@
+package pl.wsb.fitnesstracker.training.api;
+
+/**
+ * Slim representation of the user owning a training, used in training listings instead of the whole user entity.
+ */
+public record TrainingUserDto(Long id, String firstName, String lastName, String email) {
+
+}
@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Guard of the transactions creating or removing trainings, run by the {@link TrainingProvider} implementation
+ * before the transaction begins. Lets other modules keep their work on the trainings of some users from interleaving
+ * with the changes of the same users, without holding a database connection while a change waits.
+ */
+public interface TrainingWriteGuard {
+
+    /**
+     * Runs the write of the trainings of the given users. When called within a transaction,
+     * the guard is held until that transaction completes.
+     *
+     * @param userIds IDs of the users whose trainings are written
+     * @param write   write to be run
+     * @param <T>     type of the result of the write
+     * @return result of the write
+     */
+    <T> T guard(Collection<Long> userIds, Supplier<T> write);
+
+}
@@ -0,0 +1,30 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive range of user IDs.
+ *
+ * @param min the lowest user ID of the range
+ * @param max the highest user ID of the range
+ */
+public record UserIdRange(long min, long max) {
+
+    /**
+     * @param size span of user IDs of every range, the last one may be shorter
+     * @return consecutive ranges covering this range, in ascending order
+     */
+    public List<UserIdRange> split(long size) {
+        List<UserIdRange> ranges = new ArrayList<>();
+        for (long from = min; from <= max; from += size) {
+            long to = Math.min(max, from + size - 1);
+            ranges.add(new UserIdRange(from, to));
+            if (to == max) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+}
@@ -1,19 +1,30 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.wsb.fitnesstracker.export.api.NdjsonWriter;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
 import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
 import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingBatchResult;
 import pl.wsb.fitnesstracker.training.api.TrainingDto;
-import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchCriteria;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchSort;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -25,19 +36,61 @@ class TrainingController {
 
     private final TrainingServiceImpl trainingService;
     private final TrainingMapper trainingMapper;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<TrainingDto> getAllTrainings() {
-        return trainingService.getAllTrainings()
-                .stream().map(trainingMapper::toDto)
-                .toList();
+    public ResponseEntity<List<TrainingDto>> getAllTrainings(@RequestParam(required = false) String after,
+                                                             @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.getAllTrainings(after, limit)
+                .map(trainingMapper::toDto)
+                .toResponseEntity();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTrainings() {
+        StreamingResponseBody body = NdjsonWriter.body(objectMapper,
+                sink -> trainingService.forEachTraining(training -> sink.accept(trainingMapper.toDto(training))));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{userId}")
-    public List<TrainingDto> getAllTrainingsByUserId(@PathVariable("userId") Long userId) {
-        return trainingService.getAllTrainingsByUserId(userId)
-                .stream().map(trainingMapper::toDto)
-                .toList();
+    public ResponseEntity<List<TrainingDto>> getAllTrainingsByUserId(@PathVariable("userId") Long userId,
+                                                                     @RequestParam(required = false) String after,
+                                                                     @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.getAllTrainingsByUserId(userId, after, limit)
+                .map(trainingMapper::toDto)
+                .toResponseEntity();
+    }
+
+    @GetMapping("/finished/{afterTime}")
+    public ResponseEntity<List<TrainingDto>> getFinishedTrainingsAfter(@PathVariable("afterTime") LocalDate afterTime,
+                                                                       @RequestParam(required = false) String after,
+                                                                       @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.getFinishedTrainingsAfter(afterTime, after, limit)
+                .map(trainingMapper::toDto)
+                .toResponseEntity();
+    }
+
+    @GetMapping("/activityType")
+    public ResponseEntity<List<TrainingDto>> getTrainingsByActivityType(@RequestParam ActivityType activityType,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.getTrainingsByActivityType(activityType, after, limit)
+                .map(trainingMapper::toDto)
+                .toResponseEntity();
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<TrainingDto>> searchTrainings(TrainingSearchCriteria criteria,
+                                                             @RequestParam(defaultValue = "ID") TrainingSearchSort sort,
+                                                             @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.searchTrainings(criteria, sort, direction, after, limit)
+                .map(trainingMapper::toDto)
+                .toResponseEntity();
     }
 
     @PostMapping
@@ -52,4 +105,15 @@ class TrainingController {
                 .status(HttpStatus.CREATED)
                 .body(trainingDto);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/batch")
+    public List<TrainingBatchResult> createTrainings(@RequestBody List<SimpleTrainingDto> simpleTrainingDtos) {
+        return trainingService.createTrainings(simpleTrainingDtos);
+    }
+
+    @DeleteMapping("/{trainingId}")
+    public ResponseEntity<Void> deleteTraining(@PathVariable Long trainingId) {
+        trainingService.deleteTraining(trainingId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,26 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+
+/**
+ * Enables the optional asynchronous training ingestion served by {@link TrainingIngestionController}.
+ * It is off unless switched on with {@code training.ingestion.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "training.ingestion", name = "enabled")
+@EnableConfigurationProperties(TrainingIngestionProperties.class)
+class TrainingIngestionConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    TrainingIngestionQueue trainingIngestionQueue(TrainingProvider trainingProvider,
+                                                  TrainingIngestionProperties properties,
+                                                  MeterRegistry meterRegistry) {
+        return new TrainingIngestionQueue(trainingProvider, properties, meterRegistry);
+    }
+
+}
@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionNotFoundException;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionStatus;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/trainings/async")
+@ConditionalOnProperty(prefix = "training.ingestion", name = "enabled")
+@RequiredArgsConstructor
+class TrainingIngestionController {
+
+    private final TrainingIngestionQueue trainingIngestionQueue;
+
+    @PostMapping
+    public ResponseEntity<TrainingIngestionStatus> submitTraining(@RequestBody SimpleTrainingDto simpleTrainingDto) {
+        TrainingIngestionStatus status = trainingIngestionQueue.submit(simpleTrainingDto);
+        return ResponseEntity
+                .accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{trackingId}")
+                        .buildAndExpand(status.trackingId())
+                        .toUri())
+                .body(status);
+    }
+
+    @GetMapping("/{trackingId}")
+    public TrainingIngestionStatus getStatus(@PathVariable("trackingId") UUID trackingId) {
+        return trainingIngestionQueue.getStatus(trackingId)
+                .orElseThrow(() -> new TrainingIngestionNotFoundException(trackingId));
+    }
+}
@@ -0,0 +1,84 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the asynchronous (write-behind) training ingestion.
+ */
+@ConfigurationProperties(prefix = "training.ingestion")
+@Getter
+class TrainingIngestionProperties {
+
+    /**
+     * Maximal number of trainings waiting to be written. Submissions beyond it are answered with {@code 429}.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Number of threads draining the queue.
+     */
+    private final int writerThreads;
+
+    /**
+     * Maximal number of trainings written by a single writer in one transaction.
+     */
+    private final int batchSize;
+
+    /**
+     * Time a writer waits for the first training of a batch before checking whether it should stop.
+     */
+    private final Duration pollTimeout;
+
+    /**
+     * Whether the trainings still queued on shutdown are written before the application stops.
+     * If disabled, they are dropped.
+     */
+    private final boolean flushOnShutdown;
+
+    /**
+     * Maximal time the shutdown waits for the writers to finish.
+     */
+    private final Duration shutdownTimeout;
+
+    /**
+     * Time for which the status of a submitted training can be queried, counting from its last change.
+     */
+    private final Duration statusRetention;
+
+    /**
+     * Maximal number of statuses kept at once. Beyond it, statuses are evicted before their retention ends.
+     * Must be at least the queue capacity, so that the status of every queued training can be kept.
+     */
+    private final int maxStatuses;
+
+    TrainingIngestionProperties(@DefaultValue("10000") int queueCapacity,
+                                @DefaultValue("2") int writerThreads,
+                                @DefaultValue("200") int batchSize,
+                                @DefaultValue("100ms") Duration pollTimeout,
+                                @DefaultValue("true") boolean flushOnShutdown,
+                                @DefaultValue("30s") Duration shutdownTimeout,
+                                @DefaultValue("1h") Duration statusRetention,
+                                @DefaultValue("100000") int maxStatuses) {
+        if (batchSize < 1 || batchSize > TrainingServiceImpl.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("training.ingestion.batch-size must be between 1 and %d, got: %d"
+                    .formatted(TrainingServiceImpl.MAX_BATCH_SIZE, batchSize));
+        }
+        if (maxStatuses < queueCapacity) {
+            throw new IllegalArgumentException("training.ingestion.max-statuses must be at least the queue capacity %d, got: %d"
+                    .formatted(queueCapacity, maxStatuses));
+        }
+        this.queueCapacity = queueCapacity;
+        this.writerThreads = writerThreads;
+        this.batchSize = batchSize;
+        this.pollTimeout = pollTimeout;
+        this.flushOnShutdown = flushOnShutdown;
+        this.shutdownTimeout = shutdownTimeout;
+        this.statusRetention = statusRetention;
+        this.maxStatuses = maxStatuses;
+    }
+
+}
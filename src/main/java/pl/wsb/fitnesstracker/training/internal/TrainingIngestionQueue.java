@@ -0,0 +1,198 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingBatchResult;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionQueueFullException;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionStatus;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionStoppedException;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded write-behind queue of trainings. Submitted trainings are acknowledged immediately and written by a pool
+ * of writer threads, each of them draining up to {@link TrainingIngestionProperties#getBatchSize()} trainings
+ * into a single {@link TrainingProvider#createTrainings(List) batch insert} transaction.
+ * The statuses of submitted trainings are kept for {@link TrainingIngestionProperties#getStatusRetention()},
+ * at most {@link TrainingIngestionProperties#getMaxStatuses()} of them at once.
+ * <p>
+ * Submissions hold the shared side of a read-write lock while they check that the queue is running and offer
+ * the training, and {@link #stop()} takes its exclusive side to stop it. A training is therefore either queued before
+ * the writers stop, and written by them if the queue is flushed on shutdown, or rejected with its status removed.
+ * <p>
+ * The queue publishes the {@code training.ingestion.queue.depth} gauge, the {@code training.ingestion.batch.size}
+ * summary, the {@code training.ingestion.flush.latency} timer and the {@code training.ingestion.rejected} counter.
+ */
+@Slf4j
+class TrainingIngestionQueue {
+
+    private final TrainingProvider trainingProvider;
+    private final TrainingIngestionProperties properties;
+    private final BlockingQueue<PendingTraining> queue;
+    private final Cache<UUID, TrainingIngestionStatus> statuses;
+    private final ExecutorService writers;
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+    private final Counter rejected;
+    private final ReadWriteLock submissionLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running = true;
+
+    TrainingIngestionQueue(TrainingProvider trainingProvider, TrainingIngestionProperties properties, MeterRegistry meterRegistry) {
+        this.trainingProvider = trainingProvider;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxStatuses())
+                .expireAfterWrite(properties.getStatusRetention())
+                .build();
+        this.writers = Executors.newFixedThreadPool(properties.getWriterThreads(), new CustomizableThreadFactory("training-ingestion-"));
+        Gauge.builder("training.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Number of trainings waiting to be written")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("training.ingestion.batch.size")
+                .description("Number of trainings written in a single transaction")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("training.ingestion.flush.latency")
+                .description("Time of writing a single batch of trainings")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("training.ingestion.rejected")
+                .description("Number of trainings refused because the queue was full or stopped")
+                .register(meterRegistry);
+    }
+
+    void start() {
+        for (int i = 0; i < properties.getWriterThreads(); i++) {
+            writers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Accepts the training for an asynchronous write.
+     *
+     * @param training training to be created
+     * @return status of the accepted training, carrying its tracking ID
+     * @throws TrainingIngestionQueueFullException if the queue is full
+     * @throws TrainingIngestionStoppedException   if the application is shutting down
+     */
+    TrainingIngestionStatus submit(SimpleTrainingDto training) {
+        TrainingIngestionStatus status = TrainingIngestionStatus.queued(UUID.randomUUID());
+        statuses.put(status.trackingId(), status);
+        boolean accepting;
+        boolean queued;
+        submissionLock.readLock().lock();
+        try {
+            accepting = running;
+            queued = accepting && queue.offer(new PendingTraining(status.trackingId(), training));
+        } finally {
+            submissionLock.readLock().unlock();
+        }
+        if (!queued) {
+            statuses.invalidate(status.trackingId());
+            rejected.increment();
+            if (!accepting) {
+                throw new TrainingIngestionStoppedException();
+            }
+            throw new TrainingIngestionQueueFullException(properties.getQueueCapacity());
+        }
+        return status;
+    }
+
+    Optional<TrainingIngestionStatus> getStatus(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    /**
+     * Stops accepting trainings and waits for the writers. If {@link TrainingIngestionProperties#isFlushOnShutdown()}
+     * is enabled, the writers empty the queue first, otherwise the queued trainings are dropped and their statuses
+     * marked as rejected.
+     */
+    void stop() {
+        submissionLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submissionLock.writeLock().unlock();
+        }
+        if (!properties.isFlushOnShutdown()) {
+            List<PendingTraining> dropped = new ArrayList<>(queue.size());
+            queue.drainTo(dropped);
+            dropped.forEach(pending -> statuses.put(pending.trackingId(),
+                    TrainingIngestionStatus.rejected(pending.trackingId(), "Dropped on shutdown before being written")));
+            if (!dropped.isEmpty()) {
+                log.warn("Dropping {} queued trainings on shutdown", dropped.size());
+            }
+        }
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Training ingestion writers did not finish in {}, {} trainings left in the queue",
+                        properties.getShutdownTimeout(), queue.size());
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<PendingTraining> batch = new ArrayList<>(properties.getBatchSize());
+        long pollTimeout = properties.getPollTimeout().toMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTraining first = queue.poll(pollTimeout, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingTraining> batch) {
+        batchSize.record(batch.size());
+        try {
+            List<TrainingBatchResult> results = flushLatency.recordCallable(() -> trainingProvider.createTrainings(
+                    batch.stream().map(PendingTraining::training).toList()));
+            for (TrainingBatchResult result : results) {
+                UUID trackingId = batch.get(result.index()).trackingId();
+                statuses.put(trackingId, TrainingIngestionStatus.of(trackingId, result));
+            }
+        } catch (Exception e) {
+            log.error("Failed to write a batch of {} trainings", batch.size(), e);
+            batch.forEach(pending -> statuses.put(pending.trackingId(),
+                    TrainingIngestionStatus.failed(pending.trackingId(), e.getMessage())));
+        }
+    }
+
+    private record PendingTraining(UUID trackingId, SimpleTrainingDto training) {
+    }
+
+}
@@ -2,10 +2,13 @@ package pl.wsb.fitnesstracker.training.internal;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
 import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingUserDto;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
 import pl.wsb.fitnesstracker.user.internal.UserServiceImpl;
 
 @Component
@@ -15,12 +18,21 @@ public class TrainingMapper {
     private final UserServiceImpl userService;
 
     TrainingDto toDto(Training training) {
-        return new TrainingDto(training.getUser(),training.getStartTime(),training.getEndTime()
+        return new TrainingDto(toUserDto(training.getUser()),training.getStartTime(),training.getEndTime()
         ,training.getActivityType(),training.getDistance(),training.getAverageSpeed());
     }
 
+    private static TrainingUserDto toUserDto(User user) {
+        return new TrainingUserDto(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+
     Training simpleToEntity(SimpleTrainingDto simpleTrainingDto) {
-        return new Training(userService.getUser(simpleTrainingDto.userId()).orElseThrow(), simpleTrainingDto.startTime(),
+        Long userId = simpleTrainingDto.userId();
+        if (userId == null) {
+            throw new BusinessException("Field userId is required");
+        }
+        User user = userService.getUser(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return new Training(user, simpleTrainingDto.startTime(),
                 simpleTrainingDto.endTime(), simpleTrainingDto.activityType(),
                 simpleTrainingDto.distance(), simpleTrainingDto.averageSpeed());
     }
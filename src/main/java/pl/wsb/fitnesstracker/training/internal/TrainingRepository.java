@@ -1,14 +1,112 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+interface TrainingRepository extends JpaRepository<Training, Long>, JpaSpecificationExecutor<Training> {
+
+    int EXPORT_FETCH_SIZE = 500;
+
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByUserIdOrderByStartTimeAscIdAsc(long userId, Limit limit);
+
+    @Query("""
+            select t from Training t join fetch t.user
+            where t.user.id = :userId
+              and (t.startTime > :startTime or (t.startTime = :startTime and t.id > :id))
+            order by t.startTime, t.id
+            """)
+    List<Training> findByUserIdAfter(@Param("userId") long userId,
+                                     @Param("startTime") Date startTime,
+                                     @Param("id") long id,
+                                     Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByEndTimeAfterOrderByEndTimeAscIdAsc(Date endTime, Limit limit);
+
+    @Query("""
+            select t from Training t join fetch t.user
+            where t.endTime > :endTime or (t.endTime = :endTime and t.id > :id)
+            order by t.endTime, t.id
+            """)
+    List<Training> findByEndTimeAfter(@Param("endTime") Date endTime,
+                                      @Param("id") long id,
+                                      Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByActivityTypeOrderByEndTimeAscIdAsc(ActivityType activityType, Limit limit);
+
+    @Query("""
+            select t from Training t join fetch t.user
+            where t.activityType = :activityType
+              and (t.endTime > :endTime or (t.endTime = :endTime and t.id > :id))
+            order by t.endTime, t.id
+            """)
+    List<Training> findByActivityTypeAfter(@Param("activityType") ActivityType activityType,
+                                           @Param("endTime") Date endTime,
+                                           @Param("id") long id,
+                                           Limit limit);
+
+    @Query("select t from Training t join fetch t.user order by t.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Training> streamAll();
+
+    @Query("select t from Training t where t.user.id between :fromUserId and :toUserId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Training> streamByUserIdBetween(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+    /**
+     * Sums the trainings of the users within the ID range started within the given time range, grouped by user
+     * and activity type. The whole range is aggregated by a single query over the {@code (user_id, start_time)} index.
+     *
+     * @param fromUserId  the lowest user ID, inclusive
+     * @param toUserId    the highest user ID, inclusive
+     * @param startedFrom start of the time range, inclusive
+     * @param startedTo   end of the time range, exclusive
+     * @return a list of totals, ordered by the user ID and activity type
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.api.TrainingSummaryDto(
+                t.user.id, t.activityType, count(t), sum(t.distance),
+                sum(extract(epoch from t.endTime) - extract(epoch from t.startTime)))
+            from Training t
+            where t.user.id between :fromUserId and :toUserId
+              and t.startTime >= :startedFrom and t.startTime < :startedTo
+            group by t.user.id, t.activityType
+            order by t.user.id, t.activityType
+            """)
+    List<TrainingSummaryDto> summarizeByUserIdBetween(@Param("fromUserId") long fromUserId,
+                                                      @Param("toUserId") long toUserId,
+                                                      @Param("startedFrom") Date startedFrom,
+                                                      @Param("startedTo") Date startedTo);
+
+    @Query("select min(t.user.id) from Training t")
+    Optional<Long> findMinUserId();
+
+    @Query("select max(t.user.id) from Training t")
+    Optional<Long> findMaxUserId();
 
-interface TrainingRepository extends JpaRepository<Training, Long> {
-    default List<Training> findByUserId(final long userId) {
-        return findAll().stream()
-                .filter(training -> training.getUser().getId() != null)
-                .toList();
-    }
 }
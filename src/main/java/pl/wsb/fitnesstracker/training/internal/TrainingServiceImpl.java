@@ -1,22 +1,78 @@
 package pl.wsb.fitnesstracker.training.internal;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.pagination.api.Cursor;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
 import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingBatchResult;
+import pl.wsb.fitnesstracker.training.api.TrainingChangeListener;
+import pl.wsb.fitnesstracker.training.api.TrainingNotFoundException;
 import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchCriteria;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchSort;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
+import pl.wsb.fitnesstracker.training.api.TrainingWriteGuard;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // TODO: Provide Implementation and correct the return type of the method getTraining
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TrainingServiceImpl implements TrainingProvider {
 
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final TrainingRepository trainingRepository;
+    private final UserProvider userProvider;
+    private final EntityManager entityManager;
+    private final ObjectProvider<TrainingChangeListener> changeListeners;
+    private final ObjectProvider<TrainingWriteGuard> writeGuard;
+    private final TransactionTemplate transaction;
+
+    TrainingServiceImpl(TrainingRepository trainingRepository,
+                        UserProvider userProvider,
+                        EntityManager entityManager,
+                        ObjectProvider<TrainingChangeListener> changeListeners,
+                        ObjectProvider<TrainingWriteGuard> writeGuard,
+                        PlatformTransactionManager transactionManager) {
+        this.trainingRepository = trainingRepository;
+        this.userProvider = userProvider;
+        this.entityManager = entityManager;
+        this.changeListeners = changeListeners;
+        this.writeGuard = writeGuard;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
 
     @Override
     public Optional<User> getTraining(final Long trainingId) {
@@ -24,13 +80,60 @@ public class TrainingServiceImpl implements TrainingProvider {
     }
 
     @Override
-    public List<Training> getAllTrainings(){
-        return trainingRepository.findAll();
+    public KeysetPage<Training> getAllTrainings(@Nullable String after, int limit) {
+        List<Training> trainings = trainingRepository.findByIdGreaterThanOrderByIdAsc(afterId(after), fetchLimit(limit));
+        return KeysetPage.of(trainings, limit, training -> new long[]{training.getId()});
+    }
+
+    @Override
+    public KeysetPage<Training> getAllTrainingsByUserId(Long userId, @Nullable String after, int limit) {
+        List<Training> trainings;
+        if (after == null) {
+            trainings = trainingRepository.findByUserIdOrderByStartTimeAscIdAsc(userId, fetchLimit(limit));
+        } else {
+            long[] keys = Cursor.decode(after, 2);
+            trainings = trainingRepository.findByUserIdAfter(userId, new Date(keys[0]), keys[1], fetchLimit(limit));
+        }
+        return KeysetPage.of(trainings, limit, training -> new long[]{training.getStartTime().getTime(), training.getId()});
     }
 
     @Override
-    public List<Training> getAllTrainingsByUserId(Long userId){
-        return trainingRepository.findByUserId(userId);
+    public KeysetPage<Training> getFinishedTrainingsAfter(LocalDate date, @Nullable String after, int limit) {
+        List<Training> trainings;
+        if (after == null) {
+            Date endTime = Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            trainings = trainingRepository.findByEndTimeAfterOrderByEndTimeAscIdAsc(endTime, fetchLimit(limit));
+        } else {
+            long[] keys = Cursor.decode(after, 2);
+            trainings = trainingRepository.findByEndTimeAfter(new Date(keys[0]), keys[1], fetchLimit(limit));
+        }
+        return KeysetPage.of(trainings, limit, TrainingServiceImpl::endTimeKeys);
+    }
+
+    @Override
+    public KeysetPage<Training> getTrainingsByActivityType(ActivityType activityType, @Nullable String after, int limit) {
+        List<Training> trainings;
+        if (after == null) {
+            trainings = trainingRepository.findByActivityTypeOrderByEndTimeAscIdAsc(activityType, fetchLimit(limit));
+        } else {
+            long[] keys = Cursor.decode(after, 2);
+            trainings = trainingRepository.findByActivityTypeAfter(activityType, new Date(keys[0]), keys[1], fetchLimit(limit));
+        }
+        return KeysetPage.of(trainings, limit, TrainingServiceImpl::endTimeKeys);
+    }
+
+    @Override
+    public KeysetPage<Training> searchTrainings(TrainingSearchCriteria criteria, TrainingSearchSort sort, Sort.Direction direction,
+                                                @Nullable String after, int limit) {
+        Specification<Training> specification = TrainingSpecifications.matching(criteria);
+        if (after != null) {
+            long[] keys = Cursor.decode(after, 2);
+            specification = specification.and(TrainingSpecifications.after(sort, direction, keys[0], keys[1]));
+        }
+        Sort order = Sort.by(direction, sort.getAttribute()).and(Sort.by(direction, "id"));
+        int fetchLimit = fetchLimit(limit).max();
+        List<Training> trainings = trainingRepository.findBy(specification, query -> query.sortBy(order).limit(fetchLimit).all());
+        return KeysetPage.of(trainings, limit, training -> new long[]{sort.keyOf(training), training.getId()});
     }
 
     @Override
@@ -39,6 +142,139 @@ public class TrainingServiceImpl implements TrainingProvider {
         if (training.getId() != null) {
             throw new IllegalArgumentException("Training has already DB ID, update is not permitted!");
         }
-        return trainingRepository.save(training);
+        List<Long> userIds = training.getUser() == null ? List.of() : List.of(training.getUser().getId());
+        return guarded(userIds, () -> transaction.execute(status -> {
+            Training createdTraining = trainingRepository.save(training);
+            changeListeners.orderedStream().forEach(listener -> listener.onTrainingCreated(createdTraining));
+            return createdTraining;
+        }));
+    }
+
+    @Override
+    public List<TrainingBatchResult> createTrainings(List<SimpleTrainingDto> trainings) {
+        if (trainings.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("At most %d trainings can be created at once, got: %d".formatted(MAX_BATCH_SIZE, trainings.size()));
+        }
+        log.info("Creating {} Trainings in batch", trainings.size());
+        Set<Long> userIds = trainings.stream()
+                .filter(Objects::nonNull)
+                .map(SimpleTrainingDto::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return guarded(userIds, () -> transaction.execute(status -> createValidTrainings(trainings, userIds)));
+    }
+
+    private List<TrainingBatchResult> createValidTrainings(List<SimpleTrainingDto> trainings, Set<Long> userIds) {
+        Map<Long, User> users = userProvider.getUsers(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        TrainingBatchResult[] results = new TrainingBatchResult[trainings.size()];
+        Map<Integer, Training> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < trainings.size(); i++) {
+            SimpleTrainingDto training = trainings.get(i);
+            String error = validate(training, users);
+            if (error != null) {
+                results[i] = TrainingBatchResult.rejected(i, error);
+            } else {
+                accepted.put(i, new Training(users.get(training.userId()), training.startTime(), training.endTime(),
+                        training.activityType(), training.distance(), training.averageSpeed()));
+            }
+        }
+
+        List<Training> created = trainingRepository.saveAll(accepted.values());
+        changeListeners.orderedStream().forEach(listener -> listener.onTrainingsCreated(created));
+        accepted.forEach((index, training) -> results[index] = TrainingBatchResult.created(index, training.getId()));
+        return List.of(results);
+    }
+
+    @Override
+    public void deleteTraining(final Long trainingId) {
+        log.info("Deleting Training with id {}", trainingId);
+        Long userId = trainingRepository.findById(trainingId)
+                .map(training -> training.getUser().getId())
+                .orElseThrow(() -> new TrainingNotFoundException(trainingId));
+        guarded(List.of(userId), () -> transaction.execute(status -> {
+            Training training = trainingRepository.findById(trainingId)
+                    .orElseThrow(() -> new TrainingNotFoundException(trainingId));
+            trainingRepository.delete(training);
+            changeListeners.orderedStream().forEach(listener -> listener.onTrainingDeleted(training));
+            return training;
+        }));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTraining(Consumer<Training> consumer) {
+        try (Stream<Training> trainings = trainingRepository.streamAll()) {
+            consume(trainings, consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTrainingOfUsers(UserIdRange users, Consumer<Training> consumer) {
+        try (Stream<Training> trainings = trainingRepository.streamByUserIdBetween(users.min(), users.max())) {
+            consume(trainings, consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrainingSummaryDto> summarizeTrainings(UserIdRange users, LocalDate from, LocalDate to) {
+        return trainingRepository.summarizeByUserIdBetween(users.min(), users.max(),
+                Date.from(from.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                Date.from(to.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserIdRange> getTrainingUserIdRange() {
+        return trainingRepository.findMinUserId()
+                .flatMap(min -> trainingRepository.findMaxUserId().map(max -> new UserIdRange(min, max)));
+    }
+
+    /**
+     * Runs the write within the {@link TrainingWriteGuard}, if any, which is taken before the transaction of the write
+     * begins, so a write waiting for it does not hold a database connection.
+     */
+    private <T> T guarded(Collection<Long> userIds, Supplier<T> write) {
+        TrainingWriteGuard guard = writeGuard.getIfAvailable();
+        return guard == null ? write.get() : guard.guard(userIds, write);
+    }
+
+    private void consume(Stream<Training> trainings, Consumer<Training> consumer) {
+        int consumed = 0;
+        for (Iterator<Training> iterator = trainings.iterator(); iterator.hasNext(); ) {
+            consumer.accept(iterator.next());
+            if (++consumed % TrainingRepository.EXPORT_FETCH_SIZE == 0) {
+                entityManager.clear();
+            }
+        }
+    }
+
+    @Nullable
+    private static String validate(@Nullable SimpleTrainingDto training, Map<Long, User> users) {
+        if (training == null) {
+            return "Training is missing";
+        }
+        if (training.userId() == null || training.startTime() == null || training.endTime() == null || training.activityType() == null) {
+            return "Fields userId, startTime, endTime and activityType are required";
+        }
+        if (!users.containsKey(training.userId())) {
+            return new UserNotFoundException(training.userId()).getMessage();
+        }
+        return null;
+    }
+
+    private static long[] endTimeKeys(Training training) {
+        return new long[]{training.getEndTime().getTime(), training.getId()};
+    }
+
+    private static long afterId(@Nullable String after) {
+        return after == null ? Long.MIN_VALUE : Cursor.decode(after, 1)[0];
+    }
+
+    private static Limit fetchLimit(int limit) {
+        return Limit.of(KeysetPage.checkLimit(limit) + 1);
     }
 }
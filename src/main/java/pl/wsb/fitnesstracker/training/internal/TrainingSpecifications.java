@@ -0,0 +1,87 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchCriteria;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchSort;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compiles the training search into JPA {@link Specification}s.
+ * Every criterion becomes a plain equality or range predicate on a column, so the database can use
+ * the {@code (user_id, start_time)}, {@code end_time} and {@code (activity_type, end_time)} indexes.
+ */
+final class TrainingSpecifications {
+
+    private TrainingSpecifications() {
+    }
+
+    /**
+     * Creates a specification matching all the given criteria, with the users of the trainings fetched.
+     *
+     * @param criteria filters of the search
+     * @return specification of the search
+     */
+    static Specification<Training> matching(TrainingSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            if (Training.class.equals(query.getResultType())) {
+                root.fetch("user");
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.userId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), criteria.userId()));
+            }
+            if (criteria.activityType() != null) {
+                predicates.add(cb.equal(root.get("activityType"), criteria.activityType()));
+            }
+            addRange(predicates, cb, root.get("startTime"), criteria.startedFrom(), criteria.startedTo());
+            addRange(predicates, cb, root.get("endTime"), criteria.endedFrom(), criteria.endedTo());
+            addRange(predicates, cb, root.get("distance"), criteria.minDistance(), criteria.maxDistance());
+            addRange(predicates, cb, root.get("averageSpeed"), criteria.minAverageSpeed(), criteria.maxAverageSpeed());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Creates a keyset predicate selecting the trainings following the given position in the sort order.
+     *
+     * @param sort      sorted attribute
+     * @param direction direction of the sort
+     * @param key       sort key of the last training of the previous page
+     * @param id        ID of the last training of the previous page
+     * @return specification of the trainings after the given position
+     */
+    static Specification<Training> after(TrainingSearchSort sort, Sort.Direction direction, long key, long id) {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            if (sort == TrainingSearchSort.ID) {
+                return direction.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            }
+            Path<Date> keyPath = root.get(sort.getAttribute());
+            Date keyValue = new Date(key);
+            Predicate beyondKey = direction.isAscending() ? cb.greaterThan(keyPath, keyValue) : cb.lessThan(keyPath, keyValue);
+            Predicate beyondId = direction.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            return cb.or(beyondKey, cb.and(cb.equal(keyPath, keyValue), beyondId));
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> void addRange(List<Predicate> predicates, CriteriaBuilder cb, Path<Y> path,
+                                                                  @Nullable Y from, @Nullable Y to) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, to));
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package pl.wsb.fitnesstracker.transaction.api;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Callbacks run on the completion of the current transaction, shared by the modules updating in-memory state
+ * or publishing events only once the change they reflect is visible to other transactions.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs the given action after the current transaction commits, in the thread that committed it.
+     * The action is dropped if the transaction rolls back.
+     *
+     * @param action action to be run
+     * @throws IllegalStateException if no transaction synchronization is active
+     */
+    public static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.user.api;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits email addresses (and searched fragments of them) into lower-case trigrams.
+ * The trigrams of every {@link User#getEmail() email} are persisted in the indexed {@code user_email_trigrams} table,
+ * so a fragment search only has to intersect the posting lists of the fragment's trigrams instead of scanning all users.
+ */
+public final class EmailTrigrams {
+
+    /**
+     * Length of a single gram. Fragments shorter than that cannot be resolved through the index.
+     */
+    public static final int LENGTH = 3;
+
+    private EmailTrigrams() {
+    }
+
+    /**
+     * Returns the distinct trigrams of the given value, normalized to lower case.
+     *
+     * @param value email address or its fragment
+     * @return set of trigrams in order of appearance; empty if the value is shorter than {@link #LENGTH}
+     */
+    public static Set<String> of(String value) {
+        String normalized = value.toLowerCase(Locale.ROOT);
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + LENGTH <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + LENGTH));
+        }
+        return trigrams;
+    }
+
+}
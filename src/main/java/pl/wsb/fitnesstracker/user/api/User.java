@@ -9,6 +9,8 @@ import lombok.Setter;
 import lombok.ToString;
 
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Entity class representing a user in the system.
@@ -21,6 +23,9 @@ import java.time.LocalDate;
  * - A unique identifier (ID) is auto-generated for each user record.
  * - Contains basic user information like first name, last name, birthdate, and email.
  * - The `email` field is unique and mandatory for identifying users.
+ * - The lower-case trigrams of the `email` are kept in the indexed `user_email_trigrams` table, so users can be
+ *   searched by an email fragment without scanning the whole `users` table (see {@link EmailTrigrams}).
+ * - A `version` column is incremented on every update and used for optimistic detection of concurrent edits.
  * - Provides a constructor for initializing new user objects with the required fields.
  *
  * Annotations used:
@@ -31,7 +36,7 @@ import java.time.LocalDate;
  * - `@ToString`: Automatically generates a `toString` method for easy debugging and logging.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_birthdate", columnList = "birthdate"))
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -55,6 +60,22 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Nullable
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
+    @ElementCollection
+    @CollectionTable(name = "user_email_trigrams",
+            joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_email_trigrams_trigram", columnList = "trigram"))
+    @Column(name = "trigram", nullable = false, length = EmailTrigrams.LENGTH)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private Set<String> emailTrigrams = new HashSet<>();
+
     public User(
             final String firstName,
             final String lastName,
@@ -64,7 +85,19 @@ public class User {
         this.firstName = firstName;
         this.lastName = lastName;
         this.birthdate = birthdate;
+        setEmail(email);
+    }
+
+    /**
+     * Sets the email of the user and refreshes its search trigrams.
+     *
+     * @param email new email address of the user
+     */
+    public void setEmail(final String email) {
         this.email = email;
+        Set<String> trigrams = email == null ? Set.of() : EmailTrigrams.of(email);
+        emailTrigrams.retainAll(trigrams);
+        emailTrigrams.addAll(trigrams);
     }
 
 }
@@ -0,0 +1,16 @@
+package pl.wsb.fitnesstracker.user.api;
+
+/**
+ * Listener of changes of {@link User} entities, notified by the {@link UserService} implementation
+ * within the transaction of the change. An exception thrown by a listener rolls the change back.
+ */
+public interface UserChangeListener {
+
+    /**
+     * Called after the user was removed, together with the rows cascading from it.
+     *
+     * @param userId ID of the removed user
+     */
+    void onUserDeleted(Long userId);
+
+}
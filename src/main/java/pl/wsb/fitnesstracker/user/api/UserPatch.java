@@ -0,0 +1,29 @@
+package pl.wsb.fitnesstracker.user.api;
+
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Partial update of a {@link User}. Only the non-null fields are written, the remaining columns are left untouched.
+ *
+ * @param firstName new first name of the user, or {@code null} to keep the current one
+ * @param lastName  new last name of the user, or {@code null} to keep the current one
+ * @param birthdate new birthdate of the user, or {@code null} to keep the current one
+ * @param email     new email of the user, or {@code null} to keep the current one
+ */
+public record UserPatch(@Nullable String firstName,
+                        @Nullable String lastName,
+                        @Nullable LocalDate birthdate,
+                        @Nullable String email) {
+
+    /**
+     * Checks whether the patch changes anything.
+     *
+     * @return {@code true} if all the fields are {@code null}
+     */
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && birthdate == null && email == null;
+    }
+
+}
@@ -1,7 +1,12 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserProvider {
 
@@ -15,19 +20,50 @@ public interface UserProvider {
     Optional<User> getUser(Long userId);
 
     /**
-     * Retrieves a user based on their email.
-     * If the user with given email is not found, then {@link Optional#empty()} will be returned.
+     * Retrieves the users with the given IDs using a single query.
+     * IDs of users which do not exist are skipped.
      *
-     * @param email The email of the user to be searched
-     * @return An {@link Optional} containing the located user, or {@link Optional#empty()} if not found
+     * @param userIds ids of the users to be searched
+     * @return A list of the located users, in no particular order
+     */
+    List<User> getUsers(Collection<Long> userIds);
+
+    /**
+     * Retrieves users whose email contains the given fragment, ignoring case.
+     * If no user matches, then an empty list will be returned.
+     *
+     * @param email The email fragment of the users to be searched
+     * @return A list of id/email projections of the located users
+     */
+    List<UserEmailDto> getUserByEmail(String email);
+
+    /**
+     * Retrieves a single page of users ordered by their ID.
+     * The next page is requested by passing the {@link KeysetPage#nextCursor()} of the previous one as {@code after}.
+     *
+     * @param after cursor of the page to be read, or {@code null} for the first page
+     * @param limit maximal number of users on the page
+     * @return A {@link KeysetPage} containing the users of the page
+     */
+    KeysetPage<User> findUsers(@Nullable String after, int limit);
+
+    /**
+     * Retrieves a single page of simplified users ordered by their ID.
+     * Only the selected columns are read, no {@link User} entities are loaded.
+     *
+     * @param after cursor of the page to be read, or {@code null} for the first page
+     * @param limit maximal number of users on the page
+     * @return A {@link KeysetPage} containing the simplified users of the page
      */
-    List<User> getUserByEmail(String email);
+    KeysetPage<UserSimpleDto> findSimpleUsers(@Nullable String after, int limit);
 
     /**
-     * Retrieves all users.
+     * Passes all users, ordered by their ID, to the given consumer one by one.
+     * Users are read through a database cursor and released after being consumed,
+     * so memory use does not depend on the number of users. The users must not be used after the consumer returns.
      *
-     * @return An {@link Optional} containing the all users,
+     * @param consumer consumer of the users
      */
-    List<User> findAllUsers();
+    void forEachUser(Consumer<User> consumer);
 
 }
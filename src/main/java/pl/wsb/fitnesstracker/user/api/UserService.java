@@ -1,5 +1,7 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import jakarta.annotation.Nullable;
+
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,13 +23,39 @@ public interface UserService {
      */
     User updateUser(Long id, User user);
 
+    /**
+     * Applies a partial update to the user with the given ID in a single statement, without loading the user.
+     * If the expected version is given, the update is applied only if nobody has modified the user since that version.
+     *
+     * @param id              the unique identifier of the user to be updated
+     * @param patch           the columns to be updated; at least one must be present
+     * @param expectedVersion the version the user is expected to be in, or {@code null} to update unconditionally
+     * @return the number of updated rows
+     * @throws UserNotFoundException        if the user does not exist
+     * @throws UserVersionConflictException if the user is no longer in the expected version
+     */
+    int patchUser(Long id, UserPatch patch, @Nullable Long expectedVersion);
+
     /**
      * Retrieves a list of users who are older than the given birthdate.
      *
      * @param birthdate the birthdate used as the threshold for determining users' ages
      * @return a list of {@link User} objects corresponding to users who are older than the specified date
      */
-    List<User> getUserOlderThan(final LocalDate birthdate);
+    default List<User> getUserOlderThan(final LocalDate birthdate) {
+        return getUserOlderThan(birthdate, null, null);
+    }
+
+    /**
+     * Retrieves a list of users who are older than the given birthdate, optionally narrowed to an age cohort.
+     * Users are ordered by birthdate, from the oldest one.
+     *
+     * @param birthdate the birthdate used as the threshold for determining users' ages
+     * @param bornAfter optional birthdate the users have to be born after (the upper bound of their age)
+     * @param limit     optional maximal number of users to return; must be positive if provided
+     * @return a list of {@link User} objects corresponding to users who are older than the specified date
+     */
+    List<User> getUserOlderThan(final LocalDate birthdate, @Nullable final LocalDate bornAfter, @Nullable final Integer limit);
 
     /**
      * Deletes a user identified by the provided ID.
@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.user.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+/**
+ * Exception indicating that the {@link User} was modified concurrently, so its version no longer matches the expected one.
+ * Will resolve to the {@link HttpStatus#PRECONDITION_FAILED} if handled by the Spring's exception handler.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+@SuppressWarnings("squid:S110")
+public class UserVersionConflictException extends BusinessException {
+
+    public UserVersionConflictException(Long id, Long expectedVersion) {
+        super("User with ID=%s is no longer in version %s".formatted(id, expectedVersion));
+    }
+
+}
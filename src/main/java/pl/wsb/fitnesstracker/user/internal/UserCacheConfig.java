@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configures the bounded read-through cache in front of {@link UserServiceImpl#getUser(Long)}.
+ * The cache records its statistics, so hits, misses and evictions are published by actuator as the
+ * {@code cache.gets} and {@code cache.evictions} metrics tagged with {@code cache=users}.
+ * <p>
+ * The cache is transaction-aware: puts and evictions made within a transaction are applied only after it commits,
+ * so a reader cannot cache the old state of a user between the eviction and the commit of the update.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(UserCacheProperties.class)
+class UserCacheConfig {
+
+    /**
+     * Name of the cache of users keyed by their ID.
+     */
+    static final String USERS_CACHE = "users";
+
+    @Bean
+    CacheManager cacheManager(UserCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(List.of(USERS_CACHE));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+}
@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-process cache of {@link pl.wsb.fitnesstracker.user.api.User} entities looked up by their ID.
+ */
+@ConfigurationProperties(prefix = "user.cache")
+@Getter
+class UserCacheProperties {
+
+    /**
+     * Maximal number of users kept in the cache. The least recently used ones are evicted first.
+     */
+    private final long maximumSize;
+
+    /**
+     * Time after which a cached user is evicted, counting from the moment it was loaded.
+     */
+    private final Duration expireAfterWrite;
+
+    UserCacheProperties(@DefaultValue("10000") long maximumSize,
+                        @DefaultValue("10m") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+}
@@ -1,12 +1,21 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.export.api.NdjsonWriter;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
 import pl.wsb.fitnesstracker.user.api.User;
 import pl.wsb.fitnesstracker.user.api.UserEmailDto;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
 import pl.wsb.fitnesstracker.user.api.UserSimpleDto;
+import pl.wsb.fitnesstracker.user.api.UserVersionConflictException;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,14 +27,16 @@ import java.util.stream.Stream;
  * utilizes services and mappers to handle business logic and data transformation.
  *
  * Endpoints:
- * - GET /v1/users: Retrieves a list of all users.
- * - GET /v1/users/simple: Retrieves a simplified list of all users with limited information.
+ * - GET /v1/users: Retrieves a cursor-paginated list of users.
+ * - GET /v1/users/simple: Retrieves a cursor-paginated, simplified list of users with limited information.
+ * - GET /v1/users/export: Streams all users as newline-delimited JSON.
  * - GET /v1/users/{id}: Retrieves user details based on the provided user ID.
  * - GET /v1/users/email: Finds users by their email address, provided as a query parameter.
- * - GET /v1/users/older/{time}: Retrieves users older than a specific date.
+ * - GET /v1/users/older/{time}: Retrieves users older than a specific date, optionally within an age cohort.
  * - DELETE /v1/users/{userId}: Deletes a user by their unique ID.
  * - POST /v1/users: Adds a new user to the system.
  * - PUT /v1/users/{userId}: Updates the information of an existing user identified by the given ID.
+ * - PATCH /v1/users/{userId}: Partially updates an existing user with a single statement, optionally guarded by If-Match.
  */
 @RestController
 @RequestMapping("/v1/users")
@@ -53,75 +64,105 @@ class UserController {
     private final UserMapper userMapper;
 
     /**
-     * Retrieves a list of all users. The method fetches user entities from the service layer,
+     * Jackson mapper used to serialize users one by one while streaming the export.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Retrieves a page of users ordered by ID. The method fetches user entities from the service layer,
      * maps them to their corresponding {@code UserDto} representations, and returns the result.
+     * If there are more users, the cursor of the next page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
-     * @return a list of {@code UserDto} objects representing all users; if no users exist, returns an empty list
+     * @param after cursor of the requested page; omitted for the first page
+     * @param limit maximal number of users on the page
+     * @return a list of {@code UserDto} objects representing the users of the page; if no users exist, returns an empty list
      */
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.findAllUsers()
-                .stream()
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(required = false) String after,
+                                                     @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return userService.findUsers(after, limit)
                 .map(userMapper::toDto)
-                .toList();
+                .toResponseEntity();
     }
 
     /**
-     * Retrieves a list of all users in a simplified format. The simplified format
-     * includes only basic user information, such as the user's ID, first name, and last name.
+     * Retrieves a page of users in a simplified format, ordered by ID. The simplified format
+     * includes only basic user information, such as the user's ID, first name, and last name,
+     * which are selected directly from the database without loading user entities.
+     * If there are more users, the cursor of the next page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
+     * @param after cursor of the requested page; omitted for the first page
+     * @param limit maximal number of users on the page
      * @return a list of {@code UserSimpleDto} representing the simplified user data
      */
     @RequestMapping("/simple")
     @GetMapping
-    public List<UserSimpleDto> getAllSimpleUsers() {
-        return userService.findAllUsers()
-                .stream()
-                .map(userMapper::toSimpleDto)
-                .toList();
+    public ResponseEntity<List<UserSimpleDto>> getAllSimpleUsers(@RequestParam(required = false) String after,
+                                                                 @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return userService.findSimpleUsers(after, limit)
+                .toResponseEntity();
+    }
+
+    /**
+     * Exports all users as newline-delimited JSON, one {@code UserDto} per line, ordered by ID.
+     * Users are streamed from a database cursor straight to the response, so the memory used by the export
+     * does not depend on the number of users.
+     *
+     * @return a {@code ResponseEntity} with the streaming NDJSON body
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = NdjsonWriter.body(objectMapper,
+                sink -> userService.forEachUser(user -> sink.accept(userMapper.toDto(user))));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * Retrieves user details based on the provided user ID by fetching the user
      * information from the service layer and converting it into a UserDto.
+     * The current version of the user is returned in the {@code ETag} header, to be used as {@code If-Match} of a PATCH.
      *
      * @param id the unique identifier of the user to retrieve
      * @return the user's details as a UserDto
      * @throws NoSuchElementException if a user with the given ID is not found
      */
     @GetMapping("/{id}")
-    public UserDto getUserById(@PathVariable Long id) {
-        return userService.getUser(id)
-                .stream()
-                .map(userMapper::toDto)
-                .findFirst().orElseThrow();
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+        User user = userService.getUser(id).orElseThrow();
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(user.getVersion()))
+                .body(userMapper.toDto(user));
     }
 
     /**
-     * Retrieves a list of users by their email address and maps the results to UserEmailDto objects.
+     * Retrieves a list of users whose email address contains the given fragment, ignoring case.
      *
-     * @param email the email address to search for; must not be null
-     * @return a list of UserEmailDto objects matching the given email address;
+     * @param email the email fragment to search for; must not be null
+     * @return a list of UserEmailDto objects matching the given email fragment;
      *         returns an empty list if no users are found
      */
     @GetMapping("/email")
     public List<UserEmailDto> getUserByEmail(@RequestParam String email) {
-        return userService.getUserByEmail(email)
-                .stream()
-                .map(userMapper::toEmailDto)
-                .toList();
+        return userService.getUserByEmail(email);
     }
 
     /**
-     * Retrieves a list of users who are older than the specified date.
+     * Retrieves a list of users who are older than the specified date, ordered from the oldest one.
+     * The result may be narrowed to an age cohort with the {@code bornAfter} date and capped with the {@code limit}.
      * This method maps the returned user entities to {@code UserDto} objects for response.
      *
-     * @param time the date to compare the users' birth dates against; users older than this date will be included in the result
+     * @param time      the date to compare the users' birth dates against; users older than this date will be included in the result
+     * @param bornAfter optional date the users have to be born after
+     * @param limit     optional maximal number of users to return
      * @return a list of {@code UserDto} objects representing users who are older than the specified date
      */
     @GetMapping("/older/{time}")
-    public List<UserDto> getUserOlderThan(@PathVariable LocalDate time) {
-        return userService.getUserOlderThan(time)
+    public List<UserDto> getUserOlderThan(@PathVariable LocalDate time,
+                                          @RequestParam(required = false) LocalDate bornAfter,
+                                          @RequestParam(required = false) Integer limit) {
+        return userService.getUserOlderThan(time, bornAfter, limit)
                 .stream()
                 .map(userMapper::toDto)
                 .toList();
@@ -186,4 +227,44 @@ class UserController {
                 .body(updatedUser);
     }
 
-}
\ No newline at end of file
+    /**
+     * Partially updates the user identified by the given ID, writing only the fields present in the request
+     * with a single {@code UPDATE} statement. If the {@code If-Match} header carries the version obtained from
+     * the {@code ETag} of a previous read, the update is rejected when the user has been modified in the meantime.
+     *
+     * @param userId  the ID of the user to be updated
+     * @param ifMatch optional version the user is expected to be in
+     * @param userDto the data transfer object containing the fields to be updated; absent fields are left untouched
+     * @return a {@code ResponseEntity} containing the number of updated rows, along with an HTTP status of 200 (OK)
+     * @throws UserNotFoundException        if the user does not exist
+     * @throws UserVersionConflictException if the user is no longer in the expected version
+     */
+    @PatchMapping("/{userId}")
+    public ResponseEntity<UserPatchResultDto> patchUser(@PathVariable Long userId,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @RequestBody UserDto userDto) {
+        Long expectedVersion = parseVersion(ifMatch);
+        int updatedRows = userService.patchUser(userId, userMapper.toPatch(userDto), expectedVersion);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (expectedVersion != null) {
+            response.eTag(String.valueOf(expectedVersion + 1));
+        }
+        return response.body(new UserPatchResultDto(updatedRows));
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+}
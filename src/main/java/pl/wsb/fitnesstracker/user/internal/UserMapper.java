@@ -2,8 +2,7 @@ package pl.wsb.fitnesstracker.user.internal;
 
 import org.springframework.stereotype.Component;
 import pl.wsb.fitnesstracker.user.api.User;
-import pl.wsb.fitnesstracker.user.api.UserEmailDto;
-import pl.wsb.fitnesstracker.user.api.UserSimpleDto;
+import pl.wsb.fitnesstracker.user.api.UserPatch;
 
 /**
  * The UserMapper class is responsible for transforming data between different representations
@@ -11,9 +10,8 @@ import pl.wsb.fitnesstracker.user.api.UserSimpleDto;
  *
  * This class provides methods for mapping:
  * - User entity to UserDto.
- * - User entity to UserSimpleDto with basic user information.
- * - User entity to UserEmailDto with email-related user details.
  * - UserDto back to User entity.
+ * - UserDto to UserPatch with the fields to be partially updated.
  *
  * It ensures the separation of concerns between persistence and API representations
  * while facilitating the data transformation required for various operations.
@@ -35,30 +33,6 @@ class UserMapper {
                 user.getEmail());
     }
 
-    /**
-     * Converts a {@link User} entity into a {@link UserSimpleDto}, which contains
-     * only the basic user information such as ID, first name, and last name.
-     *
-     * @param user the {@link User} entity to be converted. Must not be null.
-     * @return a {@link UserSimpleDto} containing the user's ID, first name, and last name.
-     */
-    UserSimpleDto toSimpleDto(User user) {
-        return new UserSimpleDto(user.getId(),
-                user.getFirstName(),
-                user.getLastName());
-    }
-
-    /**
-     * Maps a User entity to a UserEmailDto, extracting the user's ID and email.
-     *
-     * @param user the user entity containing the ID and email to be mapped
-     * @return a UserEmailDto containing the ID and email of the provided user
-     */
-    UserEmailDto toEmailDto(User user) {
-        return new UserEmailDto(user.getId(),
-                user.getEmail());
-    }
-
     /**
      * Converts a UserDto object into a User entity.
      *
@@ -73,4 +47,18 @@ class UserMapper {
                 userDto.email());
     }
 
+    /**
+     * Converts a UserDto object into a UserPatch, treating its null fields as the ones to be left untouched.
+     *
+     * @param userDto the UserDto object containing the fields to be updated
+     * @return a UserPatch with the non-null fields of the provided UserDto
+     */
+    UserPatch toPatch(UserDto userDto) {
+        return new UserPatch(
+                userDto.firstName(),
+                userDto.lastName(),
+                userDto.birthdate(),
+                userDto.email());
+    }
+
 }
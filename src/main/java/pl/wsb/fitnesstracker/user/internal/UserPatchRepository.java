@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserPatch;
+
+/**
+ * Repository fragment applying partial updates to {@link User} entities without loading them.
+ */
+interface UserPatchRepository {
+
+    /**
+     * Issues a single {@code UPDATE} statement setting only the non-null columns of the patch and incrementing the version.
+     * If the expected version is given, the row is updated only if it is still in that version.
+     * When the email is changed, its search trigrams are rewritten as well.
+     *
+     * @param id              ID of the user to be updated
+     * @param patch           columns to be updated; must not be empty
+     * @param expectedVersion version the user is expected to be in, or {@code null} to update unconditionally
+     * @return number of updated rows: {@code 1} on success, {@code 0} if the user does not exist or its version did not match
+     */
+    int patch(long id, UserPatch patch, @Nullable Long expectedVersion);
+
+}
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import pl.wsb.fitnesstracker.user.api.EmailTrigrams;
+import pl.wsb.fitnesstracker.user.api.UserPatch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the {@link UserPatchRepository} building the {@code UPDATE} statement from the supplied columns only.
+ * The persistence context is flushed before and cleared after the update, as the bulk statement bypasses it.
+ */
+@RequiredArgsConstructor
+class UserPatchRepositoryImpl implements UserPatchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int patch(long id, UserPatch patch, @Nullable Long expectedVersion) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        putIfPresent(columns, "firstName", patch.firstName());
+        putIfPresent(columns, "lastName", patch.lastName());
+        putIfPresent(columns, "birthdate", patch.birthdate());
+        putIfPresent(columns, "email", patch.email());
+
+        StringBuilder jpql = new StringBuilder("update User u set u.version = u.version + 1");
+        columns.keySet().forEach(column -> jpql.append(", u.").append(column).append(" = :").append(column));
+        jpql.append(" where u.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" and u.version = :version");
+        }
+
+        entityManager.flush();
+        Query update = entityManager.createQuery(jpql.toString()).setParameter("id", id);
+        columns.forEach(update::setParameter);
+        if (expectedVersion != null) {
+            update.setParameter("version", expectedVersion);
+        }
+        int updatedRows = update.executeUpdate();
+        if (updatedRows > 0 && patch.email() != null) {
+            replaceEmailTrigrams(id, patch.email());
+        }
+        entityManager.clear();
+        return updatedRows;
+    }
+
+    private void replaceEmailTrigrams(long id, String email) {
+        entityManager.createNativeQuery("delete from user_email_trigrams where user_id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        for (String trigram : EmailTrigrams.of(email)) {
+            entityManager.createNativeQuery("insert into user_email_trigrams (user_id, trigram) values (:id, :trigram)")
+                    .setParameter("id", id)
+                    .setParameter("trigram", trigram)
+                    .executeUpdate();
+        }
+    }
+
+    private static void putIfPresent(Map<String, Object> columns, String column, @Nullable Object value) {
+        if (value != null) {
+            columns.put(column, value);
+        }
+    }
+
+}
@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+/**
+ * Response of a partial user update, carrying the number of rows changed by the single {@code UPDATE} statement.
+ *
+ * @param updatedRows number of updated rows
+ */
+record UserPatchResultDto(int updatedRows) {
+
+}
@@ -1,45 +1,152 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import pl.wsb.fitnesstracker.user.api.EmailTrigrams;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserEmailDto;
+import pl.wsb.fitnesstracker.user.api.UserSimpleDto;
 
 import java.time.LocalDate;
-import java.util.Date;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link User} entities. Extends Spring Data JPA's {@link JpaRepository},
  * providing default methods for CRUD operations and additional custom query methods.
  *
- * This interface defines custom methods for retrieving users based on specific criteria.
+ * This interface defines custom methods for retrieving users based on specific criteria,
+ * and inherits partial updates from the {@link UserPatchRepository} fragment.
  */
-interface UserRepository extends JpaRepository<User, Long> {
+interface UserRepository extends JpaRepository<User, Long>, UserPatchRepository {
 
     /**
-     * Query searching users by email address. It matches by exact match.
+     * Number of rows fetched from the database in a single round trip while streaming users.
+     */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Reads the users following the given ID in the primary key order. Used for keyset pagination.
      *
-     * @param email email of the user to search
-     * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
+     * @param id    ID of the last user of the previous page
+     * @param limit maximal number of users to return
+     * @return a list of users with a greater ID, ordered by ID
      */
-    default List<User> findByEmail(String email) {
+    List<User> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 
-        String lowerInput = email.toLowerCase();
+    /**
+     * Reads the id/name projections of the users following the given ID in the primary key order,
+     * without hydrating {@link User} entities. Used for keyset pagination of the simplified user listing.
+     *
+     * @param id    ID of the last user of the previous page
+     * @param limit maximal number of users to return
+     * @return a list of user projections with a greater ID, ordered by ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.api.UserSimpleDto(u.id, u.firstName, u.lastName)
+            from User u
+            where u.id > :id
+            order by u.id
+            """)
+    List<UserSimpleDto> findSimpleByIdGreaterThan(@Param("id") long id, Limit limit);
 
-        return findAll().stream()
-                .filter(user -> user.getEmail() != null && user.getEmail().toLowerCase().contains(lowerInput))
-                .toList();
+    /**
+     * Streams all users in the primary key order through a read-only JDBC cursor.
+     * Must be consumed within a transaction and closed afterwards.
+     *
+     * @return a stream of all users, ordered by ID
+     */
+    @Query("select u from User u order by u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAll();
+
+    /**
+     * Query searching users by a fragment of their email address. It matches case-insensitively anywhere in the address.
+     * Fragments of at least {@link EmailTrigrams#LENGTH} characters are resolved through the trigram index,
+     * shorter ones fall back to a plain {@code LIKE} comparison.
+     *
+     * @param email fragment of the email of the users to search
+     * @return list of id/email projections of the matching users, ordered by ID
+     */
+    default List<UserEmailDto> findByEmail(String email) {
+        String pattern = "%" + escapeLike(email.toLowerCase(Locale.ROOT)) + "%";
+        Set<String> trigrams = EmailTrigrams.of(email);
+        if (trigrams.isEmpty()) {
+            return findByEmailLike(pattern);
+        }
+        return findByEmailTrigrams(trigrams, trigrams.size(), pattern);
     }
 
     /**
-     * Finds and retrieves a list of users whose birthdate is before the specified date.
+     * Looks up the users owning all the given email trigrams. As trigrams do not preserve their order,
+     * the candidates are verified against the {@code LIKE} pattern of the whole fragment.
      *
-     * @param birthdate the date used as an upper limit filter for user birthdates
-     * @return a list of users whose birthdate is before the specified date
+     * @param trigrams     distinct trigrams of the searched fragment
+     * @param trigramCount number of the given trigrams
+     * @param pattern      lower-case {@code LIKE} pattern of the searched fragment
+     * @return list of id/email projections of the matching users, ordered by ID
      */
-    default List<User> findByBirthdateBefore(LocalDate birthdate) {
-        return findAll().stream().toList();
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.api.UserEmailDto(u.id, u.email)
+            from User u join u.emailTrigrams trigram
+            where trigram in :trigrams and lower(u.email) like :pattern escape '\\'
+            group by u.id, u.email
+            having count(trigram) = :trigramCount
+            order by u.id
+            """)
+    List<UserEmailDto> findByEmailTrigrams(@Param("trigrams") Collection<String> trigrams,
+                                           @Param("trigramCount") long trigramCount,
+                                           @Param("pattern") String pattern);
+
+    /**
+     * Scans users by the {@code LIKE} pattern of their lower-case email. Used only for fragments too short for the trigram index.
+     *
+     * @param pattern lower-case {@code LIKE} pattern of the searched fragment
+     * @return list of id/email projections of the matching users, ordered by ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.api.UserEmailDto(u.id, u.email)
+            from User u
+            where lower(u.email) like :pattern escape '\\'
+            order by u.id
+            """)
+    List<UserEmailDto> findByEmailLike(@Param("pattern") String pattern);
+
+    /**
+     * Finds users whose birthdate is before the specified date, reading the {@code birthdate} index range in ascending order.
+     *
+     * @param birthdate the exclusive upper limit of user birthdates
+     * @param limit     maximal number of users to return
+     * @return a list of users whose birthdate is before the specified date, from the oldest one
+     */
+    List<User> findByBirthdateBeforeOrderByBirthdateAsc(LocalDate birthdate, Limit limit);
+
+    /**
+     * Finds users whose birthdate falls between the given dates (both exclusive),
+     * reading only the matching {@code birthdate} index range in ascending order.
+     *
+     * @param bornAfter  the exclusive lower limit of user birthdates
+     * @param bornBefore the exclusive upper limit of user birthdates
+     * @param limit      maximal number of users to return
+     * @return a list of users born between the given dates, from the oldest one
+     */
+    List<User> findByBirthdateAfterAndBirthdateBeforeOrderByBirthdateAsc(LocalDate bornAfter, LocalDate bornBefore, Limit limit);
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
 }
@@ -1,16 +1,36 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.pagination.api.Cursor;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserChangeListener;
+import pl.wsb.fitnesstracker.user.api.UserEmailDto;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
+import pl.wsb.fitnesstracker.user.api.UserPatch;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.user.api.UserSimpleDto;
+import pl.wsb.fitnesstracker.user.api.UserVersionConflictException;
 import pl.wsb.fitnesstracker.user.api.UserService;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the {@link UserService} and {@link UserProvider} interfaces, providing
@@ -38,6 +58,10 @@ public class UserServiceImpl implements UserService, UserProvider {
      */
     private final UserRepository userRepository;
 
+    private final EntityManager entityManager;
+
+    private final ObjectProvider<UserChangeListener> changeListeners;
+
     /**
      * Creates a new user in the system by persisting the provided user entity to the database.
      * If the user object already contains an ID, an exception is thrown to indicate
@@ -70,6 +94,7 @@ public class UserServiceImpl implements UserService, UserProvider {
      * @throws IllegalArgumentException if the user ID is null
      */
     @Override
+    @CacheEvict(cacheNames = UserCacheConfig.USERS_CACHE, key = "#userId")
     public User updateUser(Long userId, User userToUpdate) {
         if (userId != null) {
             log.info("Updating User with id {}", userId);
@@ -89,57 +114,170 @@ public class UserServiceImpl implements UserService, UserProvider {
     }
 
     /**
-     * Retrieves a user by their unique identifier.
+     * Applies the partial update with a single dynamic {@code UPDATE} statement guarded by the optimistic version.
+     * No row lock is held beyond that statement. If no row was updated, the user is looked up
+     * to tell a missing user from a concurrent modification.
+     *
+     * @param id              the unique identifier of the user to be updated
+     * @param patch           the columns to be updated; at least one must be present
+     * @param expectedVersion the version the user is expected to be in, or {@code null} to update unconditionally
+     * @return the number of updated rows
+     * @throws BusinessException            if the patch is empty
+     * @throws UserNotFoundException        if the user does not exist
+     * @throws UserVersionConflictException if the user is no longer in the expected version
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = UserCacheConfig.USERS_CACHE, key = "#id")
+    public int patchUser(final Long id, final UserPatch patch, @Nullable final Long expectedVersion) {
+        if (patch.isEmpty()) {
+            throw new BusinessException("Nothing to update for User with ID=%s".formatted(id));
+        }
+        log.info("Patching User with id {}", id);
+        int updatedRows = userRepository.patch(id, patch, expectedVersion);
+        if (updatedRows == 0) {
+            if (!userRepository.existsById(id)) {
+                throw new UserNotFoundException(id);
+            }
+            throw new UserVersionConflictException(id, expectedVersion);
+        }
+        return updatedRows;
+    }
+
+    /**
+     * Retrieves a user by their unique identifier. Found users are kept in the bounded {@value UserCacheConfig#USERS_CACHE} cache
+     * until they are updated, deleted or evicted, so repeated lookups do not reach the database.
+     * Cached instances are shared between callers and must be treated as read-only.
      *
      * @param userId the unique identifier of the user to retrieve; must not be null
      * @return an {@code Optional} containing the user if found, or an empty {@code Optional} if no user exists with the given ID
      */
     @Override
+    @Cacheable(cacheNames = UserCacheConfig.USERS_CACHE, key = "#userId", unless = "#result == null")
     public Optional<User> getUser(final Long userId) {
         return userRepository.findById(userId);
     }
 
     /**
-     * Retrieves a list of users that match the given email address.
+     * Retrieves the users with the given identifiers with a single {@code IN} query.
      *
-     * @param email the email address to search for; must not be null
-     * @return a list of {@link User} objects that match the given email address;
+     * @param userIds the unique identifiers of the users to retrieve
+     * @return a list of the found users; identifiers of missing users are skipped
+     */
+    @Override
+    public List<User> getUsers(final Collection<Long> userIds) {
+        return userRepository.findAllById(userIds);
+    }
+
+    /**
+     * Retrieves a list of users whose email address contains the given fragment, ignoring case.
+     * The lookup is resolved through the email trigram index and does not load the {@link User} entities.
+     *
+     * @param email the email fragment to search for; must not be null
+     * @return a list of {@link UserEmailDto} projections of the matching users;
      *         returns an empty list if no users are found
      */
     @Override
-    public List<User> getUserByEmail(final String email) {
+    @Transactional(readOnly = true)
+    public List<UserEmailDto> getUserByEmail(final String email) {
         return userRepository.findByEmail(email);
     }
 
     /**
-     * Retrieves a list of users whose birthdate is earlier than the specified date.
+     * Retrieves a list of users whose birthdate is earlier than the specified date, optionally also later than
+     * the {@code bornAfter} date. The range is resolved by the database on the {@code birthdate} index.
      *
      * @param birthdate the date used as a filter to find users older than the specified date
-     * @return a list of users whose birthdate is before the specified date
+     * @param bornAfter optional date used as a filter to find users younger than the specified date
+     * @param limit     optional maximal number of users to return
+     * @return a list of users whose birthdate is within the given range, ordered by birthdate
+     * @throws BusinessException if the limit is not positive
      */
     @Override
-    public List<User> getUserOlderThan(final LocalDate birthdate){
-        return userRepository.findByBirthdateBefore(birthdate);
+    public List<User> getUserOlderThan(final LocalDate birthdate,
+                                       @Nullable final LocalDate bornAfter,
+                                       @Nullable final Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Limit must be positive, got: " + limit);
+        }
+        Limit queryLimit = limit == null ? Limit.unlimited() : Limit.of(limit);
+        if (bornAfter == null) {
+            return userRepository.findByBirthdateBeforeOrderByBirthdateAsc(birthdate, queryLimit);
+        }
+        return userRepository.findByBirthdateAfterAndBirthdateBeforeOrderByBirthdateAsc(bornAfter, birthdate, queryLimit);
     }
 
     /**
-     * Retrieves all user records from the database.
+     * Retrieves a single page of users from the database, reading the primary key index from the cursor position on.
+     * Every page costs the same regardless of its depth.
      *
-     * @return a list of all users stored in the system; if no users are found, returns an empty list
+     * @param after cursor of the page to be read, or {@code null} for the first page
+     * @param limit maximal number of users on the page
+     * @return a page of users ordered by ID
+     * @throws BusinessException if the cursor is malformed or the limit is out of range
      */
     @Override
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    public KeysetPage<User> findUsers(@Nullable final String after, final int limit) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId(after), fetchLimit(limit));
+        return KeysetPage.of(users, limit, user -> new long[]{user.getId()});
     }
 
     /**
-     * Deletes the user associated with the specified unique identifier from the system's data repository.
+     * Retrieves a single page of simplified users in a read-only transaction. The rows are selected directly into
+     * {@link UserSimpleDto} records, so neither entities nor their dirty-checking snapshots are created.
+     *
+     * @param after cursor of the page to be read, or {@code null} for the first page
+     * @param limit maximal number of users on the page
+     * @return a page of simplified users ordered by ID
+     * @throws BusinessException if the cursor is malformed or the limit is out of range
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSimpleDto> findSimpleUsers(@Nullable final String after, final int limit) {
+        List<UserSimpleDto> users = userRepository.findSimpleByIdGreaterThan(afterId(after), fetchLimit(limit));
+        return KeysetPage.of(users, limit, user -> new long[]{user.id()});
+    }
+
+    /**
+     * Streams all users from the database within a read-only transaction. Users are loaded as read-only entities
+     * and the persistence context is cleared every {@link UserRepository#EXPORT_FETCH_SIZE} rows.
+     *
+     * @param consumer consumer of the users
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(final Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            int consumed = 0;
+            for (Iterator<User> iterator = users.iterator(); iterator.hasNext(); ) {
+                consumer.accept(iterator.next());
+                if (++consumed % UserRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the user associated with the specified unique identifier from the system's data repository
+     * and notifies the {@link UserChangeListener}s within the same transaction.
      *
      * @param id the unique identifier of the user to be deleted; must not be null
      */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = UserCacheConfig.USERS_CACHE, key = "#id")
     public void deleteUserById(final Long id){
         userRepository.deleteById(id);
+        changeListeners.orderedStream().forEach(listener -> listener.onUserDeleted(id));
+    }
+
+    private static long afterId(@Nullable final String after) {
+        return after == null ? Long.MIN_VALUE : Cursor.decode(after, 1)[0];
+    }
+
+    private static Limit fetchLimit(final int limit) {
+        return Limit.of(KeysetPage.checkLimit(limit) + 1);
     }
 
-}
\ No newline at end of file
+}
@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -21,6 +23,12 @@ public abstract class IntegrationTestBase {
     @Autowired
     private JpaRepository<Training, Long> trainingRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @AfterEach
     void cleanUp() {
         cleanDatabase();
@@ -28,8 +36,10 @@ public abstract class IntegrationTestBase {
     }
 
     private void cleanDatabase() {
+        jdbcTemplate.update("delete from email_outbox");
         trainingRepository.deleteAll();
         userRepository.deleteAll();
+        leaderboardService.reloadLeaderboards();
     }
 
     @BeforeEach
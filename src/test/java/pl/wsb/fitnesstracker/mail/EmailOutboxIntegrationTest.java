@@ -0,0 +1,107 @@
+package pl.wsb.fitnesstracker.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "mail.from=reports@fitness-tracker.test",
+        "mail.outbox.poll-interval=50ms",
+        "mail.outbox.rate-per-second=1000",
+        "mail.outbox.initial-backoff=100ms",
+        "mail.outbox.max-backoff=200ms",
+        "notification.monthly-report.chunk-size=2",
+        "notification.digest.window=500ms",
+        "notification.digest.max-notifications=3",
+        "notification.digest.flush-interval=50ms"
+})
+class EmailOutboxIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutbox emailOutbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static EmailDto generateEmail() {
+        return new EmailDto(UUID.randomUUID() + "@domain.com", "Subject " + UUID.randomUUID(), "Content");
+    }
+
+    private String statusOf(EmailDto email) {
+        return jdbcTemplate.queryForObject("select status from email_outbox where to_address = ?", String.class, email.toAddress());
+    }
+
+    @Test
+    void shouldSendEmailOnlyOnce_whenQueuingEmailInCommittedTransaction() throws Exception {
+        EmailDto committed = generateEmail();
+        EmailDto rolledBack = generateEmail();
+        String deduplicationKey = UUID.randomUUID().toString();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        boolean queued = Boolean.TRUE.equals(transaction.execute(status -> emailOutbox.enqueue(committed, deduplicationKey)));
+        boolean queuedAgain = emailOutbox.enqueue(committed, deduplicationKey);
+        transaction.executeWithoutResult(status -> {
+            emailOutbox.enqueue(rolledBack, null);
+            status.setRollbackOnly();
+        });
+
+        assertThat(queued).isTrue();
+        assertThat(queuedAgain).isFalse();
+        await().atMost(Duration.ofSeconds(10)).until(() -> "DELIVERED".equals(statusOf(committed)));
+        MimeMessage[] messages = greenMail.getReceivedMessages();
+        assertThat(messages).hasSize(1);
+        assertThat(GreenMailUtil.getAddressList(messages[0].getAllRecipients())).isEqualTo(committed.toAddress());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from email_outbox where to_address = ?", Integer.class,
+                rolledBack.toAddress())).isZero();
+    }
+
+    @Test
+    void shouldRetryEmail_whenMailServerIsUnavailable() {
+        EmailDto email = generateEmail();
+        greenMail.stop();
+
+        emailOutbox.enqueue(email, null);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> jdbcTemplate.queryForObject(
+                "select attempts from email_outbox where to_address = ?", Integer.class, email.toAddress()) >= 2);
+        assertThat(statusOf(email)).isEqualTo("PENDING");
+        assertThat(jdbcTemplate.queryForObject("select last_error from email_outbox where to_address = ?", String.class,
+                email.toAddress())).isNotBlank();
+
+        greenMail.start();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> "DELIVERED".equals(statusOf(email)));
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+}
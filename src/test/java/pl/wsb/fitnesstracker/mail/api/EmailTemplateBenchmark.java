@@ -0,0 +1,107 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering a monthly report body with a precompiled {@link EmailTemplate}
+ * and with {@link String#formatted(Object...)} of the same text, as the reports were rendered before.
+ * Run with the GC profiler to see the allocation rate per operation ({@code gc.alloc.rate.norm}):
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath pl.wsb.fitnesstracker.mail.api.EmailTemplateBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final EmailTemplate<Activity> ACTIVITY = EmailTemplate.<Activity>builder("activity")
+            .text("name", Activity::name)
+            .number("trainings", Activity::trainings)
+            .decimal("distance", Activity::distance, 2)
+            .number("hours", activity -> activity.durationSeconds() / 3600)
+            .number("minutes", activity -> activity.durationSeconds() % 3600 / 60, 2)
+            .variant(Locale.ENGLISH, "- {{name}}: trainings {{trainings}}, distance {{distance}} km, time {{hours}}h {{minutes}}m\n")
+            .build();
+
+    private static final EmailTemplate<Report> REPORT = EmailTemplate.<Report>builder("report")
+            .text("firstName", Report::firstName)
+            .text("month", Report::month)
+            .section("activities", Report::activities, ACTIVITY)
+            .variant(Locale.ENGLISH, """
+                    Hi {{firstName}},
+
+                    here is the summary of your trainings in {{month}}:
+                    {{activities}}
+                    Keep it up!
+                    """)
+            .build();
+
+    private Report report;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailTemplateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        report = new Report("Emma", "April 2024", List.of(
+                new Activity("RUNNING", 12, 104.25, 40_500),
+                new Activity("CYCLING", 4, 212.5, 30_600),
+                new Activity("WALKING", 9, 38.75, 26_100)));
+    }
+
+    @Benchmark
+    public String formatted() {
+        StringBuilder activities = new StringBuilder();
+        for (Activity activity : report.activities()) {
+            activities.append("- %s: trainings %d, distance %.2f km, time %dh %02dm\n".formatted(activity.name(), activity.trainings(),
+                    activity.distance(), activity.durationSeconds() / 3600, activity.durationSeconds() % 3600 / 60));
+        }
+        return """
+                Hi %s,
+
+                here is the summary of your trainings in %s:
+                %s
+                Keep it up!
+                """.formatted(report.firstName(), report.month(), activities);
+    }
+
+    @Benchmark
+    public String template() {
+        return REPORT.render(report, Locale.ENGLISH);
+    }
+
+    private record Report(String firstName, String month, List<Activity> activities) {
+    }
+
+    private record Activity(String name, long trainings, double distance, long durationSeconds) {
+    }
+
+}
@@ -0,0 +1,100 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateTest {
+
+    private static final Locale POLISH = new Locale("pl");
+
+    private static EmailTemplate<Double> decimalTemplate(int fractionDigits) {
+        return EmailTemplate.<Double>builder("decimal")
+                .decimal("value", value -> value, fractionDigits)
+                .variant(Locale.ENGLISH, "[{{value}}]")
+                .variant(POLISH, "[{{value}}]")
+                .build();
+    }
+
+    @Test
+    void shouldFailBuild_whenTemplateHasNoVariant() {
+        EmailTemplate.Builder<String> builder = EmailTemplate.<String>builder("empty").text("name", value -> value);
+
+        assertThatThrownBy(builder::build)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template empty has no variant");
+    }
+
+    @Test
+    void shouldRejectDeclaration_whenPlaceholderOrVariantIsDuplicated() {
+        EmailTemplate.Builder<String> builder = EmailTemplate.<String>builder("duplicated")
+                .text("name", value -> value)
+                .variant(Locale.ENGLISH, "{{name}}");
+
+        assertThatThrownBy(() -> builder.number("name", String::length))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template duplicated already declares placeholder name");
+        assertThatThrownBy(() -> builder.variant(Locale.ENGLISH, "{{name}}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template duplicated already has a variant of locale en");
+    }
+
+    @Test
+    void shouldRejectDeclaration_whenNumberOfDigitsIsOutOfRange() {
+        EmailTemplate.Builder<Double> builder = EmailTemplate.builder("digits");
+
+        assertThatThrownBy(() -> builder.number("value", Double::longValue, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template digits: number of digits must be between 1 and 9, got: 0");
+        assertThatThrownBy(() -> builder.decimal("value", value -> value, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template digits: number of digits must be between 0 and 9, got: 10");
+    }
+
+    @Test
+    void shouldUseDecimalComma_whenRenderingPolishVariant() {
+        assertThat(decimalTemplate(2).render(15.5, POLISH)).isEqualTo("[15,50]");
+        assertThat(decimalTemplate(1).render(-0.25, new Locale("pl", "PL"))).isEqualTo("[-0,3]");
+    }
+
+    @Test
+    void shouldFallBackToLanguageThenFirstVariant_whenLocaleHasNoVariant() {
+        EmailTemplate<String> template = EmailTemplate.<String>builder("greeting")
+                .text("name", value -> value)
+                .variant(Locale.ENGLISH, "Hi {{name}}")
+                .variant(POLISH, "Cześć {{name}}")
+                .variant(Locale.CANADA_FRENCH, "Salut {{name}}")
+                .build();
+
+        assertThat(template.render("Ala", Locale.ENGLISH)).isEqualTo("Hi Ala");
+        assertThat(template.render("Ala", Locale.CANADA_FRENCH)).isEqualTo("Salut Ala");
+        assertThat(template.render("Ala", new Locale("pl", "PL"))).isEqualTo("Cześć Ala");
+        assertThat(template.render("Ala", Locale.UK)).isEqualTo("Hi Ala");
+        assertThat(template.render("Ala", Locale.FRENCH)).isEqualTo("Hi Ala");
+        assertThat(template.render("Ala", Locale.GERMANY)).isEqualTo("Hi Ala");
+    }
+
+    @Test
+    void shouldRenderFragmentInLocaleOfEnclosingVariant_whenRenderingSection() {
+        EmailTemplate<Double> item = EmailTemplate.<Double>builder("item")
+                .decimal("value", value -> value, 1)
+                .variant(Locale.ENGLISH, "- {{value}}\n")
+                .variant(POLISH, "* {{value}}\n")
+                .build();
+        EmailTemplate<List<Double>> list = EmailTemplate.<List<Double>>builder("list")
+                .section("items", values -> values, item)
+                .number("count", List::size)
+                .variant(Locale.ENGLISH, "{{items}}{{count}} items")
+                .variant(POLISH, "{{items}}{{count}} pozycje")
+                .build();
+
+        assertThat(list.render(List.of(1.5, 2.25), Locale.ENGLISH)).isEqualTo("- 1.5\n- 2.3\n2 items");
+        assertThat(list.render(List.of(1.5, 2.25), new Locale("pl", "PL"))).isEqualTo("* 1,5\n* 2,3\n2 pozycje");
+        assertThat(list.render(List.of(), Locale.ENGLISH)).isEqualTo("0 items");
+    }
+
+}
@@ -0,0 +1,54 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateParserTest {
+
+    private static final Map<String, TemplateSegment<String>> PLACEHOLDERS = Map.of("name", TemplateSegments.text(value -> value));
+
+    private static String render(TemplateSegment<String>[] segments, String model) {
+        StringBuilder out = new StringBuilder();
+        new TemplateVariant<>(Locale.ENGLISH, '.', segments).appendTo(out, model);
+        return out.toString();
+    }
+
+    @Test
+    void shouldSplitSourceIntoLiteralsAndPlaceholders_whenParsing() {
+        TemplateSegment<String>[] segments = TemplateParser.parse("greeting", Locale.ENGLISH, "Hi {{ name }}, bye {{name}}!", PLACEHOLDERS);
+
+        assertThat(segments).hasSize(5);
+        assertThat(segments[1]).isSameAs(PLACEHOLDERS.get("name"));
+        assertThat(segments[3]).isSameAs(PLACEHOLDERS.get("name"));
+        assertThat(render(segments, "Ala")).isEqualTo("Hi Ala, bye Ala!");
+    }
+
+    @Test
+    void shouldNotAddEmptyLiterals_whenPlaceholdersAreAdjacentOrAtTheEnds() {
+        TemplateSegment<String>[] segments = TemplateParser.parse("adjacent", Locale.ENGLISH, "{{name}}{{name}}", PLACEHOLDERS);
+
+        assertThat(segments).hasSize(2);
+        assertThat(render(segments, "ab")).isEqualTo("abab");
+        assertThat(TemplateParser.parse("empty", Locale.ENGLISH, "", PLACEHOLDERS)).isEmpty();
+    }
+
+    @Test
+    void shouldFailParse_whenPlaceholderIsUnclosed() {
+        assertThatThrownBy(() -> TemplateParser.parse("unclosed", Locale.ENGLISH, "Hi {{name}}, {{name", PLACEHOLDERS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unclosed placeholder at 13 in template unclosed (en)");
+    }
+
+    @Test
+    void shouldFailParse_whenPlaceholderIsUnknown() {
+        assertThatThrownBy(() -> TemplateParser.parse("unknown", new Locale("pl"), "Cześć {{imie}}", PLACEHOLDERS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown placeholder imie in template unknown (pl)");
+    }
+
+}
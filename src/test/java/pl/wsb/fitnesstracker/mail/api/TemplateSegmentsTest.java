@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateSegmentsTest {
+
+    private static String padded(long value, int minDigits) {
+        StringBuilder out = new StringBuilder();
+        TemplateSegments.appendPadded(out, value, minDigits);
+        return out.toString();
+    }
+
+    private static String decimal(double value, int fractionDigits, char decimalSeparator) {
+        StringBuilder out = new StringBuilder();
+        TemplateSegments.appendDecimal(out, value, fractionDigits, decimalSeparator);
+        return out.toString();
+    }
+
+    @Test
+    void shouldPadNumberWithLeadingZeros_whenItHasFewerDigits() {
+        assertThat(padded(0, 1)).isEqualTo("0");
+        assertThat(padded(5, 2)).isEqualTo("05");
+        assertThat(padded(59, 2)).isEqualTo("59");
+        assertThat(padded(123, 2)).isEqualTo("123");
+        assertThat(padded(-7, 4)).isEqualTo("-0007");
+        assertThat(padded(1, 9)).isEqualTo("000000001");
+    }
+
+    @Test
+    void shouldRoundDecimalHalfUp_whenAppendingFractionDigits() {
+        assertThat(decimal(15.5, 2, '.')).isEqualTo("15.50");
+        assertThat(decimal(1.125, 2, '.')).isEqualTo("1.13");
+        assertThat(decimal(0.05, 2, '.')).isEqualTo("0.05");
+        assertThat(decimal(9.999, 2, '.')).isEqualTo("10.00");
+        assertThat(decimal(-1.125, 2, '.')).isEqualTo("-1.13");
+        assertThat(decimal(-0.004, 2, '.')).isEqualTo("0.00");
+        assertThat(decimal(2.5, 0, '.')).isEqualTo("3");
+        assertThat(decimal(Double.NaN, 2, '.')).isEqualTo("NaN");
+    }
+
+    @Test
+    void shouldUseSeparatorOfVariant_whenRenderingDecimalSegment() {
+        TemplateSegment<Double> segment = TemplateSegments.decimal(value -> value, 2);
+        StringBuilder out = new StringBuilder();
+
+        segment.appendTo(out, 15.5, new TemplateVariant<>(new Locale("pl"), ',', null));
+
+        assertThat(out).hasToString("15,50");
+    }
+
+}
@@ -0,0 +1,111 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.FitnessTracker;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailOutbox;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sustained throughput of the email outbox, in messages per second: every invocation queues a batch
+ * of emails in a single transaction and waits until a local GreenMail SMTP server received all of them.
+ * The rate limit is set high enough not to be reached.
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath pl.wsb.fitnesstracker.mail.internal.EmailOutboxBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmailOutboxBenchmark {
+
+    private static final int EMAILS = 500;
+
+    @Param({"1", "4", "8"})
+    private int senderThreads;
+
+    private GreenMail greenMail;
+
+    private ConfigurableApplicationContext context;
+
+    private EmailOutbox emailOutbox;
+
+    private TransactionTemplate transaction;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailOutboxBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        context = new SpringApplicationBuilder(FitnessTracker.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN",
+                        "spring.mail.host=localhost",
+                        "spring.mail.port=" + ServerSetupTest.SMTP.getPort(),
+                        "mail.from=reports@fitness-tracker.test",
+                        "mail.outbox.sender-threads=" + senderThreads,
+                        "mail.outbox.rate-per-second=1000000",
+                        "mail.outbox.poll-interval=10ms")
+                .run();
+        emailOutbox = context.getBean(EmailOutbox.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        greenMail.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void purgeMailboxes() throws FolderException {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMAILS)
+    public boolean sendEmails() {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < EMAILS; i++) {
+                emailOutbox.enqueue(new EmailDto("user%d@domain.com".formatted(i), "Subject " + i, "Content " + i), null);
+            }
+        });
+        return greenMail.waitForIncomingEmail(60_000, EMAILS);
+    }
+
+}
@@ -0,0 +1,58 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledSmtpEmailSenderTest {
+
+    private GreenMail greenMail;
+
+    private PooledSmtpEmailSender emailSender;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        MailProperties.Pool pool = new MailProperties.Pool(true, 1, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofSeconds(5));
+        emailSender = new PooledSmtpEmailSender(new SmtpTransportPool(javaMailSender, pool),
+                new MailProperties("reports@fitness-tracker.test", pool));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailSender.close();
+        greenMail.stop();
+    }
+
+    @Test
+    void shouldSendOverNewConnection_whenReusedConnectionWasClosedByRestartedServer() throws Exception {
+        emailSender.send(new EmailDto("emma.johnson@domain.com", "First", "Sent before the restart"));
+        assertThat(greenMail.waitForIncomingEmail(5_000, 1)).isTrue();
+
+        greenMail.stop();
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        emailSender.send(new EmailDto("ethan.taylor@domain.com", "Second", "Sent after the restart"));
+
+        assertThat(greenMail.waitForIncomingEmail(5_000, 1)).isTrue();
+        MimeMessage[] messages = greenMail.getReceivedMessages();
+        assertThat(messages).hasSize(1);
+        assertThat(messages[0].getSubject()).isEqualTo("Second");
+        assertThat(GreenMailUtil.getBody(messages[0])).isEqualTo("Sent after the restart");
+    }
+
+}
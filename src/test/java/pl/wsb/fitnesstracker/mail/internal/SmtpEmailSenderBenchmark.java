@@ -0,0 +1,95 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sending emails to a local GreenMail SMTP server with a new connection per email (as the
+ * {@link JavaMailEmailSender} does) and through the pooled connections of the {@link PooledSmtpEmailSender},
+ * from four threads. Scores are emails per second.
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath pl.wsb.fitnesstracker.mail.internal.SmtpEmailSenderBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SmtpEmailSenderBenchmark {
+
+    private static final EmailDto EMAIL = new EmailDto("user@domain.com", "Your training summary", "Hi Emma,\n\nKeep it up!\n");
+
+    private GreenMail greenMail;
+
+    private JavaMailEmailSender connectionPerEmail;
+
+    private PooledSmtpEmailSender pooled;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SmtpEmailSenderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        MailProperties.Pool pool = new MailProperties.Pool(true, 4, 100, Duration.ofSeconds(30), Duration.ofSeconds(5), Duration.ofSeconds(30));
+        MailProperties properties = new MailProperties("reports@fitness-tracker.test", pool);
+        connectionPerEmail = new JavaMailEmailSender(mailSender, properties);
+        pooled = new PooledSmtpEmailSender(new SmtpTransportPool(mailSender, pool), properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pooled.close();
+        greenMail.stop();
+    }
+
+    @TearDown(Level.Iteration)
+    public void purgeMailboxes() throws FolderException {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Benchmark
+    public void connectionPerEmail() {
+        connectionPerEmail.send(EMAIL);
+    }
+
+    @Benchmark
+    public void pooledConnections() {
+        pooled.send(EMAIL);
+    }
+
+}
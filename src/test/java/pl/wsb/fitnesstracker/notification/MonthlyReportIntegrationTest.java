@@ -0,0 +1,109 @@
+package pl.wsb.fitnesstracker.notification;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.config.CronTask;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.notification.api.MonthlyReportResultDto;
+import pl.wsb.fitnesstracker.notification.api.MonthlyReportService;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import javax.mail.internet.MimeMessage;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "mail.from=reports@fitness-tracker.test",
+        "mail.outbox.poll-interval=50ms",
+        "mail.outbox.rate-per-second=1000",
+        "mail.outbox.initial-backoff=100ms",
+        "mail.outbox.max-backoff=200ms",
+        "notification.monthly-report.chunk-size=2",
+        "notification.digest.window=500ms",
+        "notification.digest.max-notifications=3",
+        "notification.digest.flush-interval=50ms"
+})
+class MonthlyReportIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MonthlyReportService monthlyReportService;
+
+    @Autowired
+    private ScheduledTaskHolder scheduledTaskHolder;
+
+    private static Training generateTraining(User user, String startTime, String endTime, ActivityType activityType, double distance) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return new Training(user, sdf.parse(startTime), sdf.parse(endTime), activityType, distance, 0);
+    }
+
+    @Test
+    void shouldScheduleReportsWithConfiguredCron_whenMailIsConfigured() {
+        assertThat(scheduledTaskHolder.getScheduledTasks())
+                .extracting(ScheduledTask::getTask)
+                .filteredOn(CronTask.class::isInstance)
+                .extracting(task -> ((CronTask) task).getExpression())
+                .containsExactly("0 0 6 1 * *");
+    }
+
+    @Test
+    void shouldEmailEveryUserSummaryOfTheirMonthOnce_whenSendingMonthlyReports() throws Exception {
+
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1990, 1, 1), "emma.johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Taylor", LocalDate.of(1990, 1, 1), "ethan.taylor@domain.com"));
+        User user3 = existingUser(new User("Olivia", "Davis", LocalDate.of(1990, 1, 1), "olivia.davis@domain.com"));
+        persistTraining(generateTraining(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10));
+        persistTraining(generateTraining(user1, "2024-04-15 10:00:00", "2024-04-15 10:30:00", ActivityType.RUNNING, 5.5));
+        persistTraining(generateTraining(user1, "2024-04-20 10:00:00", "2024-04-20 12:00:00", ActivityType.CYCLING, 40));
+        persistTraining(generateTraining(user1, "2024-05-01 10:00:00", "2024-05-01 11:00:00", ActivityType.RUNNING, 10));
+        persistTraining(generateTraining(user3, "2024-03-31 10:00:00", "2024-03-31 11:00:00", ActivityType.WALKING, 4));
+
+        MonthlyReportResultDto result = monthlyReportService.sendMonthlyReports(YearMonth.of(2024, 4));
+        MonthlyReportResultDto repeatedResult = monthlyReportService.sendMonthlyReports(YearMonth.of(2024, 4));
+
+        assertThat(result).isEqualTo(new MonthlyReportResultDto(YearMonth.of(2024, 4), 3, 3));
+        assertThat(repeatedResult).isEqualTo(new MonthlyReportResultDto(YearMonth.of(2024, 4), 3, 0));
+        assertThat(greenMail.waitForIncomingEmail(10_000, 3)).isTrue();
+        Map<String, MimeMessage> messages = new HashMap<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            messages.put(GreenMailUtil.getAddressList(message.getAllRecipients()), message);
+        }
+        assertThat(messages).containsOnlyKeys(user1.getEmail(), user2.getEmail(), user3.getEmail());
+
+        MimeMessage report1 = messages.get(user1.getEmail());
+        assertThat(report1.getSubject()).isEqualTo("Your training summary for April 2024");
+        assertThat(GreenMailUtil.getAddressList(report1.getFrom())).isEqualTo("reports@fitness-tracker.test");
+        assertThat(GreenMailUtil.getBody(report1))
+                .contains("Hi Emma,")
+                .contains("- RUNNING: trainings 2, distance 15.50 km, time 1h 30m")
+                .contains("- CYCLING: trainings 1, distance 40.00 km, time 2h 00m")
+                .contains("Total: trainings 3, distance 55.50 km, time 3h 30m");
+        assertThat(GreenMailUtil.getBody(messages.get(user3.getEmail())))
+                .contains("you did not record any trainings in April 2024.");
+    }
+
+}
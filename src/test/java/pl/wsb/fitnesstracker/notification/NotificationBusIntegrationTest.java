@@ -0,0 +1,139 @@
+package pl.wsb.fitnesstracker.notification;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.notification.api.NotificationEvent;
+import pl.wsb.fitnesstracker.notification.api.NotificationHandler;
+import pl.wsb.fitnesstracker.notification.api.NotificationPublisher;
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationBusIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NotificationPublisher notificationPublisher;
+
+    @Autowired
+    private RecordingHandler recordingHandler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldNotifyHandler_whenCreatingTraining() throws Exception {
+        User user = existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.now(), randomUUID().toString()));
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                            "userId": "%s",
+                            "startTime": "2024-04-01T10:00:00",
+                            "endTime": "2024-04-01T11:00:00",
+                            "activityType": "RUNNING",
+                            "distance": 10.0,
+                            "averageSpeed": 10.0
+                        }
+                        """.formatted(user.getId())))
+                .andExpect(status().isCreated());
+
+        Training training = getAllTrainings().get(0);
+        await().atMost(Duration.ofSeconds(5)).until(() -> recordingHandler.received(user.getId()).size() == 1);
+        Received received = recordingHandler.received(user.getId()).get(0);
+        assertThat(received.type()).isEqualTo(NotificationType.TRAINING_RECORDED);
+        assertThat(received.referenceId()).isEqualTo(training.getId());
+    }
+
+    @Test
+    void shouldDeliverAllNotificationsInOrder_whenPublishingConcurrently() throws Exception {
+        long userId = -1;
+        int publishers = 4;
+        int perPublisher = 1000;
+        double handledBefore = meterRegistry.get("notification.bus.handled").tag("handler", "RecordingHandler").counter().count();
+        ExecutorService executor = Executors.newFixedThreadPool(publishers);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int publisher = 0; publisher < publishers; publisher++) {
+            long firstReference = (long) publisher * perPublisher;
+            results.add(executor.submit(() -> {
+                boolean allPublished = true;
+                for (long reference = firstReference; reference < firstReference + perPublisher; reference++) {
+                    allPublished &= notificationPublisher.publish(NotificationType.TRAINING_RECORDED, userId, reference);
+                }
+                return allPublished;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+        executor.shutdown();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> recordingHandler.received(userId).size() == publishers * perPublisher);
+        List<Received> received = recordingHandler.received(userId);
+        assertThat(received).extracting(Received::sequence).isSorted().doesNotHaveDuplicates();
+        assertThat(received).extracting(Received::referenceId).doesNotHaveDuplicates();
+        assertThat(received.get(received.size() - 1).endOfBatch()).isTrue();
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.get("notification.bus.lag").tag("handler", "RecordingHandler").gauge().value() == 0);
+        assertThat(meterRegistry.get("notification.bus.handled").tag("handler", "RecordingHandler").counter().count())
+                .isGreaterThanOrEqualTo(handledBefore + publishers * perPublisher);
+    }
+
+    record Received(long sequence, NotificationType type, long userId, long referenceId, boolean endOfBatch) {
+    }
+
+    static class RecordingHandler implements NotificationHandler {
+
+        private final Queue<Received> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void onNotification(NotificationEvent event, boolean endOfBatch) {
+            received.add(new Received(event.getSequence(), event.getType(), event.getUserId(), event.getReferenceId(), endOfBatch));
+        }
+
+        List<Received> received(long userId) {
+            return received.stream().filter(notification -> notification.userId() == userId).toList();
+        }
+
+    }
+
+    @TestConfiguration
+    static class RecordingHandlerConfig {
+
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package pl.wsb.fitnesstracker.notification;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "mail.from=reports@fitness-tracker.test",
+        "mail.outbox.poll-interval=50ms",
+        "mail.outbox.rate-per-second=1000",
+        "mail.outbox.initial-backoff=100ms",
+        "mail.outbox.max-backoff=200ms",
+        "notification.monthly-report.chunk-size=2",
+        "notification.digest.window=500ms",
+        "notification.digest.max-notifications=3",
+        "notification.digest.flush-interval=50ms"
+})
+class NotificationDigestIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static String trainingRequest(User user, int day) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-%02dT10:00:00",
+                    "endTime": "2024-04-%02dT11:00:00",
+                    "activityType": "%s",
+                    "distance": 10.0,
+                    "averageSpeed": 10.0
+                }
+                """.formatted(user.getId(), day, day, ActivityType.RUNNING);
+    }
+
+    @Test
+    void shouldCoalesceNotificationsOfUserIntoDigests_whenRecordingManyTrainings() throws Exception {
+
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1990, 1, 1), "emma.johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Taylor", LocalDate.of(1990, 1, 1), "ethan.taylor@domain.com"));
+        String requestBody = IntStream.rangeClosed(1, 5)
+                .mapToObj(day -> trainingRequest(user1, day))
+                .collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingRequest(user2, 1)))
+                .andExpect(status().isCreated());
+
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                greenMail.getReceivedMessagesForDomain(user1.getEmail()).length == 2
+                        && greenMail.getReceivedMessagesForDomain(user2.getEmail()).length == 1);
+        List<String> user1Contents = new ArrayList<>();
+        for (MimeMessage message : greenMail.getReceivedMessagesForDomain(user1.getEmail())) {
+            assertThat(message.getSubject()).startsWith("Your training activity since ");
+            user1Contents.add(GreenMailUtil.getBody(message));
+        }
+        List<String> user2Contents = new ArrayList<>();
+        for (MimeMessage message : greenMail.getReceivedMessagesForDomain(user2.getEmail())) {
+            user2Contents.add(GreenMailUtil.getBody(message));
+        }
+        assertThat(user1Contents).hasSize(2);
+        assertThat(user1Contents).anySatisfy(content -> assertThat(content).contains("Hi Emma,").contains("- trainings recorded: 3"));
+        assertThat(user1Contents).anySatisfy(content -> assertThat(content).contains("- trainings recorded: 2"));
+        assertThat(user2Contents).singleElement().satisfies(content -> assertThat(content)
+                .contains("Hi Ethan,")
+                .contains("- trainings recorded: 1"));
+        assertThat(jdbcTemplate.queryForList("select deduplication_key from email_outbox where to_address = ?", String.class,
+                user1.getEmail()))
+                .hasSize(2)
+                .allSatisfy(key -> assertThat(key).startsWith("notification-digest:%d:".formatted(user1.getId())));
+    }
+
+}
@@ -0,0 +1,83 @@
+package pl.wsb.fitnesstracker.notification;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "mail.from=reports@fitness-tracker.test",
+        "mail.outbox.poll-interval=50ms",
+        "mail.outbox.rate-per-second=1000",
+        "notification.digest.window=1h",
+        "notification.digest.max-buffered-users=1",
+        "notification.digest.flush-interval=50ms"
+})
+class NotificationDigestOverflowIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static String trainingRequest(User user) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.0,
+                    "averageSpeed": 10.0
+                }
+                """.formatted(user.getId());
+    }
+
+    @Test
+    void shouldQueueNotificationInOutboxRightAway_whenTooManyUsersAreBuffered() throws Exception {
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1990, 1, 1), "emma.johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Taylor", LocalDate.of(1990, 1, 1), "ethan.taylor@domain.com"));
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingRequest(user1)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingRequest(user2)))
+                .andExpect(status().isCreated());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> greenMail.getReceivedMessagesForDomain(user2.getEmail()).length == 1);
+        assertThat(GreenMailUtil.getBody(greenMail.getReceivedMessagesForDomain(user2.getEmail())[0]))
+                .contains("Hi Ethan,")
+                .contains("- trainings recorded: 1");
+        assertThat(jdbcTemplate.queryForObject("select deduplication_key from email_outbox where to_address = ?", String.class,
+                user2.getEmail()))
+                .startsWith("notification-digest:%d:".formatted(user2.getId()));
+        assertThat(greenMail.getReceivedMessagesForDomain(user1.getEmail())).isEmpty();
+    }
+
+}
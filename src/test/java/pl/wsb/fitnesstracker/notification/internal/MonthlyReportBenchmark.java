@@ -0,0 +1,143 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.FitnessTracker;
+import pl.wsb.fitnesstracker.notification.api.MonthlyReportResultDto;
+import pl.wsb.fitnesstracker.notification.api.MonthlyReportService;
+import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the monthly reports, in emails per second, from queuing them in the outbox until
+ * a local GreenMail SMTP server has received all of them, with different numbers of outbox sender threads.
+ * The outbox is emptied before every invocation, so every run queues and delivers the reports of all users.
+ * The rate limit is set high enough not to be reached.
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath pl.wsb.fitnesstracker.notification.internal.MonthlyReportBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonthlyReportBenchmark {
+
+    private static final int USERS = 2000;
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 4);
+
+    @Param({"1", "4", "8"})
+    private int senderThreads;
+
+    private GreenMail greenMail;
+
+    private ConfigurableApplicationContext context;
+
+    private MonthlyReportService monthlyReportService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MonthlyReportBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        context = new SpringApplicationBuilder(FitnessTracker.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN",
+                        "spring.mail.host=localhost",
+                        "spring.mail.port=" + ServerSetupTest.SMTP.getPort(),
+                        "mail.from=reports@fitness-tracker.test",
+                        "mail.outbox.sender-threads=" + senderThreads,
+                        "mail.outbox.rate-per-second=1000000",
+                        "mail.outbox.poll-interval=10ms")
+                .run();
+        monthlyReportService = context.getBean(MonthlyReportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        UserService userService = context.getBean(UserService.class);
+        TrainingProvider trainingProvider = context.getBean(TrainingProvider.class);
+        ActivityType[] activityTypes = ActivityType.values();
+        List<SimpleTrainingDto> trainings = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = userService.createUser(new User("First" + i, "Last" + i, LocalDate.of(1990, 1, 1), "user%d@domain.com".formatted(i)));
+            for (int day = 1; day <= 3; day++) {
+                LocalDateTime start = MONTH.atDay(day * 7).atTime(10, 0);
+                trainings.add(new SimpleTrainingDto(user.getId(), toDate(start), toDate(start.plusHours(1)),
+                        activityTypes[(i + day) % activityTypes.length], 10, 10));
+            }
+            if (trainings.size() >= 999) {
+                trainingProvider.createTrainings(trainings);
+                trainings.clear();
+            }
+        }
+        trainingProvider.createTrainings(trainings);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        greenMail.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void purgeOutbox() throws FolderException {
+        jdbcTemplate.update("delete from email_outbox");
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public boolean sendMonthlyReports() {
+        MonthlyReportResultDto result = monthlyReportService.sendMonthlyReports(MONTH);
+        return result.queued() == USERS && greenMail.waitForIncomingEmail(120_000, USERS);
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+}
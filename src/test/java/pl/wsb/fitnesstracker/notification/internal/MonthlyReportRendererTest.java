@@ -0,0 +1,88 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthlyReportRendererTest {
+
+    private static final User USER = new User("Jan", "Kowalski", LocalDate.of(1990, 1, 1), "jan@domain.com");
+
+    private static final List<TrainingSummaryDto> SUMMARIES = List.of(
+            new TrainingSummaryDto(1L, ActivityType.RUNNING, 2, 15.5, 5_400),
+            new TrainingSummaryDto(1L, ActivityType.CYCLING, 1, 40.125, 3_605));
+
+    @Test
+    void shouldRenderEnglishReport_whenLocaleHasNoVariant() {
+        MonthlyReportRenderer renderer = new MonthlyReportRenderer(Locale.GERMANY);
+        MonthlyReportRenderer englishRenderer = new MonthlyReportRenderer(Locale.ENGLISH);
+        String monthName = englishRenderer.monthName(YearMonth.of(2024, 4));
+
+        EmailDto email = renderer.render(USER, monthName, SUMMARIES);
+
+        assertThat(monthName).isEqualTo("April 2024");
+        assertThat(email.toAddress()).isEqualTo("jan@domain.com");
+        assertThat(email.subject()).isEqualTo("Your training summary for April 2024");
+        assertThat(email.content()).isEqualTo("""
+                Hi Jan,
+
+                here is the summary of your trainings in April 2024:
+                - RUNNING: trainings 2, distance 15.50 km, time 1h 30m
+                - CYCLING: trainings 1, distance 40.13 km, time 1h 00m
+
+                Total: trainings 3, distance 55.63 km, time 2h 30m
+
+                Keep it up!
+                """);
+        assertThat(englishRenderer.render(USER, monthName, SUMMARIES)).isEqualTo(email);
+    }
+
+    @Test
+    void shouldRenderPolishReport_withPolishMonthNameAndDecimalComma() {
+        MonthlyReportRenderer renderer = new MonthlyReportRenderer(new Locale("pl", "PL"));
+        String monthName = renderer.monthName(YearMonth.of(2024, 4));
+
+        EmailDto email = renderer.render(USER, monthName, SUMMARIES);
+
+        assertThat(monthName).isEqualTo("kwiecień 2024");
+        assertThat(email.subject()).isEqualTo("Podsumowanie treningów za kwiecień 2024");
+        assertThat(email.content()).isEqualTo("""
+                Cześć Jan,
+
+                oto podsumowanie Twoich treningów za kwiecień 2024:
+                - RUNNING: treningi 2, dystans 15,50 km, czas 1h 30m
+                - CYCLING: treningi 1, dystans 40,13 km, czas 1h 00m
+
+                Razem: treningi 3, dystans 55,63 km, czas 2h 30m
+
+                Tak trzymaj!
+                """);
+    }
+
+    @Test
+    void shouldRenderEmptyReport_whenUserHasNoTrainings() {
+        MonthlyReportRenderer renderer = new MonthlyReportRenderer(new Locale("pl"));
+        String monthName = renderer.monthName(YearMonth.of(2024, 12));
+
+        EmailDto email = renderer.render(USER, monthName, List.of());
+
+        assertThat(monthName).isEqualTo("grudzień 2024");
+        assertThat(email.content()).isEqualTo("""
+                Cześć Jan,
+
+                brak zarejestrowanych treningów za grudzień 2024.
+
+                Tak trzymaj!
+                """);
+    }
+
+}
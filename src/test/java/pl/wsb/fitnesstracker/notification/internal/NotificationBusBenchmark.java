@@ -0,0 +1,111 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.wsb.fitnesstracker.notification.api.NotificationHandler;
+import pl.wsb.fitnesstracker.notification.api.NotificationType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares publishing a notification from four threads into the {@link NotificationBus} with putting an event object
+ * into an {@link ArrayBlockingQueue} of the same capacity drained by a consumer thread. Neither makes the publisher wait:
+ * a notification is dropped when the consumer falls behind by the whole buffer, so this measures the cost paid
+ * by the publishing thread, such as a request storing a training.
+ * Run with the GC profiler to see the allocation rate per operation ({@code gc.alloc.rate.norm}):
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath pl.wsb.fitnesstracker.notification.internal.NotificationBusBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class NotificationBusBenchmark {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private NotificationBus bus;
+
+    private BlockingQueue<Notification> queue;
+
+    private Thread queueConsumer;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotificationBusBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        NotificationHandler handler = (event, endOfBatch) -> Blackhole.consumeCPU(1);
+        bus = new NotificationBus(List.of(handler),
+                new NotificationBusProperties(BUFFER_SIZE, 256, WaitStrategy.SLEEPING, OverflowPolicy.DROP, Duration.ofSeconds(10)),
+                new SimpleMeterRegistry());
+        bus.start();
+        queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        queueConsumer = new Thread(() -> {
+            List<Notification> batch = new ArrayList<>(256);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, 255);
+                    batch.forEach(notification -> Blackhole.consumeCPU(1));
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        queueConsumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bus.stop();
+        queueConsumer.interrupt();
+    }
+
+    @Benchmark
+    public boolean ringBuffer() {
+        return bus.publish(NotificationType.TRAINING_RECORDED, 1, 2);
+    }
+
+    @Benchmark
+    public boolean blockingQueue() {
+        return queue.offer(new Notification(NotificationType.TRAINING_RECORDED, 1, 2, System.currentTimeMillis()));
+    }
+
+    private record Notification(NotificationType type, long userId, long referenceId, long publishedAtMillis) {
+    }
+
+}
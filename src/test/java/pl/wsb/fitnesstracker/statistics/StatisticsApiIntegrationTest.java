@@ -0,0 +1,426 @@
+package pl.wsb.fitnesstracker.statistics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class StatisticsApiIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Autowired
+    private TrainingProvider trainingProvider;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static Training generateTraining(User user, String startTime, String endTime, ActivityType activityType, double distance) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return new Training(user, sdf.parse(startTime), sdf.parse(endTime), activityType, distance, 0);
+    }
+
+    private static String trainingRequest(User user, String startTime, String endTime, ActivityType activityType, double distance) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "%s",
+                    "endTime": "%s",
+                    "activityType": "%s",
+                    "distance": %s,
+                    "averageSpeed": 0.0
+                }
+                """.formatted(user.getId(), startTime, endTime, activityType, distance);
+    }
+
+    @Test
+    void shouldApplyTrainingToUserStatistics_whenCreatingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingRequest(user1, "2024-04-01T10:00:00", "2024-04-01T11:00:00", ActivityType.RUNNING, 10)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingRequest(user1, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(user1.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(13.0))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(686 + 151));
+    }
+
+    @Test
+    void shouldRevertTrainingFromUserStatistics_whenDeletingTraining() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingRequest(user1, "2024-04-01T10:00:00", "2024-04-01T11:00:00", ActivityType.RUNNING, 10)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingRequest(user1, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3)))
+                .andExpect(status().isCreated());
+
+        Training running = getAllTrainings().stream()
+                .filter(training -> training.getActivityType() == ActivityType.RUNNING)
+                .findFirst().orElseThrow();
+        mockMvc.perform(delete("/v1/trainings/{trainingId}", running.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(1))
+                .andExpect(jsonPath("$.totalDistance").value(3.0))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(151));
+    }
+
+    @Test
+    void shouldDetachOnlyUserStatistics_whenApplyingDeltaWithinCallerTransaction() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        trainingProvider.createTraining(generateTraining(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10));
+        Statistics statistics = statisticsProvider.getUserStatistics(user1.getId()).orElseThrow();
+        assertThat(statistics.getTotalTrainings()).isEqualTo(1);
+
+        trainingProvider.createTraining(generateTraining(user1, "2024-04-02 10:00:00", "2024-04-02 10:30:00", ActivityType.WALKING, 3));
+
+        assertThat(entityManager.contains(user1)).isTrue();
+        assertThat(entityManager.contains(statistics)).isFalse();
+        assertThat(statisticsProvider.getUserStatistics(user1.getId()).orElseThrow().getTotalTrainings()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRevertCaloriesOfTrainingDay_whenDeletingTrainingAfterBirthdateChanged() throws Exception {
+
+        User user1 = existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1979, 3, 1), randomUUID().toString()));
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingRequest(user1, "2024-04-01T10:00:00", "2024-04-01T11:00:00", ActivityType.RUNNING, 10)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(617));
+        mockMvc.perform(put("/v1/users/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "birthdate": "1999-01-01"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(delete("/v1/trainings/{trainingId}", getAllTrainings().get(0).getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(0))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(0));
+    }
+
+    @Test
+    void shouldScaleCaloriesWithSpeedAndAge_whenCreatingTraining() throws Exception {
+
+        User user1 = existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1979, 3, 1), randomUUID().toString()));
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 13.0,
+                    "averageSpeed": 13.0
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(743));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldRepairStatistics_whenRebuildingStatistics() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10));
+        persistTraining(generateTraining(user1, "2024-04-02 10:00:00", "2024-04-02 12:00:00", ActivityType.CYCLING, 40));
+        persistTraining(generateTraining(user2, "2024-04-02 10:00:00", "2024-04-02 10:30:00", ActivityType.WALKING, 3));
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/v1/statistics/rebuild").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").value(2));
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(50.0))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(686 + 1120));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldWaitForTransactionApplyingDelta_whenRebuildingStatistics() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10));
+        CompletableFuture<Integer> rebuild = new CompletableFuture<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                                .content(trainingRequest(user1, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3)))
+                        .andExpect(status().isCreated());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            CompletableFuture.runAsync(() -> rebuild.complete(statisticsService.rebuildStatistics()));
+            assertThat(rebuild).failsWithin(Duration.ofMillis(500));
+        });
+
+        assertThat(rebuild.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(2))
+                .andExpect(jsonPath("$.totalDistance").value(13.0))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(686 + 151));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldPageStatisticsAboveThreshold_whenGettingStatisticsByCalories() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, "2024-04-01 10:00:00", "2024-04-01 11:00:00", ActivityType.RUNNING, 10));
+        persistTraining(generateTraining(user2, "2024-04-01 10:00:00", "2024-04-01 10:30:00", ActivityType.WALKING, 3));
+        persistTraining(generateTraining(user3, "2024-04-02 10:00:00", "2024-04-02 12:00:00", ActivityType.CYCLING, 40));
+        mockMvc.perform(post("/v1/statistics/rebuild")).andExpect(status().isOk());
+
+        String nextCursor = mockMvc.perform(get("/v1/statistics/calories").param("above", "200").param("limit", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value(user1.getId()))
+                .andExpect(jsonPath("$[0].totalCaloriesBurned").value(686))
+                .andReturn().getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/statistics/calories").param("above", "200").param("after", nextCursor).param("limit", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userId").value(user3.getId()))
+                .andExpect(jsonPath("$[0].totalCaloriesBurned").value(1120));
+    }
+
+    @Test
+    void shouldMergeRollupBuckets_whenGettingTrainingTotalsOfDateRange() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = "[%s,%s,%s,%s,%s]".formatted(
+                trainingRequest(user1, "2024-01-29T10:00:00", "2024-01-29T11:00:00", ActivityType.RUNNING, 6),
+                trainingRequest(user1, "2024-01-30T10:00:00", "2024-01-30T11:00:00", ActivityType.RUNNING, 10),
+                trainingRequest(user1, "2024-02-10T10:00:00", "2024-02-10T10:30:00", ActivityType.RUNNING, 5),
+                trainingRequest(user1, "2024-02-12T10:00:00", "2024-02-12T11:00:00", ActivityType.CYCLING, 20),
+                trainingRequest(user1, "2024-03-02T10:00:00", "2024-03-02T11:00:00", ActivityType.RUNNING, 8));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/statistics/rollups/{userId}/totals", user1.getId()).param("from", "2024-01-30").param("to", "2024-03-02"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"))
+                .andExpect(jsonPath("$[0].trainings").value(3))
+                .andExpect(jsonPath("$[0].totalDistance").value(23.0))
+                .andExpect(jsonPath("$[0].durationSeconds").value(9000))
+                .andExpect(jsonPath("$[1].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$[1].trainings").value(1));
+
+        mockMvc.perform(get("/v1/statistics/rollups/{userId}", user1.getId())
+                        .param("granularity", "MONTH").param("from", "2024-01-01").param("to", "2024-03-31").param("activityType", "RUNNING"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-01-01"))
+                .andExpect(jsonPath("$[0].trainings").value(2))
+                .andExpect(jsonPath("$[0].totalDistance").value(16.0))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-02-01"))
+                .andExpect(jsonPath("$[2].periodStart").value("2024-03-01"));
+    }
+
+    @Test
+    void shouldRemoveEmptyRollupBuckets_whenDeletingOnlyTrainingOfBucket() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = "[%s,%s]".formatted(
+                trainingRequest(user1, "2024-02-10T10:00:00", "2024-02-10T10:30:00", ActivityType.RUNNING, 5),
+                trainingRequest(user1, "2024-02-12T10:00:00", "2024-02-12T11:00:00", ActivityType.CYCLING, 20));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+        Training cycling = getAllTrainings().stream()
+                .filter(training -> training.getActivityType() == ActivityType.CYCLING)
+                .findFirst().orElseThrow();
+
+        mockMvc.perform(delete("/v1/trainings/{trainingId}", cycling.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/statistics/rollups/{userId}", user1.getId())
+                        .param("granularity", "DAY").param("from", "2024-02-01").param("to", "2024-02-29"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-02-10"));
+        mockMvc.perform(get("/v1/statistics/rollups/{userId}", user1.getId())
+                        .param("granularity", "MONTH").param("from", "2024-02-01").param("to", "2024-02-29").param("activityType", "CYCLING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/v1/statistics/rollups/{userId}/totals", user1.getId()).param("from", "2024-02-01").param("to", "2024-02-29"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldRankUsersByDistanceOfCurrentWeek_whenGettingLeaderboard() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        String today = now().toString();
+        String lastYear = now().minusYears(1).toString();
+        String requestBody = "[%s,%s,%s,%s,%s]".formatted(
+                trainingRequest(user1, today + "T06:00:00", today + "T07:00:00", ActivityType.RUNNING, 6.5),
+                trainingRequest(user1, lastYear + "T06:00:00", lastYear + "T07:00:00", ActivityType.RUNNING, 10),
+                trainingRequest(user2, today + "T06:00:00", today + "T07:00:00", ActivityType.RUNNING, 12),
+                trainingRequest(user3, today + "T06:00:00", today + "T07:00:00", ActivityType.RUNNING, 10.8),
+                trainingRequest(user3, today + "T08:00:00", today + "T09:00:00", ActivityType.CYCLING, 40));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingRequest(user1, today + "T18:00:00", today + "T19:00:00", ActivityType.RUNNING, 5)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/leaderboards/{activityType}", ActivityType.RUNNING).param("period", "WEEK").param("limit", "3"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activityType").value("RUNNING"))
+                .andExpect(jsonPath("$.periodStart").value(RollupGranularity.WEEK.periodStart(now()).toString()))
+                .andExpect(jsonPath("$.entries", hasSize(3)))
+                .andExpect(jsonPath("$.entries[0].rank").value(1))
+                .andExpect(jsonPath("$.entries[0].userId").value(user2.getId()))
+                .andExpect(jsonPath("$.entries[1].userId").value(user1.getId()))
+                .andExpect(jsonPath("$.entries[1].trainings").value(2))
+                .andExpect(jsonPath("$.entries[1].totalDistance").value(11.5))
+                .andExpect(jsonPath("$.entries[2].rank").value(3))
+                .andExpect(jsonPath("$.entries[2].userId").value(user3.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldDropDeletedTrainingsAndReloadRebuiltRollups_whenGettingLeaderboard() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        String today = now().toString();
+        String requestBody = "[%s,%s]".formatted(
+                trainingRequest(user1, today + "T06:00:00", today + "T07:00:00", ActivityType.RUNNING, 8.5),
+                trainingRequest(user2, today + "T06:00:00", today + "T07:00:00", ActivityType.RUNNING, 10.2));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+
+        Training running = getAllTrainings().stream()
+                .filter(training -> training.getUser().getId().equals(user2.getId()))
+                .findFirst().orElseThrow();
+        mockMvc.perform(delete("/v1/trainings/{trainingId}", running.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/leaderboards/{activityType}", ActivityType.RUNNING).param("period", "DAY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries", hasSize(1)))
+                .andExpect(jsonPath("$.entries[0].userId").value(user1.getId()))
+                .andExpect(jsonPath("$.entries[0].totalDistance").value(8.5));
+
+        persistTraining(generateTraining(user2, today + " 18:00:00", today + " 19:00:00", ActivityType.RUNNING, 11.4));
+        mockMvc.perform(post("/v1/statistics/rollups/rebuild")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/leaderboards/{activityType}", ActivityType.RUNNING).param("period", "DAY"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries", hasSize(2)))
+                .andExpect(jsonPath("$.entries[0].userId").value(user2.getId()))
+                .andExpect(jsonPath("$.entries[0].trainings").value(1))
+                .andExpect(jsonPath("$.entries[0].totalDistance").value(11.4))
+                .andExpect(jsonPath("$.entries[1].userId").value(user1.getId()));
+    }
+
+}
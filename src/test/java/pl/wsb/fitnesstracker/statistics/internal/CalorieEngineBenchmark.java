@@ -0,0 +1,122 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.UserIdRange;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scoring trainings with the {@link CalorieEngine} one {@link Training} at a time,
+ * through the {@link CalorieBatch} used by the statistics rebuild, and directly on already gathered column arrays.
+ * Scores are reported as trainings per second. Run with the GC profiler to see the allocation rate per training:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath pl.wsb.fitnesstracker.statistics.internal.CalorieEngineBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalorieEngineBenchmark {
+
+    private static final int TRAININGS = 64 * CalorieBatch.SIZE;
+
+    private static final int USERS = 100;
+
+    private Training[] trainings;
+    private int[] activityTypes;
+    private long[] durationMillis;
+    private double[] speeds;
+    private int[] ages;
+    private int[] calories;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CalorieEngineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        ActivityType[] activities = ActivityType.values();
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = new User("First" + i, "Last" + i, LocalDate.of(1950 + random.nextInt(55), 1, 1), "user%d@domain.com".formatted(i));
+            users[i].setId((long) i);
+        }
+        trainings = new Training[TRAININGS];
+        activityTypes = new int[TRAININGS];
+        durationMillis = new long[TRAININGS];
+        speeds = new double[TRAININGS];
+        ages = new int[TRAININGS];
+        calories = new int[TRAININGS];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < TRAININGS; i++) {
+            long duration = 600_000L + random.nextLong(7_200_000L);
+            double speed = random.nextDouble(2.0, 30.0);
+            Training training = new Training(users[random.nextInt(USERS)], new Date(start), new Date(start + duration),
+                    activities[random.nextInt(activities.length)], speed * duration / 3_600_000.0, speed);
+            trainings[i] = training;
+            activityTypes[i] = training.getActivityType().ordinal();
+            durationMillis[i] = CalorieEngine.durationMillis(training);
+            speeds[i] = CalorieEngine.speed(training);
+            ages[i] = CalorieEngine.age(training);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAININGS)
+    public void perTraining(Blackhole blackhole) {
+        for (Training training : trainings) {
+            blackhole.consume(CalorieEngine.caloriesBurned(training));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAININGS)
+    public List<Object[]> calorieBatch() {
+        CalorieBatch batch = new CalorieBatch(new UserIdRange(0, USERS - 1));
+        for (Training training : trainings) {
+            batch.add(training);
+        }
+        batch.flush();
+        return batch.rows();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAININGS)
+    public int[] columnArrays() {
+        CalorieEngine.estimate(activityTypes, durationMillis, speeds, ages, calories, TRAININGS);
+        return calories;
+    }
+
+}
@@ -0,0 +1,106 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalorieEngineTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private static final int RUNNING = ActivityType.RUNNING.ordinal();
+    private static final int CYCLING = ActivityType.CYCLING.ordinal();
+    private static final int WALKING = ActivityType.WALKING.ordinal();
+    private static final int TENNIS = ActivityType.TENNIS.ordinal();
+
+    private static Training training(User user, LocalDate day, long durationMillis, ActivityType activityType,
+                                     double distance, double averageSpeed) {
+        Date start = Date.from(day.atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant());
+        return new Training(user, start, new Date(start.getTime() + durationMillis), activityType, distance, averageSpeed);
+    }
+
+    @Test
+    void shouldUseMetOfSpeedBracket_whenSpeedIsKnown() {
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 10.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(686);
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 7.9, CalorieEngine.UNKNOWN_AGE)).isEqualTo(490);
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 8.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(581);
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 30.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(1120);
+        assertThat(CalorieEngine.estimate(CYCLING, 2 * HOUR, 20.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(1120);
+        assertThat(CalorieEngine.estimate(WALKING, HOUR / 2, 6.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(151);
+        assertThat(CalorieEngine.estimate(TENNIS, HOUR, 50.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(511);
+    }
+
+    @Test
+    void shouldUseTypicalMet_whenSpeedIsNotKnown() {
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 0.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(686);
+        assertThat(CalorieEngine.estimate(CYCLING, HOUR, 0.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(525);
+        assertThat(CalorieEngine.estimate(WALKING, HOUR, -1.0, CalorieEngine.UNKNOWN_AGE)).isEqualTo(245);
+    }
+
+    @Test
+    void shouldReduceEstimateWithAge_whenOlderThanTwentyFive() {
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 10.0, 25)).isEqualTo(686);
+        assertThat(CalorieEngine.estimate(RUNNING, HOUR, 10.0, 45)).isEqualTo(617);
+        assertThat(CalorieEngine.estimate(RUNNING, 2 * HOUR, 10.0, 75)).isEqualTo(1029);
+        assertThat(CalorieEngine.estimate(RUNNING, 2 * HOUR, 10.0, 100)).isEqualTo(1029);
+    }
+
+    @Test
+    void shouldEstimateNothing_whenDurationIsNotPositive() {
+        assertThat(CalorieEngine.estimate(RUNNING, 0, 10.0, 30)).isZero();
+        assertThat(CalorieEngine.estimate(RUNNING, -HOUR, 10.0, 30)).isZero();
+
+        User user = new User("John", "Doe", LocalDate.of(1990, 1, 1), "john.doe@domain.com");
+        Training reversed = training(user, LocalDate.of(2024, 4, 1), -HOUR, ActivityType.RUNNING, 10.0, 0.0);
+        assertThat(CalorieEngine.speed(reversed)).isZero();
+        assertThat(CalorieEngine.caloriesBurned(reversed)).isZero();
+    }
+
+    @Test
+    void shouldMatchScalarEstimates_whenEstimatingColumnArrays() {
+        int[] activityTypes = {RUNNING, CYCLING, WALKING, TENNIS, RUNNING};
+        long[] durationMillis = {HOUR, 2 * HOUR, HOUR / 2, 0, HOUR};
+        double[] speeds = {10.0, 20.0, 6.0, 0.0, 0.0};
+        int[] ages = {CalorieEngine.UNKNOWN_AGE, 40, 60, 30, 90};
+        int[] calories = new int[activityTypes.length + 1];
+        calories[activityTypes.length] = -1;
+
+        CalorieEngine.estimate(activityTypes, durationMillis, speeds, ages, calories, activityTypes.length);
+
+        for (int i = 0; i < activityTypes.length; i++) {
+            assertThat(calories[i]).isEqualTo(CalorieEngine.estimate(activityTypes[i], durationMillis[i], speeds[i], ages[i]));
+        }
+        assertThat(calories[activityTypes.length]).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldScoreWithAgeOnTrainingDay_whenBirthdateChangesLater() {
+        User user = new User("John", "Doe", LocalDate.of(1979, 4, 2), "john.doe@domain.com");
+        Training training = training(user, LocalDate.of(2024, 4, 1), HOUR, ActivityType.CYCLING, 20.0, 0.0);
+
+        assertThat(CalorieEngine.age(training)).isEqualTo(44);
+        assertThat(CalorieEngine.speed(training)).isEqualTo(20.0);
+        int calories = CalorieEngine.caloriesBurned(training);
+        assertThat(calories).isEqualTo(CalorieEngine.estimate(CYCLING, HOUR, 20.0, 44));
+
+        user.setBirthdate(LocalDate.of(1940, 1, 1));
+        assertThat(CalorieEngine.caloriesBurned(training)).isEqualTo(calories);
+    }
+
+    @Test
+    void shouldIgnoreAge_whenBirthdateIsNotKnown() {
+        User user = new User("John", "Doe", null, "john.doe@domain.com");
+        Training training = training(user, LocalDate.of(2024, 4, 1), HOUR, ActivityType.RUNNING, 0.0, 10.0);
+
+        assertThat(CalorieEngine.age(training)).isEqualTo(CalorieEngine.UNKNOWN_AGE);
+        assertThat(CalorieEngine.caloriesBurned(training)).isEqualTo(686);
+    }
+
+}
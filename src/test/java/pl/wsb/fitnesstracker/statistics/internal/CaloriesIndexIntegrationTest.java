@@ -0,0 +1,178 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "statistics.calories-index.enabled=true")
+class CaloriesIndexIntegrationTest extends IntegrationTestBase {
+
+    private static final int[] THRESHOLDS = {-1, 0, 150, 700, 5000};
+
+    private static final int[] LIMITS = {1, 2, 100};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private StatisticsRebuildJob statisticsRebuildJob;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static String trainingRequest(User user, String startTime, String endTime, ActivityType activityType, double distance) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "%s",
+                    "endTime": "%s",
+                    "activityType": "%s",
+                    "distance": %s,
+                    "averageSpeed": 0.0
+                }
+                """.formatted(user.getId(), startTime, endTime, activityType, distance);
+    }
+
+    /**
+     * Drops the statistics of users removed by the cleanup of other tests sharing the context.
+     */
+    @BeforeEach
+    void reloadIndex() {
+        statisticsRebuildJob.reloadCaloriesIndex();
+    }
+
+    @Test
+    void shouldMatchDatabase_whenTrainingsAreCreatedDeletedAndRebuilt() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        User user4 = existingUser(generateClient());
+        String requestBody = "[%s,%s,%s,%s,%s]".formatted(
+                trainingRequest(user1, "2024-04-01T10:00:00", "2024-04-01T11:00:00", ActivityType.RUNNING, 10),
+                trainingRequest(user1, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3),
+                trainingRequest(user2, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3),
+                trainingRequest(user3, "2024-04-02T10:00:00", "2024-04-02T12:00:00", ActivityType.CYCLING, 40),
+                trainingRequest(user4, "2024-04-03T10:00:00", "2024-04-03T11:00:00", ActivityType.RUNNING, 10));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+
+        assertThat(indexPages(0, 100)).extracting(StatisticsDto::userId)
+                .containsExactly(user2.getId(), user4.getId(), user1.getId(), user3.getId());
+        assertIndexMatchesDatabase();
+
+        for (Training training : getAllTrainings()) {
+            if (training.getActivityType() == ActivityType.WALKING) {
+                mockMvc.perform(delete("/v1/trainings/{trainingId}", training.getId())).andExpect(status().isNoContent());
+            }
+        }
+        assertThat(indexPages(-1, 100)).extracting(StatisticsDto::userId)
+                .containsExactly(user2.getId(), user1.getId(), user4.getId(), user3.getId());
+        assertIndexMatchesDatabase();
+
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        persistTraining(new Training(user2, sdf.parse("2024-04-05 10:00:00"), sdf.parse("2024-04-05 12:00:00"),
+                ActivityType.CYCLING, 40, 0));
+        mockMvc.perform(post("/v1/statistics/rebuild")).andExpect(status().isOk());
+
+        assertThat(indexPages(-1, 100)).extracting(StatisticsDto::userId)
+                .containsExactly(user1.getId(), user4.getId(), user2.getId(), user3.getId());
+        assertIndexMatchesDatabase();
+    }
+
+    @Test
+    void shouldEvictStatistics_whenUserIsDeleted() throws Exception {
+
+        User deletedUser = existingUser(generateClient());
+        User keptUser = existingUser(generateClient());
+        String requestBody = "[%s,%s]".formatted(
+                trainingRequest(deletedUser, "2024-04-01T10:00:00", "2024-04-01T10:30:00", ActivityType.WALKING, 3),
+                trainingRequest(keptUser, "2024-04-01T10:00:00", "2024-04-01T11:00:00", ActivityType.RUNNING, 10));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+
+        for (Training training : getAllTrainings()) {
+            if (training.getUser().getId().equals(deletedUser.getId())) {
+                mockMvc.perform(delete("/v1/trainings/{trainingId}", training.getId())).andExpect(status().isNoContent());
+            }
+        }
+        mockMvc.perform(delete("/v1/users/{userId}", deletedUser.getId())).andExpect(status().isNoContent());
+
+        assertThat(indexPages(-1, 100)).extracting(StatisticsDto::userId)
+                .containsExactly(keptUser.getId());
+        assertIndexMatchesDatabase();
+    }
+
+    private void assertIndexMatchesDatabase() {
+        for (int threshold : THRESHOLDS) {
+            for (int limit : LIMITS) {
+                assertThat(indexPages(threshold, limit))
+                        .as("threshold %d, limit %d", threshold, limit)
+                        .isEqualTo(databasePages(threshold, limit));
+            }
+        }
+    }
+
+    /**
+     * Reads all pages through the service, which answers from the in-memory index.
+     */
+    private List<StatisticsDto> indexPages(int threshold, int limit) {
+        List<StatisticsDto> statistics = new ArrayList<>();
+        String after = null;
+        do {
+            KeysetPage<StatisticsDto> page = statisticsProvider.findStatisticsAboveCalories(threshold, after, limit);
+            statistics.addAll(page.items());
+            after = page.nextCursor();
+        } while (after != null);
+        return statistics;
+    }
+
+    /**
+     * Reads all pages with the database queries the service falls back to without the index.
+     */
+    private List<StatisticsDto> databasePages(int threshold, int limit) {
+        List<StatisticsDto> statistics = new ArrayList<>();
+        List<StatisticsDto> page = statisticsRepository.findAboveCalories(threshold, Limit.of(limit));
+        while (!page.isEmpty()) {
+            statistics.addAll(page);
+            StatisticsDto last = page.get(page.size() - 1);
+            page = statisticsRepository.findAboveCaloriesAfter(threshold, last.totalCaloriesBurned(), last.userId(), Limit.of(limit));
+        }
+        return statistics;
+    }
+
+}
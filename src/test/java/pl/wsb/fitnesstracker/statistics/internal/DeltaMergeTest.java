@@ -0,0 +1,66 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeltaMergeTest {
+
+    private static final String MERGE = "merge into statistics s using (select cast(? as bigint) as user_id) d on s.user_id = d.user_id";
+
+    @Test
+    void shouldMergeAgain_whenConcurrentTransactionInsertedTheRow() {
+        FailingJdbcTemplate jdbcTemplate = new FailingJdbcTemplate(new DuplicateKeyException("uk_statistics_user"));
+
+        assertThat(DeltaMerge.apply(jdbcTemplate, MERGE, 7L)).isEqualTo(1);
+        assertThat(jdbcTemplate.statements).containsExactly(MERGE, MERGE);
+    }
+
+    @Test
+    void shouldNotMergeAgain_whenOtherConstraintIsViolated() {
+        FailingJdbcTemplate jdbcTemplate = new FailingJdbcTemplate(new DataIntegrityViolationException("fk_statistics_user"));
+
+        assertThatThrownBy(() -> DeltaMerge.apply(jdbcTemplate, MERGE, 7L)).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(jdbcTemplate.statements).containsExactly(MERGE);
+    }
+
+    @Test
+    void shouldFail_whenMergingAgainFails() {
+        FailingJdbcTemplate jdbcTemplate = new FailingJdbcTemplate(new DuplicateKeyException("uk_statistics_user"),
+                new DuplicateKeyException("uk_statistics_user"));
+
+        assertThatThrownBy(() -> DeltaMerge.apply(jdbcTemplate, MERGE, 7L)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(jdbcTemplate.statements).containsExactly(MERGE, MERGE);
+    }
+
+    /**
+     * Throws the given failures from the first updates, then reports a single affected row.
+     */
+    private static final class FailingJdbcTemplate extends JdbcTemplate {
+
+        private final List<RuntimeException> failures;
+        private final List<String> statements = new ArrayList<>();
+
+        private FailingJdbcTemplate(RuntimeException... failures) {
+            this.failures = new ArrayList<>(List.of(failures));
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(sql);
+            if (!failures.isEmpty()) {
+                throw failures.remove(0);
+            }
+            return 1;
+        }
+
+    }
+
+}
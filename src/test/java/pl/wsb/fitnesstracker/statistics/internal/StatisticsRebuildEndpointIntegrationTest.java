@@ -0,0 +1,124 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsDto;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "management.endpoints.web.exposure.include=statisticsRebuild",
+        "statistics.rebuild.range-size=1",
+        "statistics.rebuild.parallelism=4"
+})
+class StatisticsRebuildEndpointIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Autowired
+    private StatisticsRebuildJob statisticsRebuildJob;
+
+    @Autowired
+    private TrainingDeltaLock deltaLock;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static String trainingRequest(User user, String startTime, String endTime, ActivityType activityType, double distance) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "%s",
+                    "endTime": "%s",
+                    "activityType": "%s",
+                    "distance": %s,
+                    "averageSpeed": 0.0
+                }
+                """.formatted(user.getId(), startTime, endTime, activityType, distance);
+    }
+
+    @Test
+    void shouldRebuildIncrementalStatistics_whenStartingRebuildThroughActuator() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        User user4 = existingUser(generateClient());
+        String requestBody = "[%s,%s,%s,%s,%s]".formatted(
+                trainingRequest(user1, "2024-04-01T10:00:00", "2024-04-01T11:00:00", ActivityType.RUNNING, 10),
+                trainingRequest(user1, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3),
+                trainingRequest(user2, "2024-04-02T10:00:00", "2024-04-02T10:30:00", ActivityType.WALKING, 3),
+                trainingRequest(user3, "2024-04-02T10:00:00", "2024-04-02T12:00:00", ActivityType.CYCLING, 40),
+                trainingRequest(user4, "2024-04-03T10:00:00", "2024-04-03T11:00:00", ActivityType.RUNNING, 10));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+        List<StatisticsDto> incremental = allStatistics();
+        assertThat(incremental).hasSize(4);
+
+        mockMvc.perform(get("/actuator/statisticsRebuild")).andExpect(status().isOk());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            deltaLock.guard(List.of(user1.getId()), () -> null);
+            try {
+                mockMvc.perform(post("/actuator/statisticsRebuild"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.state").value("RUNNING"));
+                mockMvc.perform(post("/actuator/statisticsRebuild"))
+                        .andExpect(status().isConflict());
+                await().atMost(Duration.ofSeconds(10)).until(() -> statisticsRebuildJob.getProgress().completedRanges() > 0);
+                mockMvc.perform(get("/actuator/statisticsRebuild"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.state").value("RUNNING"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> statisticsRebuildJob.getProgress().state()
+                == StatisticsRebuildProgress.State.COMPLETED);
+        mockMvc.perform(get("/actuator/statisticsRebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.totalRanges").value(greaterThan(1)))
+                .andExpect(jsonPath("$.trainingsProcessed").value(5))
+                .andExpect(jsonPath("$.usersWritten").value(4));
+        assertThat(allStatistics()).isEqualTo(incremental);
+    }
+
+    private List<StatisticsDto> allStatistics() {
+        return statisticsProvider.findStatisticsAboveCalories(-1, null, 100).items();
+    }
+
+}
@@ -1,25 +1,41 @@
 package pl.wsb.fitnesstracker.training;
 
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.IntegrationTest;
 import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 
 import static java.time.LocalDate.now;
 import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @IntegrationTest
@@ -30,6 +46,9 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
     @Autowired
     private MockMvc mockMvc;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private static User generateClient() {
         return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
     }
@@ -94,6 +113,68 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[1]").doesNotExist());
     }
 
+    @Test
+    void shouldIssueConstantNumberOfStatements_whenGettingAllTrainingsOfManyUsers() throws Exception {
+
+        persistTraining(generateTraining(existingUser(generateClient())));
+        long statementsForOneUser = countStatements(() -> mockMvc.perform(get("/v1/trainings").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1))));
+
+        for (int i = 0; i < 9; i++) {
+            persistTraining(generateTraining(existingUser(generateClient())));
+        }
+        long statementsForTenUsers = countStatements(() -> mockMvc.perform(get("/v1/trainings").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10))));
+
+        assertThat(statementsForTenUsers).isEqualTo(statementsForOneUser);
+    }
+
+    private long countStatements(ThrowingRunnable request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            request.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldStreamAllTrainingsAsNdjson_whenExportingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTraining(user1));
+        Training training2 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.TENNIS));
+
+        MvcResult result = mockMvc.perform(get("/v1/trainings/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(content.lines().toList())
+                .hasSize(2)
+                .satisfiesExactly(
+                        line -> assertThat(line).contains(user1.getEmail(), training1.getActivityType().toString()),
+                        line -> assertThat(line).contains(user1.getEmail(), training2.getActivityType().toString()));
+    }
+
     @Test
     void shouldReturnAllTrainingsForDedicatedUser_whenGettingAllTrainingsForDedicatedUser() throws Exception {
 
@@ -117,6 +198,33 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[1]").doesNotExist());
     }
 
+    @Test
+    void shouldReturnOnlyUserTrainingsOrderedByStartTime_whenPagingTrainingsForDedicatedUser() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithDetails(user1, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.CYCLING, 30, 20));
+        persistTraining(generateTrainingWithDetails(user2, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 5, 10));
+        Training training3 = persistTraining(generateTrainingWithDetails(user1, "2024-05-18 07:00:00", "2024-05-18 08:00:00", ActivityType.WALKING, 4, 4));
+
+        String nextCursor = mockMvc.perform(get("/v1/trainings/{userId}", user1.getId()).param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].activityType").value(training2.getActivityType().toString()))
+                .andExpect(jsonPath("$[1].activityType").value(training3.getActivityType().toString()))
+                .andReturn().getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user1.getId()).param("after", nextCursor).param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$[0].activityType").value(training1.getActivityType().toString()));
+    }
+
     @Test
     void shouldReturnAllFinishedTrainingsAfterTime_whenGettingAllFinishedTrainingsAfterTime() throws Exception {
 
@@ -167,6 +275,105 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
+    @Test
+    void shouldPageTrainingsByEndTime_whenGettingTrainingsByActivityType() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.CYCLING, 30, 20));
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.CYCLING, 20, 20));
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 5, 10));
+
+        String nextCursor = mockMvc.perform(get("/v1/trainings/activityType").param("activityType", "CYCLING").param("limit", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].distance").value(20.0))
+                .andReturn().getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/trainings/activityType").param("activityType", "CYCLING").param("after", nextCursor).param("limit", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].distance").value(30.0));
+    }
+
+    @Test
+    void shouldReturnTrainingsMatchingAllCriteria_whenSearchingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 12, 10));
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 15, 11));
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.RUNNING, 3, 9));
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-20 19:00:00", "2024-05-20 20:30:00", ActivityType.CYCLING, 14, 20));
+        persistTraining(generateTrainingWithDetails(user2, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 14, 10));
+
+        String nextCursor = mockMvc.perform(get("/v1/trainings/search")
+                        .param("userId", user1.getId().toString())
+                        .param("activityType", "RUNNING")
+                        .param("endedFrom", "2024-05-17T00:00:00")
+                        .param("minDistance", "10")
+                        .param("sort", "END_TIME")
+                        .param("direction", "DESC")
+                        .param("limit", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$[0].distance").value(15.0))
+                .andReturn().getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/trainings/search")
+                        .param("userId", user1.getId().toString())
+                        .param("activityType", "RUNNING")
+                        .param("endedFrom", "2024-05-17T00:00:00")
+                        .param("minDistance", "10")
+                        .param("sort", "END_TIME")
+                        .param("direction", "DESC")
+                        .param("after", nextCursor)
+                        .param("limit", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].distance").value(12.0));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldWriteTrainingInBackground_whenSubmittingTrainingAsynchronously() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "SWIMMING",
+                    "distance": 1.5,
+                    "averageSpeed": 2.0
+                }
+                """.formatted(user1.getId());
+
+        String response = mockMvc.perform(post("/v1/trainings/async").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        String trackingId = JsonPath.read(response, "$.trackingId");
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                mockMvc.perform(get("/v1/trainings/async/{trackingId}", trackingId))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.state").value("CREATED"))
+                        .andExpect(jsonPath("$.trainingId").isNumber()));
+        assertThat(getAllTrainings())
+                .extracting(Training::getActivityType)
+                .containsExactly(ActivityType.SWIMMING);
+    }
+
     @Test
     void shouldPersistTraining_whenCreatingNewTraining() throws Exception {
 
@@ -194,6 +401,98 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    void shouldReturnNotFound_whenCreatingTrainingOfUnknownUser() throws Exception {
+
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """.formatted(Long.MAX_VALUE);
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenCreatingTrainingWithoutUser() throws Exception {
+
+        String requestBody = """
+                {
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """;
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldPersistValidTrainingsAndRejectInvalid_whenCreatingTrainingsInBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+
+        String requestBody = """
+                [
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "RUNNING",
+                        "distance": 10.52,
+                        "averageSpeed": 8.2
+                    },
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "CYCLING",
+                        "distance": 25.0,
+                        "averageSpeed": 20.0
+                    },
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "WALKING",
+                        "distance": 5.0,
+                        "averageSpeed": 5.0
+                    },
+                    {
+                        "userId": "%s",
+                        "activityType": "WALKING"
+                    }
+                ]
+                """.formatted(user1.getId(), user2.getId(), user2.getId() + 1000, user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].trainingId").isNumber())
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].error").value("User with ID=%s was not found".formatted(user2.getId() + 1000)))
+                .andExpect(jsonPath("$[3].status").value("REJECTED"))
+                .andExpect(jsonPath("$[4]").doesNotExist());
+
+        assertThat(getAllTrainings())
+                .extracting(training -> training.getUser().getId(), Training::getActivityType)
+                .containsExactlyInAnyOrder(
+                        tuple(user1.getId(), ActivityType.RUNNING),
+                        tuple(user2.getId(), ActivityType.CYCLING));
+    }
+
     @Test
     void shouldUpdateTraining_whenUpdatingTraining() throws Exception {
 
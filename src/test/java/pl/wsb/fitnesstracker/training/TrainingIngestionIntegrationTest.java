@@ -0,0 +1,123 @@
+package pl.wsb.fitnesstracker.training;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingChangeListener;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "training.ingestion.enabled=true",
+        "training.ingestion.queue-capacity=1",
+        "training.ingestion.writer-threads=1"
+})
+class TrainingIngestionIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlockingListener blockingListener;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static String trainingRequest(User user) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.0,
+                    "averageSpeed": 10.0
+                }
+                """.formatted(user.getId());
+    }
+
+    @AfterEach
+    void releaseWriter() {
+        blockingListener.release();
+    }
+
+    @Test
+    void shouldRejectTraining_whenQueueIsFull() throws Exception {
+        User user1 = existingUser(new User(randomUUID().toString(), randomUUID().toString(), LocalDate.now(), randomUUID().toString()));
+        double rejectedBefore = meterRegistry.get("training.ingestion.rejected").counter().count();
+
+        mockMvc.perform(post("/v1/trainings/async").contentType(MediaType.APPLICATION_JSON).content(trainingRequest(user1)))
+                .andExpect(status().isAccepted());
+        assertThat(blockingListener.awaitWriting()).isTrue();
+        mockMvc.perform(post("/v1/trainings/async").contentType(MediaType.APPLICATION_JSON).content(trainingRequest(user1)))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/v1/trainings/async").contentType(MediaType.APPLICATION_JSON).content(trainingRequest(user1)))
+                .andExpect(status().isTooManyRequests());
+
+        assertThat(meterRegistry.get("training.ingestion.rejected").counter().count()).isEqualTo(rejectedBefore + 1);
+        blockingListener.release();
+        await().atMost(Duration.ofSeconds(10)).until(() -> getAllTrainings().size() == 2);
+    }
+
+    /**
+     * Holds the writer within the transaction of its first batch until released.
+     */
+    static class BlockingListener implements TrainingChangeListener {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void onTrainingCreated(Training training) {
+            writing.countDown();
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        boolean awaitWriting() throws InterruptedException {
+            return writing.await(10, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+    }
+
+    @TestConfiguration
+    static class BlockingListenerConfig {
+
+        @Bean
+        BlockingListener blockingListener() {
+            return new BlockingListener();
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs H2 {@code EXPLAIN} on the SQL generated by the training search, as recorded by a Hibernate {@link StatementInspector}.
+ */
+@IntegrationTest
+@Transactional
+class TrainingSearchPlanIntegrationTest extends IntegrationTestBase {
+
+    private static final Timestamp TIME = Timestamp.valueOf("2024-05-17 00:00:00");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Test
+    void shouldUseUserStartTimeIndex_whenSearchingByUserAndStartTime() throws Exception {
+        String sql = searchSql(get("/v1/trainings/search")
+                .param("userId", "1")
+                .param("startedFrom", "2024-05-17T00:00:00")
+                .param("sort", "START_TIME"));
+
+        assertThat(explain(sql, 1L, TIME, 101)).containsIgnoringCase("idx_trainings_user_start");
+    }
+
+    @Test
+    void shouldUseActivityEndTimeIndex_whenSearchingByActivityTypeAndEndTime() throws Exception {
+        String sql = searchSql(get("/v1/trainings/search")
+                .param("activityType", "RUNNING")
+                .param("endedFrom", "2024-05-17T00:00:00")
+                .param("sort", "END_TIME"));
+
+        assertThat(explain(sql, ActivityType.RUNNING.ordinal(), TIME, 101)).containsIgnoringCase("idx_trainings_activity_end");
+    }
+
+    @Test
+    void shouldUseEndTimeIndex_whenSearchingByEndTimeWindow() throws Exception {
+        String sql = searchSql(get("/v1/trainings/search")
+                .param("endedFrom", "2024-05-17T00:00:00")
+                .param("endedTo", "2024-05-18T00:00:00")
+                .param("sort", "END_TIME"));
+
+        assertThat(explain(sql, TIME, TIME, 101)).containsIgnoringCase("idx_trainings_end_time");
+    }
+
+    private String searchSql(RequestBuilder request) throws Exception {
+        statementRecorder.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        List<String> searches = statementRecorder.statements().stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("from trainings"))
+                .toList();
+        assertThat(searches).hasSize(1);
+        return searches.get(0);
+    }
+
+    /**
+     * Explains the recorded statement with the given values bound to its parameters, in the order they appear.
+     */
+    private String explain(String sql, Object... parameters) {
+        assertThat(StringUtils.countOccurrencesOf(sql, "?")).as("parameters of %s", sql).isEqualTo(parameters.length);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    static class StatementRecorder implements StatementInspector {
+
+        private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> statements() {
+            return new ArrayList<>(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementRecorderCustomizer(StatementRecorder statementRecorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementRecorder);
+        }
+
+    }
+
+}
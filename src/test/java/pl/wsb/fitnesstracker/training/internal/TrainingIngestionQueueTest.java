@@ -0,0 +1,51 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.training.api.SimpleTrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionStatus;
+import pl.wsb.fitnesstracker.training.api.TrainingIngestionStoppedException;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrainingIngestionQueueTest {
+
+    private static final SimpleTrainingDto TRAINING = new SimpleTrainingDto(1L, new Date(0), new Date(3_600_000),
+            ActivityType.RUNNING, 10.0, 10.0);
+
+    @Test
+    void shouldRejectTraining_whenSubmittedAfterStop() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TrainingIngestionProperties properties = new TrainingIngestionProperties(10, 1, 10, Duration.ofMillis(10), true,
+                Duration.ofSeconds(1), Duration.ofHours(1), 100);
+        TrainingIngestionQueue queue = new TrainingIngestionQueue(null, properties, meterRegistry);
+        queue.start();
+
+        queue.stop();
+
+        assertThatThrownBy(() -> queue.submit(TRAINING)).isInstanceOf(TrainingIngestionStoppedException.class);
+        assertThat(meterRegistry.get("training.ingestion.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("training.ingestion.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldMarkQueuedTrainingsRejected_whenDroppedOnStop() {
+        TrainingIngestionProperties properties = new TrainingIngestionProperties(10, 1, 10, Duration.ofMillis(10), false,
+                Duration.ofSeconds(1), Duration.ofHours(1), 100);
+        TrainingIngestionQueue queue = new TrainingIngestionQueue(null, properties, new SimpleMeterRegistry());
+        TrainingIngestionStatus status = queue.submit(TRAINING);
+
+        queue.stop();
+
+        assertThat(queue.getStatus(status.trackingId())).hasValueSatisfying(dropped -> {
+            assertThat(dropped.state()).isEqualTo(TrainingIngestionStatus.State.REJECTED);
+            assertThat(dropped.error()).isNotBlank();
+        });
+    }
+
+}
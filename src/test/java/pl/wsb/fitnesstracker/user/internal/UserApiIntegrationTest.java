@@ -3,11 +3,18 @@ package pl.wsb.fitnesstracker.user.internal;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import pl.wsb.fitnesstracker.IntegrationTest;
 import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.pagination.api.KeysetPage;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.time.LocalDate;
@@ -19,7 +26,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @IntegrationTest
@@ -30,6 +40,12 @@ class UserApiIntegrationTest extends IntegrationTestBase {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public static User generateUser() {
         return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.now(), randomUUID().toString());
     }
@@ -58,6 +74,33 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
+    @Test
+    void shouldReturnUsersPageByPage_whenGettingAllUsersWithCursor() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+        User user3 = existingUser(generateUser());
+
+        String nextCursor = mockMvc.perform(get("/v1/users").param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().exists(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$[1].id").value(user2.getId()))
+                .andReturn().getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/v1/users").param("after", nextCursor).param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user3.getId()));
+
+        mockMvc.perform(get("/v1/users").param("after", "not-a-cursor").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnAllSimpleUsers_whenGettingAllUsers() throws Exception {
         User user1 = existingUser(generateUser());
@@ -76,6 +119,29 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldStreamAllUsersAsNdjson_whenExportingUsers() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        MvcResult result = mockMvc.perform(get("/v1/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(content.lines().toList())
+                .hasSize(2)
+                .satisfiesExactly(
+                        line -> assertThat(line).contains("\"id\":" + user1.getId(), user1.getEmail()),
+                        line -> assertThat(line).contains("\"id\":" + user2.getId(), user2.getEmail()));
+    }
+
     @Test
     void shouldReturnDetailsAboutUser_whenGettingUserById() throws Exception {
         User user1 = existingUser(generateUser());
@@ -91,6 +157,61 @@ class UserApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldCacheUserUntilUpdated_whenGettingUserById() throws Exception {
+        User user1 = existingUser(generateUser());
+        Cache usersCache = cacheManager.getCache(UserCacheConfig.USERS_CACHE);
+
+        mockMvc.perform(get("/v1/users/{id}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        assertThat(usersCache.get(user1.getId())).isNotNull();
+
+        mockMvc.perform(put("/v1/users/{userId}", user1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "firstName": "Mike"
+                                }
+                                """))
+                .andExpect(status().isCreated());
+        assertThat(usersCache.get(user1.getId())).isNull();
+
+        mockMvc.perform(get("/v1/users/{id}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Mike"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldEvictCachedUserAfterCommit_whenPatchingUserInTransaction() throws Exception {
+        User user1 = existingUser(generateUser());
+        Cache usersCache = cacheManager.getCache(UserCacheConfig.USERS_CACHE);
+        mockMvc.perform(get("/v1/users/{id}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                mockMvc.perform(patch("/v1/users/{userId}", user1.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                        {
+                                        "firstName": "Mike"
+                                        }
+                                        """))
+                        .andExpect(status().isOk());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertThat(usersCache.get(user1.getId())).isNotNull();
+        });
+
+        assertThat(usersCache.get(user1.getId())).isNull();
+        mockMvc.perform(get("/v1/users/{id}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Mike"));
+    }
+
     @Test
     void shouldReturnDetailsAboutUser_whenGettingUserByEmail() throws Exception {
         User user1 = existingUser(generateUser());
@@ -103,6 +224,33 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
     }
 
+    @Test
+    void shouldReturnUsersMatchingFragment_whenGettingUserByEmailFragment() throws Exception {
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.now(), "Emma.Johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Johnston", LocalDate.now(), "ethan.johnston@domain.com"));
+        existingUser(new User("Olivia", "Davis", LocalDate.now(), "olivia.davis@domain.com"));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "JOHNS").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[1].id").value(user2.getId().intValue()))
+                .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "nhoj").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "v").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value("olivia.davis@domain.com"));
+    }
+
     @Test
     void shouldReturnAllUsersOlderThan_whenGettingAllUsersOlderThan() throws Exception {
         User user1 = existingUser(generateUserWithDate(LocalDate.of(2000, 8, 11)));
@@ -120,6 +268,25 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[1]").doesNotExist());
     }
 
+    @Test
+    void shouldReturnUsersWithinCohortOrderedByBirthdate_whenGettingUsersOlderThanWithBounds() throws Exception {
+        existingUser(generateUserWithDate(LocalDate.of(1960, 1, 1)));
+        User user2 = existingUser(generateUserWithDate(LocalDate.of(1990, 5, 5)));
+        User user3 = existingUser(generateUserWithDate(LocalDate.of(1985, 3, 3)));
+        existingUser(generateUserWithDate(LocalDate.of(1995, 7, 7)));
+        existingUser(generateUserWithDate(LocalDate.of(2010, 1, 1)));
+
+        mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2000, 1, 1))
+                        .param("bornAfter", "1970-01-01")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(user3.getId()))
+                .andExpect(jsonPath("$[1].id").value(user2.getId()));
+    }
+
     @Test
     void shouldRemoveUserFromRepository_whenDeletingClient() throws Exception {
         User user1 = existingUser(generateUser());
@@ -211,5 +378,76 @@ class UserApiIntegrationTest extends IntegrationTestBase {
         assertThat(user.getEmail()).isEqualTo(USER_EMAIL);
     }
 
+    @Test
+    void shouldUpdateOnlySuppliedFields_whenPatchingUser() throws Exception {
+        User user1 = existingUser(generateUser());
+
+        String etag = mockMvc.perform(get("/v1/users/{id}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/v1/users/{userId}", user1.getId())
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "firstName": "Mike",
+                                "email": "mike.scott@domain.com"
+                                }
+                                """))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedRows").value(1));
+
+        User user = getAllUsers().get(0);
+        assertThat(user.getFirstName()).isEqualTo("Mike");
+        assertThat(user.getEmail()).isEqualTo("mike.scott@domain.com");
+        assertThat(user.getLastName()).isEqualTo(user1.getLastName());
+        assertThat(user.getBirthdate()).isEqualTo(user1.getBirthdate());
+
+        mockMvc.perform(get("/v1/users/email").param("email", "SCOTT@").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId()));
+    }
+
+    @Test
+    void shouldRejectPatch_whenUserWasModifiedConcurrently() throws Exception {
+        User user1 = existingUser(generateUser());
+        String staleEtag = "\"" + user1.getVersion() + "\"";
+
+        mockMvc.perform(patch("/v1/users/{userId}", user1.getId())
+                        .header(HttpHeaders.IF_MATCH, staleEtag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "lastName": "Scott"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/v1/users/{userId}", user1.getId())
+                        .header(HttpHeaders.IF_MATCH, staleEtag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "lastName": "Schrute"
+                                }
+                                """))
+                .andDo(log())
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch("/v1/users/{userId}", user1.getId() + 1000)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "lastName": "Schrute"
+                                }
+                                """))
+                .andExpect(status().isNotFound());
+
+        assertThat(getAllUsers().get(0).getLastName()).isEqualTo("Scott");
+    }
 
 }